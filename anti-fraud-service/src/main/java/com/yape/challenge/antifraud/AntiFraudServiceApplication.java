@@ -3,10 +3,12 @@ package com.yape.challenge.antifraud;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
-@SpringBootApplication(scanBasePackages = "com.yape.challenge")
+@SpringBootApplication(scanBasePackages = "com.yape.challenge.antifraud")
 @EnableKafka
+@EnableScheduling
 public class AntiFraudServiceApplication {
     
     public static void main(String[] args) {
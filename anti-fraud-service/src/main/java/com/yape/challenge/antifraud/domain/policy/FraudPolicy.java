@@ -0,0 +1,103 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import com.yape.challenge.antifraud.domain.rules.RuleVerdict;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+// Plan de evaluación precompilado e inmutable: límites en arreglos indexados por tipo,
+// listas de cuentas ordenadas y condiciones ya convertidas en nodos
+public final class FraudPolicy {
+    
+    static final long NO_LIMIT = -1L;
+    
+    private static final RuleVerdict MAX_VALUE_PASSED = RuleVerdict.pass("monto-maximo");
+    
+    private final String version;
+    private final long defaultMaxValueCents;
+    private final long[] maxValueCentsByType;
+    private final SortedUuidSet allowedAccounts;
+    private final SortedUuidSet deniedAccounts;
+    private final String[] conditionNames;
+    private final String[] conditionReasons;
+    private final PolicyCondition[] conditions;
+    // Veredictos aprobados ya armados: evaluar una condición que no aplica no crea objetos
+    private final RuleVerdict[] conditionPassed;
+    
+    FraudPolicy(String version, long defaultMaxValueCents, long[] maxValueCentsByType,
+                SortedUuidSet allowedAccounts, SortedUuidSet deniedAccounts,
+                String[] conditionNames, String[] conditionReasons, PolicyCondition[] conditions) {
+        this.version = version;
+        this.defaultMaxValueCents = defaultMaxValueCents;
+        this.maxValueCentsByType = maxValueCentsByType;
+        this.allowedAccounts = allowedAccounts;
+        this.deniedAccounts = deniedAccounts;
+        this.conditionNames = conditionNames;
+        this.conditionReasons = conditionReasons;
+        this.conditions = conditions;
+        this.conditionPassed = new RuleVerdict[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            conditionPassed[i] = RuleVerdict.pass("condicion:" + conditionNames[i]);
+        }
+    }
+    
+    // Política equivalente a la configuración anterior: solo un monto máximo global
+    public static FraudPolicy withMaxValue(BigDecimal maxTransactionValue) {
+        return new FraudPolicy("max-transaction-value", toCents(maxTransactionValue), new long[0],
+            SortedUuidSet.EMPTY, SortedUuidSet.EMPTY, new String[0], new String[0], new PolicyCondition[0]);
+    }
+    
+    public List<RuleVerdict> evaluate(TransactionCreatedEvent event) {
+        UUID debitAccount = event.getAccountExternalIdDebit();
+        UUID creditAccount = event.getAccountExternalIdCredit();
+        
+        if (deniedAccounts.contains(debitAccount) || deniedAccounts.contains(creditAccount)) {
+            return List.of(RuleVerdict.fail("lista-bloqueo", "Cuenta en lista de bloqueo"));
+        }
+        if (allowedAccounts.contains(debitAccount)) {
+            return List.of(RuleVerdict.pass("lista-permitidos", "Cuenta débito en lista de permitidos"));
+        }
+        
+        long valueCents = toCents(event.getValue());
+        int transferTypeId = event.getTransferTypeId() != null ? event.getTransferTypeId() : -1;
+        List<RuleVerdict> verdicts = new ArrayList<>(1 + conditions.length);
+        
+        long maxValueCents = maxValueCentsFor(transferTypeId);
+        if (valueCents > maxValueCents) {
+            verdicts.add(RuleVerdict.fail("monto-maximo", String.format("Monto de transacción %.2f excede el máximo permitido %.2f",
+                event.getValue(), BigDecimal.valueOf(maxValueCents, 2))));
+        } else {
+            verdicts.add(MAX_VALUE_PASSED);
+        }
+        
+        for (int i = 0; i < conditions.length; i++) {
+            boolean matched = conditions[i].matches(valueCents, transferTypeId, debitAccount, creditAccount);
+            verdicts.add(matched
+                ? RuleVerdict.fail(conditionPassed[i].rule(), conditionReasons[i])
+                : conditionPassed[i]);
+        }
+        return verdicts;
+    }
+    
+    public String getVersion() {
+        return version;
+    }
+    
+    private long maxValueCentsFor(int transferTypeId) {
+        if (transferTypeId >= 0 && transferTypeId < maxValueCentsByType.length
+            && maxValueCentsByType[transferTypeId] != NO_LIMIT) {
+            return maxValueCentsByType[transferTypeId];
+        }
+        return defaultMaxValueCents;
+    }
+    
+    // Se redondea hacia arriba: un monto con más de dos decimales nunca queda por debajo del límite
+    static long toCents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.UP).unscaledValue().longValueExact();
+    }
+}
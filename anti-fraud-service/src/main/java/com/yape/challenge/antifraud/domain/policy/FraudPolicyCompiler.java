@@ -0,0 +1,208 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+// Traduce el archivo YAML de reglas a un FraudPolicy: toda la validación y el armado del árbol
+// ocurren aquí, una vez por recarga, y no por evento
+public class FraudPolicyCompiler {
+    
+    private final BigDecimal defaultMaxTransactionValue;
+    
+    public FraudPolicyCompiler(BigDecimal defaultMaxTransactionValue) {
+        this.defaultMaxTransactionValue = defaultMaxTransactionValue;
+    }
+    
+    public FraudPolicy compile(InputStream yaml, String version) {
+        Object root = new Yaml(new SafeConstructor(new LoaderOptions())).load(yaml);
+        Map<String, Object> definition = root == null ? Map.of() : asMap(root, "raíz");
+        
+        long defaultMaxValueCents = FraudPolicy.toCents(definition.containsKey("max-transaction-value")
+            ? toBigDecimal(definition.get("max-transaction-value"), "max-transaction-value")
+            : defaultMaxTransactionValue);
+        
+        Map<String, Object> transferTypes = definition.containsKey("transfer-types")
+            ? asMap(definition.get("transfer-types"), "transfer-types")
+            : Map.of();
+        int maxTypeId = -1;
+        for (Object typeId : transferTypes.keySet()) {
+            maxTypeId = Math.max(maxTypeId, toTypeId(typeId));
+        }
+        long[] maxValueCentsByType = new long[maxTypeId + 1];
+        Arrays.fill(maxValueCentsByType, FraudPolicy.NO_LIMIT);
+        for (Map.Entry<?, ?> entry : transferTypes.entrySet()) {
+            Map<String, Object> limits = asMap(entry.getValue(), "transfer-types." + entry.getKey());
+            maxValueCentsByType[toTypeId(entry.getKey())] =
+                FraudPolicy.toCents(toBigDecimal(limits.get("max-value"), "transfer-types." + entry.getKey() + ".max-value"));
+        }
+        
+        List<String> names = new ArrayList<>();
+        List<String> reasons = new ArrayList<>();
+        List<PolicyCondition> conditions = new ArrayList<>();
+        for (Object item : asList(definition.getOrDefault("conditions", List.of()), "conditions")) {
+            Map<String, Object> condition = asMap(item, "conditions[]");
+            String name = requireString(condition.get("name"), "conditions[].name");
+            names.add(name);
+            reasons.add(condition.containsKey("reason")
+                ? requireString(condition.get("reason"), "conditions[" + name + "].reason")
+                : "Transacción cumple la condición de rechazo " + name);
+            conditions.add(compileNode(condition.get("reject-when"), "conditions[" + name + "].reject-when"));
+        }
+        
+        return new FraudPolicy(version, defaultMaxValueCents, maxValueCentsByType,
+            toUuidSet(definition.get("allow-accounts"), "allow-accounts"),
+            toUuidSet(definition.get("deny-accounts"), "deny-accounts"),
+            names.toArray(String[]::new), reasons.toArray(String[]::new), conditions.toArray(PolicyCondition[]::new));
+    }
+    
+    private PolicyCondition compileNode(Object node, String path) {
+        Map<String, Object> definition = asMap(node, path);
+        if (definition.size() != 1) {
+            throw invalid(path, "cada nodo debe tener exactamente un operador");
+        }
+        Map.Entry<String, Object> operator = definition.entrySet().iterator().next();
+        String childPath = path + "." + operator.getKey();
+        Object argument = operator.getValue();
+        
+        return switch (operator.getKey()) {
+            case "all" -> {
+                PolicyCondition[] children = compileChildren(argument, childPath);
+                yield (value, type, debit, credit) -> {
+                    for (PolicyCondition child : children) {
+                        if (!child.matches(value, type, debit, credit)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            case "any" -> {
+                PolicyCondition[] children = compileChildren(argument, childPath);
+                yield (value, type, debit, credit) -> {
+                    for (PolicyCondition child : children) {
+                        if (child.matches(value, type, debit, credit)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case "not" -> {
+                PolicyCondition child = compileNode(argument, childPath);
+                yield (value, type, debit, credit) -> !child.matches(value, type, debit, credit);
+            }
+            case "value-greater-than" -> {
+                long cents = FraudPolicy.toCents(toBigDecimal(argument, childPath));
+                yield (value, type, debit, credit) -> value > cents;
+            }
+            case "value-less-than" -> {
+                long cents = FraudPolicy.toCents(toBigDecimal(argument, childPath));
+                yield (value, type, debit, credit) -> value < cents;
+            }
+            case "transfer-type-in" -> {
+                List<Object> typeIds = asList(argument, childPath);
+                int maxTypeId = typeIds.stream().mapToInt(this::toTypeId).max().orElse(-1);
+                boolean[] included = new boolean[maxTypeId + 1];
+                typeIds.forEach(typeId -> included[toTypeId(typeId)] = true);
+                yield (value, type, debit, credit) -> type >= 0 && type < included.length && included[type];
+            }
+            case "debit-account-in" -> {
+                SortedUuidSet accounts = toUuidSet(argument, childPath);
+                yield (value, type, debit, credit) -> accounts.contains(debit);
+            }
+            case "credit-account-in" -> {
+                SortedUuidSet accounts = toUuidSet(argument, childPath);
+                yield (value, type, debit, credit) -> accounts.contains(credit);
+            }
+            default -> throw invalid(path, "operador desconocido " + operator.getKey());
+        };
+    }
+    
+    private PolicyCondition[] compileChildren(Object argument, String path) {
+        List<Object> children = asList(argument, path);
+        if (children.isEmpty()) {
+            throw invalid(path, "debe tener al menos una condición");
+        }
+        PolicyCondition[] compiled = new PolicyCondition[children.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compileNode(children.get(i), path + "[" + i + "]");
+        }
+        return compiled;
+    }
+    
+    private SortedUuidSet toUuidSet(Object value, String path) {
+        if (value == null) {
+            return SortedUuidSet.EMPTY;
+        }
+        Collection<UUID> uuids = new ArrayList<>();
+        for (Object item : asList(value, path)) {
+            try {
+                uuids.add(UUID.fromString(String.valueOf(item)));
+            } catch (IllegalArgumentException ex) {
+                throw invalid(path, "UUID inválido " + item);
+            }
+        }
+        return new SortedUuidSet(uuids);
+    }
+    
+    private int toTypeId(Object value) {
+        try {
+            int typeId = Integer.parseInt(String.valueOf(value));
+            if (typeId < 0) {
+                throw invalid("transfer-type", "ID de tipo negativo " + value);
+            }
+            return typeId;
+        } catch (NumberFormatException ex) {
+            throw invalid("transfer-type", "ID de tipo inválido " + value);
+        }
+    }
+    
+    private BigDecimal toBigDecimal(Object value, String path) {
+        if (value == null) {
+            throw invalid(path, "valor requerido");
+        }
+        try {
+            return new BigDecimal(String.valueOf(value));
+        } catch (NumberFormatException ex) {
+            throw invalid(path, "monto inválido " + value);
+        }
+    }
+    
+    private String requireString(Object value, String path) {
+        if (value == null || String.valueOf(value).isBlank()) {
+            throw invalid(path, "valor requerido");
+        }
+        return String.valueOf(value);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> asMap(Object value, String path) {
+        if (!(value instanceof Map)) {
+            throw invalid(path, "se esperaba un objeto");
+        }
+        return (Map<String, Object>) value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Object> asList(Object value, String path) {
+        if (!(value instanceof List)) {
+            throw invalid(path, "se esperaba una lista");
+        }
+        return (List<Object>) value;
+    }
+    
+    private IllegalArgumentException invalid(String path, String message) {
+        return new IllegalArgumentException("Política de fraude inválida en " + path + ": " + message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+@Component
+@Slf4j
+public class FraudPolicyHolder {
+    
+    private final AtomicReference<FraudPolicy> current;
+    
+    public FraudPolicyHolder(@Value("${yape.fraud.max-transaction-value}") BigDecimal maxTransactionValue) {
+        // Sin archivo de reglas se mantiene el comportamiento anterior: un monto máximo global
+        this.current = new AtomicReference<>(FraudPolicy.withMaxValue(maxTransactionValue));
+    }
+    
+    public FraudPolicy current() {
+        return current.get();
+    }
+    
+    // Reemplazo atómico: las validaciones en curso terminan con la política anterior y las
+    // siguientes toman la nueva, sin pausar el consumo
+    public void replace(FraudPolicy policy) {
+        FraudPolicy previous = current.getAndSet(policy);
+        log.info("Política de fraude actualizada: {} -> {}", previous.getVersion(), policy.getVersion());
+    }
+}
@@ -0,0 +1,11 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import java.util.UUID;
+
+
+// Nodo compilado del árbol de condiciones: opera sobre valores primitivos ya extraídos del evento
+@FunctionalInterface
+interface PolicyCondition {
+    
+    boolean matches(long valueCents, int transferTypeId, UUID debitAccount, UUID creditAccount);
+}
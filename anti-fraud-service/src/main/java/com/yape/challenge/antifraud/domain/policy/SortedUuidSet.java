@@ -0,0 +1,59 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+
+// Conjunto inmutable de UUIDs en dos arreglos paralelos ordenados: búsqueda binaria sin hashing ni boxing
+final class SortedUuidSet {
+    
+    static final SortedUuidSet EMPTY = new SortedUuidSet(List.of());
+    
+    private final long[] mostSignificant;
+    private final long[] leastSignificant;
+    
+    SortedUuidSet(Collection<UUID> uuids) {
+        List<UUID> sorted = uuids.stream()
+            .distinct()
+            .sorted(Comparator.comparingLong(UUID::getMostSignificantBits)
+                .thenComparingLong(UUID::getLeastSignificantBits))
+            .toList();
+        this.mostSignificant = new long[sorted.size()];
+        this.leastSignificant = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            mostSignificant[i] = sorted.get(i).getMostSignificantBits();
+            leastSignificant[i] = sorted.get(i).getLeastSignificantBits();
+        }
+    }
+    
+    boolean contains(UUID uuid) {
+        if (uuid == null || mostSignificant.length == 0) {
+            return false;
+        }
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int low = 0;
+        int high = mostSignificant.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(mostSignificant[mid], msb);
+            if (cmp == 0) {
+                cmp = Long.compare(leastSignificant[mid], lsb);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    int size() {
+        return mostSignificant.length;
+    }
+}
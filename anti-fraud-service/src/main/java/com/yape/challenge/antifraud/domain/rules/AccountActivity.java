@@ -0,0 +1,6 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+
+// Actividad de la cuenta débito dentro de la ventana deslizante, incluyendo la transacción actual
+public record AccountActivity(int debitCount, long debitAmountCents, int distinctCreditAccounts) {
+}
@@ -0,0 +1,73 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.UUID;
+
+
+@Component
+public class AccountActivityStore {
+    
+    private final Cache<UUID, AccountWindow> windows;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int fanOutCapacity;
+    private final int recentTransactionCapacity;
+    private final long windowSeconds;
+    
+    public AccountActivityStore(
+        @Value("${yape.fraud.rules.window-seconds:60}") long windowSeconds,
+        @Value("${yape.fraud.rules.bucket-count:12}") int bucketCount,
+        @Value("${yape.fraud.rules.fan-out-capacity:32}") int fanOutCapacity,
+        @Value("${yape.fraud.rules.max-tracked-accounts:50000}") long maxTrackedAccounts,
+        @Value("${yape.fraud.rules.recent-transactions-per-account:64}") int recentTransactionCapacity
+    ) {
+        this.windowSeconds = windowSeconds;
+        this.bucketCount = bucketCount;
+        this.fanOutCapacity = fanOutCapacity;
+        this.recentTransactionCapacity = recentTransactionCapacity;
+        this.bucketMillis = Duration.ofSeconds(windowSeconds).toMillis() / bucketCount;
+        // Memoria acotada: máximo de cuentas y expulsión de las que no operan durante una ventana completa
+        this.windows = Caffeine.newBuilder()
+            .maximumSize(maxTrackedAccounts)
+            .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+            .build();
+    }
+    
+    public AccountActivity record(TransactionCreatedEvent event) {
+        if (event.getAccountExternalIdDebit() == null) {
+            return new AccountActivity(0, 0, 0); // Sin cuenta débito no hay actividad que acumular
+        }
+        long amountCents = event.getValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        UUID creditAccount = event.getAccountExternalIdCredit();
+        long creditKey = creditAccount != null
+            ? creditAccount.getMostSignificantBits() ^ creditAccount.getLeastSignificantBits()
+            : 0L;
+        
+        // Tiempo de evento: un backlog reprocesado no se amontona en la ventana actual
+        long eventMillis = event.getCreatedAt() != null
+            ? event.getCreatedAt().toInstant().toEpochMilli()
+            : System.currentTimeMillis();
+        UUID transactionId = event.getTransactionExternalId();
+        long transactionMostBits = transactionId != null ? transactionId.getMostSignificantBits() : 0L;
+        long transactionLeastBits = transactionId != null ? transactionId.getLeastSignificantBits() : 0L;
+        
+        return windows.get(event.getAccountExternalIdDebit(),
+                account -> new AccountWindow(bucketMillis, bucketCount, fanOutCapacity, recentTransactionCapacity))
+            .record(eventMillis, transactionMostBits, transactionLeastBits, amountCents, creditKey);
+    }
+    
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+    
+    public long trackedAccounts() {
+        return windows.estimatedSize();
+    }
+}
@@ -0,0 +1,134 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+// Contadores de una cuenta en buckets circulares: arreglos primitivos, sin boxing ni asignaciones por evento
+class AccountWindow {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long bucketMillis;
+    private final int bucketCount;
+    
+    // Número absoluto de bucket (epochMillis / bucketMillis) al que pertenece cada posición del anillo
+    private final long[] bucketIds;
+    private final int[] debitCounts;
+    private final long[] debitAmounts;
+    
+    // Cuentas crédito vistas en la ventana: hash de 64 bits del UUID y último bucket en que aparecieron
+    private final long[] creditKeys;
+    private final long[] creditLastSeen;
+    
+    // Últimas transacciones contadas (UUID en dos longs), en anillo: una reentrega no se cuenta dos veces
+    private final long[] recentMostBits;
+    private final long[] recentLeastBits;
+    private int recentCount;
+    private int recentNext;
+    
+    AccountWindow(long bucketMillis, int bucketCount, int fanOutCapacity, int recentCapacity) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.bucketIds = new long[bucketCount];
+        this.debitCounts = new int[bucketCount];
+        this.debitAmounts = new long[bucketCount];
+        this.creditKeys = new long[fanOutCapacity];
+        this.creditLastSeen = new long[fanOutCapacity];
+        this.recentMostBits = new long[recentCapacity];
+        this.recentLeastBits = new long[recentCapacity];
+        Arrays.fill(bucketIds, EMPTY);
+        Arrays.fill(creditLastSeen, EMPTY);
+    }
+    
+    // La ventana se mide en tiempo de evento: termina en createdAt de la transacción, así una reentrega o un
+    // backlog procesado tarde se evalúa igual que en vivo. Un evento más antiguo que lo que conserva el
+    // anillo se evalúa sin acumularse
+    AccountActivity record(long eventMillis, long transactionMostBits, long transactionLeastBits,
+                           long amountCents, long creditKey) {
+        long currentBucket = eventMillis / bucketMillis;
+        long oldestBucket = currentBucket - bucketCount + 1;
+        
+        lock.lock();
+        try {
+            // Fuera del anillo solo queda sumar la transacción actual al resultado
+            boolean outsideRing = false;
+            if (!rememberTransaction(transactionMostBits, transactionLeastBits)) {
+                int slot = (int) Math.floorMod(currentBucket, (long) bucketCount);
+                if (bucketIds[slot] < currentBucket) {
+                    // El bucket pertenece a una vuelta anterior del anillo: se reinicia
+                    bucketIds[slot] = currentBucket;
+                    debitCounts[slot] = 0;
+                    debitAmounts[slot] = 0;
+                }
+                if (bucketIds[slot] == currentBucket) {
+                    debitCounts[slot]++;
+                    debitAmounts[slot] += amountCents;
+                } else {
+                    outsideRing = true;
+                }
+                touchCredit(creditKey, currentBucket);
+            }
+            
+            int count = outsideRing ? 1 : 0;
+            long amount = outsideRing ? amountCents : 0;
+            for (int i = 0; i < bucketCount; i++) {
+                if (bucketIds[i] >= oldestBucket && bucketIds[i] <= currentBucket) {
+                    count += debitCounts[i];
+                    amount += debitAmounts[i];
+                }
+            }
+            
+            // Solo se guarda la última aparición de cada destino: ante un evento fuera de orden, los destinos
+            // vistos después de él no cuentan, salvo el suyo
+            int distinctCredits = 0;
+            for (int i = 0; i < creditKeys.length; i++) {
+                if (creditLastSeen[i] >= oldestBucket
+                        && (creditLastSeen[i] <= currentBucket || creditKeys[i] == creditKey)) {
+                    distinctCredits++;
+                }
+            }
+            return new AccountActivity(count, amount, distinctCredits);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // true si la transacción ya se había contado; si no, la registra desplazando la más antigua
+    private boolean rememberTransaction(long mostBits, long leastBits) {
+        if (mostBits == 0 && leastBits == 0) {
+            return false; // Evento sin id: no se puede reconocer una reentrega
+        }
+        for (int i = 0; i < recentCount; i++) {
+            if (recentMostBits[i] == mostBits && recentLeastBits[i] == leastBits) {
+                return true;
+            }
+        }
+        if (recentMostBits.length == 0) {
+            return false;
+        }
+        recentMostBits[recentNext] = mostBits;
+        recentLeastBits[recentNext] = leastBits;
+        recentNext = (recentNext + 1) % recentMostBits.length;
+        recentCount = Math.min(recentCount + 1, recentMostBits.length);
+        return false;
+    }
+    
+    // La tabla es pequeña y se recorre entera; si está llena se reemplaza la entrada más antigua,
+    // por lo que el conteo de destinos distintos se satura en la capacidad
+    private void touchCredit(long creditKey, long currentBucket) {
+        int victim = 0;
+        for (int i = 0; i < creditKeys.length; i++) {
+            if (creditLastSeen[i] != EMPTY && creditKeys[i] == creditKey) {
+                creditLastSeen[i] = Math.max(creditLastSeen[i], currentBucket);
+                return;
+            }
+            if (creditLastSeen[i] < creditLastSeen[victim]) {
+                victim = i;
+            }
+        }
+        creditKeys[victim] = creditKey;
+        creditLastSeen[victim] = currentBucket;
+    }
+}
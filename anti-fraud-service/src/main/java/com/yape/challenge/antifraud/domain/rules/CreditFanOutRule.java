@@ -0,0 +1,31 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+@Component
+public class CreditFanOutRule implements FraudRule {
+    
+    private final int maxDistinctCredits;
+    private final RuleVerdict passed = RuleVerdict.pass(name());
+    
+    public CreditFanOutRule(@Value("${yape.fraud.rules.max-distinct-credit-accounts:10}") int maxDistinctCredits) {
+        this.maxDistinctCredits = maxDistinctCredits;
+    }
+    
+    @Override
+    public String name() {
+        return "destinos-distintos";
+    }
+    
+    @Override
+    public RuleVerdict evaluate(TransactionCreatedEvent event, AccountActivity activity) {
+        if (activity.distinctCreditAccounts() <= maxDistinctCredits) {
+            return passed;
+        }
+        return RuleVerdict.fail(name(), "Cuenta débito transfiere a demasiadas cuentas distintas: "
+            + activity.distinctCreditAccounts() + "/" + maxDistinctCredits);
+    }
+}
@@ -0,0 +1,33 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+
+@Component
+public class DebitAmountRule implements FraudRule {
+    
+    private final long maxAmountCents;
+    private final RuleVerdict passed = RuleVerdict.pass(name());
+    
+    public DebitAmountRule(@Value("${yape.fraud.rules.max-debit-amount-per-window:5000}") BigDecimal maxAmount) {
+        this.maxAmountCents = maxAmount.movePointRight(2).longValueExact();
+    }
+    
+    @Override
+    public String name() {
+        return "monto-en-ventana";
+    }
+    
+    @Override
+    public RuleVerdict evaluate(TransactionCreatedEvent event, AccountActivity activity) {
+        if (activity.debitAmountCents() <= maxAmountCents) {
+            return passed;
+        }
+        return RuleVerdict.fail(name(), String.format("Monto debitado en la ventana excede el máximo: %.2f/%.2f",
+            activity.debitAmountCents() / 100.0, maxAmountCents / 100.0));
+    }
+}
@@ -0,0 +1,31 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+@Component
+public class DebitCountRule implements FraudRule {
+    
+    private final int maxDebits;
+    private final RuleVerdict passed = RuleVerdict.pass(name());
+    
+    public DebitCountRule(@Value("${yape.fraud.rules.max-debits-per-window:20}") int maxDebits) {
+        this.maxDebits = maxDebits;
+    }
+    
+    @Override
+    public String name() {
+        return "debitos-en-ventana";
+    }
+    
+    @Override
+    public RuleVerdict evaluate(TransactionCreatedEvent event, AccountActivity activity) {
+        if (activity.debitCount() <= maxDebits) {
+            return passed;
+        }
+        return RuleVerdict.fail(name(), "Cuenta débito excede " + maxDebits + " débitos en la ventana: "
+            + activity.debitCount() + "/" + maxDebits);
+    }
+}
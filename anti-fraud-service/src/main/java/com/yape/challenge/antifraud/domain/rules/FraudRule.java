@@ -0,0 +1,12 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+
+
+// Regla de fraude enchufable: cada implementación registrada como bean se evalúa en cada transacción
+public interface FraudRule {
+    
+    String name();
+    
+    RuleVerdict evaluate(TransactionCreatedEvent event, AccountActivity activity);
+}
@@ -0,0 +1,29 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Component
+@RequiredArgsConstructor
+public class FraudRuleEngine {
+    
+    private final List<FraudRule> rules;
+    private final AccountActivityStore accountActivityStore;
+    
+    
+    public List<RuleVerdict> evaluate(TransactionCreatedEvent event) {
+        // Se registra antes de evaluar: los intentos rechazados también cuentan para la velocidad
+        AccountActivity activity = accountActivityStore.record(event);
+        
+        List<RuleVerdict> verdicts = new ArrayList<>(rules.size());
+        for (FraudRule rule : rules) {
+            verdicts.add(rule.evaluate(event, activity));
+        }
+        return verdicts;
+    }
+}
@@ -0,0 +1,22 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+
+// Los veredictos aprobados no llevan detalle: el texto solo se arma cuando una regla rechaza
+public record RuleVerdict(String rule, boolean passed, String reason) {
+    
+    public static RuleVerdict pass(String rule) {
+        return new RuleVerdict(rule, true, null);
+    }
+    
+    public static RuleVerdict pass(String rule, String reason) {
+        return new RuleVerdict(rule, true, reason);
+    }
+    
+    public static RuleVerdict fail(String rule, String reason) {
+        return new RuleVerdict(rule, false, reason);
+    }
+    
+    public String summary() {
+        return rule + "=" + (passed ? "OK" : "RECHAZO") + (reason != null ? " (" + reason + ")" : "");
+    }
+}
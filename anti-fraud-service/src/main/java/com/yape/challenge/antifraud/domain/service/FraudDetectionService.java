@@ -1,22 +1,31 @@
 package com.yape.challenge.antifraud.domain.service;
 
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import com.yape.challenge.antifraud.domain.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.domain.rules.RuleVerdict;
+import com.yape.challenge.antifraud.infrastructure.metrics.PipelineMetrics;
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class FraudDetectionService {
     
-    @Value("${yape.fraud.max-transaction-value}")
-    private BigDecimal maxTransactionValue;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final FraudPolicyHolder fraudPolicyHolder;
+    private final PipelineMetrics pipelineMetrics;
     
     @Value("${yape.fraud.processing-delay-ms:0}")
     private long processingDelayMs;
@@ -25,6 +34,8 @@ public class FraudDetectionService {
     public TransactionStatusUpdatedEvent validateTransaction(TransactionCreatedEvent event) {
         log.info("Validando transacción con monto", 
             event.getTransactionExternalId(), event.getValue());
+        // Tiempo en cola: desde que transaction-service generó el evento hasta que se consume
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.QUEUE_TIME, event.getEventTimestamp());
         
         // Simular tiempo de procesamiento 
         if (processingDelayMs > 0) {
@@ -36,29 +47,41 @@ public class FraudDetectionService {
             }
         }
         
-        // Aplicar reglas de deteccion de fraude
+        // Aplicar reglas de deteccion de fraude: política vigente (límites, listas y condiciones)
+        // más las reglas de velocidad por cuenta
+        long evaluationStart = System.nanoTime();
+        List<RuleVerdict> verdicts = new ArrayList<>(fraudPolicyHolder.current().evaluate(event));
+        verdicts.addAll(fraudRuleEngine.evaluate(event));
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.RULE_EVALUATION, evaluationStart);
+        
+        List<RuleVerdict> failed = verdicts.stream().filter(verdict -> !verdict.passed()).toList();
         TransactionStatusUpdatedEvent.TransactionStatus status;
         String reason;
         
-        if (event.getValue().compareTo(maxTransactionValue) > 0) {
+        if (!failed.isEmpty()) {
             status = TransactionStatusUpdatedEvent.TransactionStatus.REJECTED;
-            reason = String.format("Monto de transacción %.2f excede el máximo permitido %.2f", 
-                event.getValue(), maxTransactionValue);
-            log.warn("Transacción RECHAZADA", event.getTransactionExternalId(), reason);
+            reason = failed.stream().map(RuleVerdict::reason).collect(Collectors.joining("; "));
+            log.warn("Transacción RECHAZADA {}: {}", event.getTransactionExternalId(), reason);
         } else {
             status = TransactionStatusUpdatedEvent.TransactionStatus.APPROVED;
             reason = "Transacción aprobó todas las validaciones de fraude";
-            log.info("Transacción APROBADA", event.getTransactionExternalId());
+            log.info("Transacción APROBADA {}", event.getTransactionExternalId());
+        }
+        // El veredicto de cada regla solo se arma para depurar: el motivo publicado lleva únicamente los rechazos
+        if (log.isDebugEnabled()) {
+            log.debug("Veredictos de {}: {}", event.getTransactionExternalId(),
+                verdicts.stream().map(RuleVerdict::summary).collect(Collectors.joining(", ")));
         }
         
         return TransactionStatusUpdatedEvent.builder()
             .transactionExternalId(event.getTransactionExternalId())
             .status(status)
             .reason(reason)
+            .transactionCreatedAt(event.getCreatedAt())
+            .accountExternalIdDebit(event.getAccountExternalIdDebit())
+            .accountExternalIdCredit(event.getAccountExternalIdCredit())
             .eventId(UUID.randomUUID().toString())
             .eventTimestamp(OffsetDateTime.now())
             .build();
     }
-    
-    
 }
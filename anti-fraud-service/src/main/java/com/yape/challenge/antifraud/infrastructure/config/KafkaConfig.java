@@ -1,51 +1,69 @@
 package com.yape.challenge.antifraud.infrastructure.config;
 
+import com.yape.challenge.shared.codec.BinaryEventDeserializer;
+import com.yape.challenge.shared.codec.BinaryEventSerializer;
+import com.yape.challenge.shared.codec.TransactionCreatedEventCodec;
+import com.yape.challenge.shared.codec.TransactionStatusUpdatedEventCodec;
+import com.yape.challenge.shared.concurrent.VirtualThreadExecutors;
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 
 @Configuration
 @EnableKafka
 public class KafkaConfig {
     
+    private static final String BINARY_CODEC = "binary";
+    
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
     
+    @Value("${yape.fraud.consumer.max-poll-records:500}")
+    private int parallelMaxPollRecords;
+    
+    @Value("${yape.fraud.consumer.max-concurrency:64}")
+    private int maxConcurrency;
+    
+    // Formato por topic: json | binary (el deserializador binario también acepta JSON)
+    @Value("${yape.kafka.codec.transaction-created:json}")
+    private String transactionCreatedCodec;
+    
+    @Value("${yape.kafka.codec.transaction-status-updated:json}")
+    private String transactionStatusUpdatedCodec;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
     // Configuración Consumer para TransactionCreatedEvent
     @Bean
     public ConsumerFactory<String, TransactionCreatedEvent> consumerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionCreatedEvent.class.getName());
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
-        
-        return new DefaultKafkaConsumerFactory<>(config);
+        return new DefaultKafkaConsumerFactory<>(consumerConfig(100), new StringDeserializer(), createdEventDeserializer());
     }
     
     @Bean
@@ -55,26 +73,87 @@ public class KafkaConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3); // Procesar mensajes con 3 threads concurrentes
         factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.RECORD);
+        applyThreading(factory, "created-consumer-");
         return factory;
     }
     
+    // Modo paralelo: el listener recibe el poll completo y lo reparte por clave en el executor de validación
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionCreatedEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerConfig(parallelMaxPollRecords),
+            new StringDeserializer(), createdEventDeserializer()));
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        applyThreading(factory, "created-batch-consumer-");
+        return factory;
+    }
+    
+    // La concurrencia de validación es independiente del número de particiones
+    @Bean
+    @ConditionalOnProperty(value = "yape.fraud.consumer.mode", havingValue = "parallel")
+    public Executor fraudValidationExecutor() {
+        if (virtualThreads) {
+            // Un hilo virtual por carril: el retardo de validación ya no ocupa un hilo de plataforma.
+            // El límite conserva el techo de concurrencia y frena el reparto en lugar de encolar sin cota
+            return VirtualThreads.boundedExecutor("fraud-validation-", maxConcurrency);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        // Igual que con hilos virtuales: cola acotada y, si se llena, el hilo del listener ejecuta el carril
+        executor.setQueueCapacity(maxConcurrency);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("fraud-validation-");
+        executor.initialize();
+        return executor;
+    }
+    
+    private void applyThreading(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(VirtualThreadExecutors.executor(threadNamePrefix));
+        }
+    }
+    
+    private Map<String, Object> consumerConfig(int maxPollRecords) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return config;
+    }
+    
     // Configuración Producer para TransactionStatusUpdatedEvent
     @Bean
     public ProducerFactory<String, TransactionStatusUpdatedEvent> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         
-        return new DefaultKafkaProducerFactory<>(config);
+        Serializer<TransactionStatusUpdatedEvent> valueSerializer = BINARY_CODEC.equals(transactionStatusUpdatedCodec)
+            ? new BinaryEventSerializer<>(TransactionStatusUpdatedEventCodec.INSTANCE)
+            : new JsonSerializer<>();
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
     }
     
     @Bean
     public KafkaTemplate<String, TransactionStatusUpdatedEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+    
+    private Deserializer<TransactionCreatedEvent> createdEventDeserializer() {
+        if (BINARY_CODEC.equals(transactionCreatedCodec)) {
+            return new ErrorHandlingDeserializer<>(new BinaryEventDeserializer<>(TransactionCreatedEventCodec.INSTANCE));
+        }
+        JsonDeserializer<TransactionCreatedEvent> jsonDeserializer = new JsonDeserializer<>(TransactionCreatedEvent.class);
+        jsonDeserializer.addTrustedPackages("*");
+        return new ErrorHandlingDeserializer<>(jsonDeserializer);
+    }
 }
@@ -0,0 +1,37 @@
+package com.yape.challenge.antifraud.infrastructure.config;
+
+import com.yape.challenge.shared.concurrent.VirtualThreadExecutors;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+
+// Pool acotado de hilos virtuales para los carriles del consumidor paralelo
+final class VirtualThreads {
+    
+    private VirtualThreads() {
+    }
+    
+    // Límite con Semaphore y no con setConcurrencyLimit: el throttle de Spring espera con synchronized + wait
+    // y dejaría fijado a su hilo portador el hilo virtual que reparte las tareas
+    static Executor boundedExecutor(String threadNamePrefix, int maxConcurrency) {
+        SimpleAsyncTaskExecutor executor = VirtualThreadExecutors.executor(threadNamePrefix);
+        Semaphore permits = new Semaphore(maxConcurrency);
+        return task -> {
+            permits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException ex) {
+                permits.release();
+                throw ex;
+            }
+        };
+    }
+}
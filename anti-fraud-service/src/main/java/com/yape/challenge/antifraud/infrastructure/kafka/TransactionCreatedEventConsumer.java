@@ -5,6 +5,7 @@ import com.yape.challenge.shared.event.TransactionCreatedEvent;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(value = "yape.fraud.consumer.mode", havingValue = "record", matchIfMissing = true)
 public class TransactionCreatedEventConsumer {
     
     private final FraudDetectionService fraudDetectionService;
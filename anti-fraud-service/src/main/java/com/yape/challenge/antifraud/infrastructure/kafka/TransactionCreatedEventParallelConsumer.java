@@ -0,0 +1,137 @@
+package com.yape.challenge.antifraud.infrastructure.kafka;
+
+import com.yape.challenge.antifraud.domain.service.FraudDetectionService;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.fraud.consumer.mode", havingValue = "parallel")
+public class TransactionCreatedEventParallelConsumer {
+    
+    private final FraudDetectionService fraudDetectionService;
+    private final TransactionStatusEventProducer statusEventProducer;
+    private final Executor fraudValidationExecutor;
+    
+    // Offsets ya validados y publicados de un lote que falló: al reentregarse el lote se saltan, así los
+    // carriles que terminaron bien no vuelven a validar ni a publicar
+    private final Map<TopicPartition, NavigableSet<Long>> completedBeforeRedelivery = new ConcurrentHashMap<>();
+    
+    
+    @KafkaListener(
+        topics = "${yape.kafka.topics.transaction-created}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeTransactionCreatedEvents(List<ConsumerRecord<String, TransactionCreatedEvent>> records) {
+        log.info("Recibido lote de {} eventos de transacción creada", records.size());
+        forgetCommittedOffsets(records);
+        
+        // Un carril por clave: los eventos de una misma transacción se procesan en orden,
+        // los de claves distintas en paralelo
+        Map<String, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (!alreadyCompleted(records.get(i))) {
+                lanes.computeIfAbsent(laneKey(records.get(i)), key -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        ConcurrentSkipListMap<Integer, Exception> failures = new ConcurrentSkipListMap<>();
+        Map<Integer, Boolean> completed = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> lanesDone = new ArrayList<>(lanes.size());
+        for (List<Integer> lane : lanes.values()) {
+            lanesDone.add(CompletableFuture.runAsync(() -> processLane(records, lane, completed, failures),
+                fraudValidationExecutor));
+        }
+        CompletableFuture.allOf(lanesDone.toArray(CompletableFuture[]::new)).join();
+        
+        if (!failures.isEmpty()) {
+            // Se confirman los offsets anteriores al primer fallo; desde ahí el lote se vuelve a entregar.
+            // Lo que ya terminó después de ese punto queda anotado para saltarlo en la reentrega
+            Map.Entry<Integer, Exception> firstFailure = failures.firstEntry();
+            for (int index : completed.keySet()) {
+                if (index > firstFailure.getKey()) {
+                    ConsumerRecord<String, TransactionCreatedEvent> record = records.get(index);
+                    completedBeforeRedelivery.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                        partition -> new ConcurrentSkipListSet<>()).add(record.offset());
+                }
+            }
+            throw new BatchListenerFailedException("Error validando evento de transacción creada",
+                firstFailure.getValue(), firstFailure.getKey());
+        }
+    }
+    
+    // Un lote empieza en el primer offset sin confirmar de cada partición: lo anotado por debajo ya no se reentrega
+    private void forgetCommittedOffsets(List<ConsumerRecord<String, TransactionCreatedEvent>> records) {
+        if (completedBeforeRedelivery.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Long> firstOffsets = new LinkedHashMap<>();
+        for (ConsumerRecord<String, TransactionCreatedEvent> record : records) {
+            firstOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+        }
+        firstOffsets.forEach((partition, firstOffset) -> {
+            NavigableSet<Long> offsets = completedBeforeRedelivery.get(partition);
+            if (offsets != null) {
+                offsets.headSet(firstOffset).clear();
+                if (offsets.isEmpty()) {
+                    completedBeforeRedelivery.remove(partition, offsets);
+                }
+            }
+        });
+    }
+    
+    private boolean alreadyCompleted(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        NavigableSet<Long> offsets = completedBeforeRedelivery.get(new TopicPartition(record.topic(), record.partition()));
+        return offsets != null && offsets.contains(record.offset());
+    }
+    
+    private void processLane(List<ConsumerRecord<String, TransactionCreatedEvent>> records, List<Integer> lane,
+                             Map<Integer, Boolean> completed, Map<Integer, Exception> failures) {
+        for (int index : lane) {
+            TransactionCreatedEvent event = records.get(index).value();
+            try {
+                if (event == null) {
+                    throw new IllegalStateException("Evento de transacción creada no deserializable");
+                }
+                TransactionStatusUpdatedEvent statusEvent = fraudDetectionService.validateTransaction(event);
+                // Esperar el ack del broker antes de dar el evento por procesado
+                statusEventProducer.sendTransactionStatusUpdatedEvent(statusEvent).join();
+                completed.put(index, Boolean.TRUE);
+            } catch (Exception ex) {
+                log.error("Error procesando evento de transacción creada en offset {}", records.get(index).offset(), ex);
+                failures.put(index, ex);
+                return; // No avanzar en el carril para no romper el orden de la clave
+            }
+        }
+    }
+    
+    private String laneKey(ConsumerRecord<String, TransactionCreatedEvent> record) {
+        if (record.key() != null) {
+            return record.key();
+        }
+        TransactionCreatedEvent event = record.value();
+        return event != null ? String.valueOf(event.getTransactionExternalId()) : "offset-" + record.offset();
+    }
+}
@@ -1,5 +1,6 @@
 package com.yape.challenge.antifraud.infrastructure.kafka;
 
+import com.yape.challenge.antifraud.infrastructure.metrics.PipelineMetrics;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,20 +18,24 @@ import java.util.concurrent.CompletableFuture;
 public class TransactionStatusEventProducer {
     
     private final KafkaTemplate<String, TransactionStatusUpdatedEvent> kafkaTemplate;
+    private final PipelineMetrics pipelineMetrics;
     
     @Value("${yape.kafka.topics.transaction-status-updated}")
     private String transactionStatusUpdatedTopic;
     
    
-    public void sendTransactionStatusUpdatedEvent(TransactionStatusUpdatedEvent event) {
+    public CompletableFuture<SendResult<String, TransactionStatusUpdatedEvent>> sendTransactionStatusUpdatedEvent(
+        TransactionStatusUpdatedEvent event) {
         log.info("Enviando evento de actualización de estado para: {} con estado: {}", 
             event.getTransactionExternalId(), event.getStatus());
         
+        long start = System.nanoTime();
         CompletableFuture<SendResult<String, TransactionStatusUpdatedEvent>> future = 
             kafkaTemplate.send(transactionStatusUpdatedTopic, event.getTransactionExternalId().toString(), event);
         
-        future.whenComplete((result, ex) -> {
+        return future.whenComplete((result, ex) -> {
             if (ex == null) {
+                pipelineMetrics.recordSince(PipelineMetrics.Stage.STATUS_PUBLISH_ACK, start);
                 log.info("Evento de actualización de estado enviado exitosamente: {} a partición: {}", 
                     event.getTransactionExternalId(), 
                     result.getRecordMetadata().partition());
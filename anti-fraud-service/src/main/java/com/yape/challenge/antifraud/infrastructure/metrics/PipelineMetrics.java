@@ -0,0 +1,46 @@
+package com.yape.challenge.antifraud.infrastructure.metrics;
+
+import com.yape.challenge.shared.metrics.PipelineTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+// Tramos del pipeline que ocurren en anti-fraude; el resto los mide transaction-service con el mismo timer
+@Component
+public class PipelineMetrics {
+    
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, PipelineTimers.stage(meterRegistry, stage.tagValue));
+        }
+    }
+    
+    public void recordSince(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    // Para tramos que empiezan en otro proceso
+    public void recordSince(Stage stage, OffsetDateTime start) {
+        PipelineTimers.recordSince(stageTimers.get(stage), start);
+    }
+    
+    public enum Stage {
+        QUEUE_TIME("queue-time"),
+        RULE_EVALUATION("rule-evaluation"),
+        STATUS_PUBLISH_ACK("status-publish-ack");
+        
+        private final String tagValue;
+        
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.yape.challenge.antifraud.infrastructure.policy;
+
+import com.yape.challenge.antifraud.domain.policy.FraudPolicy;
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyCompiler;
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+
+@Component
+@Slf4j
+@ConditionalOnExpression("!'${yape.fraud.policy.file:}'.isBlank()")
+public class FraudPolicyFileWatcher {
+    
+    private final FraudPolicyHolder fraudPolicyHolder;
+    private final FraudPolicyCompiler compiler;
+    private final Path policyFile;
+    
+    // Última versión cargada (fecha de modificación + tamaño); se compara en cada sondeo
+    private String loadedVersion;
+    
+    // Versión distinta vista en el sondeo anterior: solo se carga si sigue igual en el siguiente, así un
+    // archivo que todavía se está escribiendo (editor, copia, ConfigMap) no se lee a medias
+    private String candidateVersion;
+    
+    public FraudPolicyFileWatcher(
+        FraudPolicyHolder fraudPolicyHolder,
+        @Value("${yape.fraud.policy.file}") String policyFile,
+        @Value("${yape.fraud.max-transaction-value}") BigDecimal maxTransactionValue
+    ) {
+        this.fraudPolicyHolder = fraudPolicyHolder;
+        this.policyFile = Path.of(policyFile);
+        this.compiler = new FraudPolicyCompiler(maxTransactionValue);
+    }
+    
+    @PostConstruct
+    public void loadInitialPolicy() {
+        // Al arrancar un archivo inválido es un error de despliegue: mejor fallar que validar con reglas viejas
+        try {
+            reload(currentVersion());
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo leer la política de fraude " + policyFile, ex);
+        }
+    }
+    
+    
+    @Scheduled(fixedDelayString = "${yape.fraud.policy.reload-interval-ms:2000}")
+    public void checkForChanges() {
+        try {
+            String version = currentVersion();
+            if (version.equals(loadedVersion)) {
+                candidateVersion = null;
+            } else if (version.equals(candidateVersion)) {
+                reload(version);
+            } else {
+                candidateVersion = version;
+            }
+        } catch (Exception ex) {
+            // Durante la operación se conserva la política vigente hasta que el archivo vuelva a ser válido
+            log.error("Política de fraude {} no recargada, se mantiene la versión {}: {}",
+                policyFile, loadedVersion, ex.getMessage());
+        }
+    }
+    
+    private void reload(String version) throws IOException {
+        try (InputStream input = Files.newInputStream(policyFile)) {
+            FraudPolicy policy = compiler.compile(input, policyFile.getFileName() + "@" + version);
+            fraudPolicyHolder.replace(policy);
+        } finally {
+            // También ante error: no reintentar el mismo archivo inválido en cada sondeo
+            loadedVersion = version;
+            candidateVersion = null;
+        }
+    }
+    
+    private String currentVersion() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(policyFile, BasicFileAttributes.class);
+        return attributes.lastModifiedTime().toMillis() + "-" + attributes.size();
+    }
+}
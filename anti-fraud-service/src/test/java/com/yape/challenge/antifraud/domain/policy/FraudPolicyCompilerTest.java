@@ -0,0 +1,114 @@
+package com.yape.challenge.antifraud.domain.policy;
+
+import com.yape.challenge.antifraud.domain.rules.RuleVerdict;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Pruebas del compilador de políticas de fraude")
+class FraudPolicyCompilerTest {
+    
+    private static final UUID DENIED_ACCOUNT = UUID.fromString("11111111-1111-1111-1111-111111111111");
+    private static final UUID ALLOWED_ACCOUNT = UUID.fromString("22222222-2222-2222-2222-222222222222");
+    
+    private final FraudPolicyCompiler compiler = new FraudPolicyCompiler(BigDecimal.valueOf(1000));
+    
+    @Test
+    @DisplayName("Debe aplicar el límite del tipo de transferencia y el límite por defecto al resto")
+    void shouldApplyPerTransferTypeLimits() {
+        
+        FraudPolicy policy = compile("""
+            transfer-types:
+              2:
+                max-value: 200
+            """);
+        
+        
+        assertThat(passed(policy.evaluate(event(2, 250, UUID.randomUUID(), UUID.randomUUID())))).isFalse();
+        assertThat(passed(policy.evaluate(event(1, 250, UUID.randomUUID(), UUID.randomUUID())))).isTrue();
+        assertThat(policy.evaluate(event(2, 250, UUID.randomUUID(), UUID.randomUUID())).get(0).reason())
+            .contains("excede el máximo permitido 200.00");
+    }
+    
+    @Test
+    @DisplayName("Debe priorizar la lista de bloqueo sobre la de permitidos")
+    void shouldApplyDenyBeforeAllowLists() {
+        
+        FraudPolicy policy = compile("""
+            allow-accounts: [%s]
+            deny-accounts: [%s]
+            """.formatted(ALLOWED_ACCOUNT, DENIED_ACCOUNT));
+        
+        
+        assertThat(passed(policy.evaluate(event(1, 5000, ALLOWED_ACCOUNT, UUID.randomUUID())))).isTrue();
+        assertThat(passed(policy.evaluate(event(1, 10, UUID.randomUUID(), DENIED_ACCOUNT)))).isFalse();
+        assertThat(passed(policy.evaluate(event(1, 10, ALLOWED_ACCOUNT, DENIED_ACCOUNT)))).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Debe evaluar condiciones combinadas con all, any y not")
+    void shouldEvaluateCombinedConditions() {
+        
+        FraudPolicy policy = compile("""
+            conditions:
+              - name: pago-alto-fuera-de-lista
+                reason: Pago alto a cuenta no habitual
+                reject-when:
+                  all:
+                    - transfer-type-in: [2]
+                    - any:
+                        - value-greater-than: 300
+                        - value-less-than: 1
+                    - not:
+                        credit-account-in: [%s]
+            """.formatted(ALLOWED_ACCOUNT));
+        
+        
+        List<RuleVerdict> rejected = policy.evaluate(event(2, 400, UUID.randomUUID(), UUID.randomUUID()));
+        assertThat(passed(rejected)).isFalse();
+        assertThat(rejected).extracting(RuleVerdict::reason).contains("Pago alto a cuenta no habitual");
+        assertThat(passed(policy.evaluate(event(2, 400, UUID.randomUUID(), ALLOWED_ACCOUNT)))).isTrue();
+        assertThat(passed(policy.evaluate(event(1, 400, UUID.randomUUID(), UUID.randomUUID())))).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Debe rechazar definiciones con operadores desconocidos")
+    void shouldRejectUnknownOperators() {
+        
+        assertThatThrownBy(() -> compile("""
+            conditions:
+              - name: invalida
+                reject-when:
+                  value-between: 10
+            """))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("operador desconocido value-between");
+    }
+    
+    private FraudPolicy compile(String yaml) {
+        return compiler.compile(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+    
+    private boolean passed(List<RuleVerdict> verdicts) {
+        return verdicts.stream().allMatch(RuleVerdict::passed);
+    }
+    
+    private TransactionCreatedEvent event(int transferTypeId, long value, UUID debitAccount, UUID creditAccount) {
+        return TransactionCreatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(debitAccount)
+            .accountExternalIdCredit(creditAccount)
+            .transferTypeId(transferTypeId)
+            .value(BigDecimal.valueOf(value))
+            .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.yape.challenge.antifraud.domain.rules;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de ventana deslizante por cuenta")
+class AccountWindowTest {
+    
+    private static final long BUCKET_MILLIS = 5_000;
+    private static final int BUCKET_COUNT = 12;
+    
+    private long nextTransactionId = 1;
+    
+    @Test
+    @DisplayName("Debe descartar la actividad que sale de la ventana")
+    void shouldExpireActivityOutsideWindow() {
+        
+        AccountWindow window = new AccountWindow(BUCKET_MILLIS, BUCKET_COUNT, 8, 16);
+        long start = 1_000_000_000L;
+        record(window, start, 1_000, 1L);
+        record(window, start + 10_000, 2_000, 2L);
+        
+        
+        AccountActivity insideWindow = record(window, start + 55_000, 500, 3L);
+        AccountActivity afterWindow = record(window, start + 65_000, 500, 3L);
+        
+        
+        assertThat(insideWindow).isEqualTo(new AccountActivity(3, 3_500, 3));
+        // El primer débito ya salió de la ventana de 60 s
+        assertThat(afterWindow).isEqualTo(new AccountActivity(3, 3_000, 2));
+    }
+    
+    @Test
+    @DisplayName("Debe contar cuentas destino distintas sin duplicar repeticiones")
+    void shouldCountDistinctCreditAccounts() {
+        
+        AccountWindow window = new AccountWindow(BUCKET_MILLIS, BUCKET_COUNT, 4, 16);
+        long now = 2_000_000_000L;
+        
+        
+        record(window, now, 100, 10L);
+        record(window, now, 100, 10L);
+        record(window, now, 100, 11L);
+        AccountActivity activity = record(window, now, 100, 12L);
+        AccountActivity saturated = record(window, now, 100, 13L);
+        AccountActivity overCapacity = record(window, now, 100, 14L);
+        
+        
+        assertThat(activity.distinctCreditAccounts()).isEqualTo(3);
+        assertThat(saturated.distinctCreditAccounts()).isEqualTo(4);
+        // Con la tabla llena el conteo se satura en la capacidad
+        assertThat(overCapacity.distinctCreditAccounts()).isEqualTo(4);
+    }
+    
+    @Test
+    @DisplayName("Debe ignorar una transacción reentregada")
+    void shouldIgnoreRedeliveredTransaction() {
+        
+        AccountWindow window = new AccountWindow(BUCKET_MILLIS, BUCKET_COUNT, 4, 16);
+        long now = 3_000_000_000L;
+        record(window, now, 1_000, 1L);
+        AccountActivity first = window.record(now + 1_000, 42L, 7L, 2_000, 2L);
+        
+        
+        AccountActivity redelivered = window.record(now + 1_000, 42L, 7L, 2_000, 2L);
+        
+        
+        assertThat(redelivered).isEqualTo(first).isEqualTo(new AccountActivity(2, 3_000, 2));
+    }
+    
+    @Test
+    @DisplayName("Debe medir la ventana con la hora del evento al procesar un backlog")
+    void shouldUseEventTimeForBacklog() {
+        
+        AccountWindow window = new AccountWindow(BUCKET_MILLIS, BUCKET_COUNT, 4, 16);
+        long start = 4_000_000_000L;
+        
+        
+        // Una hora de tráfico, un débito cada 10 minutos, procesada de una sola vez
+        AccountActivity last = null;
+        for (int i = 0; i < 6; i++) {
+            last = record(window, start + i * 600_000L, 1_000, 1L);
+        }
+        AccountActivity late = record(window, start + 2 * 600_000L + 1_000, 500, 1L);
+        
+        
+        assertThat(last).isEqualTo(new AccountActivity(1, 1_000, 1));
+        // Un evento fuera de orden se evalúa en su propia ventana aunque el anillo ya haya avanzado
+        assertThat(late).isEqualTo(new AccountActivity(1, 500, 1));
+    }
+    
+    private AccountActivity record(AccountWindow window, long eventMillis, long amountCents, long creditKey) {
+        return window.record(eventMillis, 0L, nextTransactionId++, amountCents, creditKey);
+    }
+}
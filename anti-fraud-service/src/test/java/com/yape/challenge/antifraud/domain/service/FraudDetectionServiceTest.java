@@ -1,7 +1,16 @@
 package com.yape.challenge.antifraud.domain.service;
 
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import com.yape.challenge.antifraud.domain.rules.AccountActivityStore;
+import com.yape.challenge.antifraud.domain.rules.CreditFanOutRule;
+import com.yape.challenge.antifraud.domain.rules.DebitAmountRule;
+import com.yape.challenge.antifraud.domain.rules.DebitCountRule;
+import com.yape.challenge.antifraud.domain.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.infrastructure.metrics.PipelineMetrics;
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import com.yape.challenge.shared.metrics.PipelineTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,7 +18,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,11 +28,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 class FraudDetectionServiceTest {
     
     private FraudDetectionService fraudDetectionService;
+    private SimpleMeterRegistry meterRegistry;
     
     @BeforeEach
     void setUp() {
-        fraudDetectionService = new FraudDetectionService();
-        ReflectionTestUtils.setField(fraudDetectionService, "maxTransactionValue", BigDecimal.valueOf(1000));
+        meterRegistry = new SimpleMeterRegistry();
+        fraudDetectionService = new FraudDetectionService(new FraudRuleEngine(
+            List.of(new DebitCountRule(3), new DebitAmountRule(BigDecimal.valueOf(5000)), new CreditFanOutRule(10)),
+            new AccountActivityStore(60, 12, 32, 1000, 64)),
+            new FraudPolicyHolder(BigDecimal.valueOf(1000)),
+            new PipelineMetrics(meterRegistry));
         ReflectionTestUtils.setField(fraudDetectionService, "processingDelayMs", 0L);
     }
     
@@ -117,4 +133,50 @@ class FraudDetectionServiceTest {
         assertThat(result.getEventId()).isNotNull();
         assertThat(result.getEventTimestamp()).isNotNull();
     }
+    
+    @Test
+    @DisplayName("Debe rechazar por velocidad cuando la cuenta débito supera los débitos de la ventana")
+    void shouldRejectWhenDebitVelocityExceeded() {
+        
+        UUID debitAccount = UUID.randomUUID();
+        TransactionStatusUpdatedEvent result = null;
+        for (int i = 0; i < 4; i++) {
+            result = fraudDetectionService.validateTransaction(TransactionCreatedEvent.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(debitAccount)
+                .accountExternalIdCredit(UUID.randomUUID())
+                .value(BigDecimal.valueOf(10))
+                .build());
+        }
+        
+        
+        assertThat(result.getStatus()).isEqualTo(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED);
+        assertThat(result.getReason()).contains("excede 3 débitos")
+            .doesNotContain("monto-maximo");
+    }
+    
+    @Test
+    @DisplayName("Debe registrar tiempo en cola y evaluación de reglas, y propagar la fecha de creación")
+    void shouldRecordPipelineStagesAndPropagateCreatedAt() {
+        
+        OffsetDateTime createdAt = OffsetDateTime.now().minusSeconds(2);
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .value(BigDecimal.valueOf(100))
+            .createdAt(createdAt)
+            .eventTimestamp(OffsetDateTime.now().minusSeconds(1))
+            .build();
+        
+        
+        TransactionStatusUpdatedEvent result = fraudDetectionService.validateTransaction(event);
+        
+        
+        assertThat(result.getTransactionCreatedAt()).isEqualTo(createdAt);
+        assertThat(meterRegistry.get(PipelineTimers.STAGE_TIMER).tag("stage", "queue-time").timer().totalTime(TimeUnit.MILLISECONDS))
+            .isGreaterThanOrEqualTo(1000);
+        assertThat(meterRegistry.get(PipelineTimers.STAGE_TIMER).tag("stage", "rule-evaluation").timer().count())
+            .isEqualTo(1);
+    }
 }
@@ -0,0 +1,158 @@
+package com.yape.challenge.antifraud.infrastructure.kafka;
+
+import com.yape.challenge.antifraud.domain.service.FraudDetectionService;
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import com.yape.challenge.antifraud.domain.rules.AccountActivityStore;
+import com.yape.challenge.antifraud.domain.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas del consumidor paralelo por clave")
+class TransactionCreatedEventParallelConsumerTest {
+    
+    private static final long PROCESSING_DELAY_MS = 100;
+    
+    private ThreadPoolTaskExecutor executor;
+    private TransactionStatusEventProducer statusEventProducer;
+    private List<TransactionStatusUpdatedEvent> sentEvents;
+    private TransactionCreatedEventParallelConsumer consumer;
+    
+    @BeforeEach
+    void setUp() {
+        FraudDetectionService fraudDetectionService = new FraudDetectionService(
+            new FraudRuleEngine(List.of(), new AccountActivityStore(60, 12, 32, 1000, 64)), new FraudPolicyHolder(BigDecimal.valueOf(1000)),
+            new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(fraudDetectionService, "processingDelayMs", PROCESSING_DELAY_MS);
+        
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(20);
+        executor.setMaxPoolSize(20);
+        executor.initialize();
+        
+        sentEvents = Collections.synchronizedList(new ArrayList<>());
+        statusEventProducer = mock(TransactionStatusEventProducer.class);
+        when(statusEventProducer.sendTransactionStatusUpdatedEvent(any())).thenAnswer(invocation -> {
+            sentEvents.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        
+        consumer = new TransactionCreatedEventParallelConsumer(fraudDetectionService, statusEventProducer, executor);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Debe validar en paralelo eventos de claves distintas")
+    void shouldValidateDistinctKeysConcurrently() {
+        // Given
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(record(i, UUID.randomUUID(), BigDecimal.valueOf(100)));
+        }
+        
+        // When
+        long start = System.nanoTime();
+        consumer.consumeTransactionCreatedEvents(records);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        
+        // Then: en serie serían 20 x 100 ms
+        assertThat(sentEvents).hasSize(20);
+        assertThat(elapsedMs).isLessThan(20 * PROCESSING_DELAY_MS / 2);
+    }
+    
+    @Test
+    @DisplayName("Debe conservar el orden de los eventos de una misma clave")
+    void shouldPreserveOrderWithinKey() {
+        // Given
+        UUID transactionId = UUID.randomUUID();
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records = List.of(
+            record(0, transactionId, BigDecimal.valueOf(100)),
+            record(1, UUID.randomUUID(), BigDecimal.valueOf(100)),
+            record(2, transactionId, BigDecimal.valueOf(5000)));
+        
+        // When
+        consumer.consumeTransactionCreatedEvents(records);
+        
+        // Then
+        assertThat(sentEvents).filteredOn(event -> event.getTransactionExternalId().equals(transactionId))
+            .extracting(TransactionStatusUpdatedEvent::getStatus)
+            .containsExactly(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED,
+                TransactionStatusUpdatedEvent.TransactionStatus.REJECTED);
+    }
+    
+    @Test
+    @DisplayName("Debe reportar el índice del primer registro fallido del lote")
+    void shouldReportLowestFailedIndex() {
+        // Given: el registro 1 no se pudo deserializar y el 3 tampoco
+        List<ConsumerRecord<String, TransactionCreatedEvent>> records = new ArrayList<>();
+        records.add(record(0, UUID.randomUUID(), BigDecimal.valueOf(100)));
+        records.add(new ConsumerRecord<>("transaction.created", 0, 1, "clave-1", null));
+        records.add(record(2, UUID.randomUUID(), BigDecimal.valueOf(100)));
+        records.add(new ConsumerRecord<>("transaction.created", 0, 3, "clave-3", null));
+        
+        // When & Then
+        assertThatThrownBy(() -> consumer.consumeTransactionCreatedEvents(records))
+            .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                ex -> assertThat(ex.getIndex()).isEqualTo(1));
+        assertThat(sentEvents).hasSize(2);
+    }
+    
+    @Test
+    @DisplayName("Debe saltar en la reentrega los carriles que ya terminaron")
+    void shouldSkipCompletedLanesOnRedelivery() {
+        // Given: el registro 1 falla y el 2, de otro carril, ya se validó
+        ConsumerRecord<String, TransactionCreatedEvent> first = record(0, UUID.randomUUID(), BigDecimal.valueOf(100));
+        ConsumerRecord<String, TransactionCreatedEvent> retried = record(1, UUID.randomUUID(), BigDecimal.valueOf(100));
+        ConsumerRecord<String, TransactionCreatedEvent> completed = record(2, UUID.randomUUID(), BigDecimal.valueOf(100));
+        assertThatThrownBy(() -> consumer.consumeTransactionCreatedEvents(List.of(first,
+            new ConsumerRecord<>("transaction.created", 0, 1, retried.key(), null), completed)))
+            .isInstanceOf(BatchListenerFailedException.class);
+        
+        // When: el contenedor vuelve a entregar desde el registro fallido
+        consumer.consumeTransactionCreatedEvents(List.of(retried, completed));
+        
+        // Then
+        assertThat(sentEvents).extracting(TransactionStatusUpdatedEvent::getTransactionExternalId)
+            .containsExactlyInAnyOrder(first.value().getTransactionExternalId(),
+                completed.value().getTransactionExternalId(), retried.value().getTransactionExternalId());
+    }
+    
+    private ConsumerRecord<String, TransactionCreatedEvent> record(long offset, UUID transactionId, BigDecimal value) {
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+            .transactionExternalId(transactionId)
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(value)
+            .createdAt(OffsetDateTime.now())
+            .build();
+        return new ConsumerRecord<>("transaction.created", 0, offset, transactionId.toString(), event);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yape.challenge.antifraud.infrastructure.policy;
+
+import com.yape.challenge.antifraud.domain.policy.FraudPolicy;
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de recarga en caliente de la política de fraude")
+class FraudPolicyFileWatcherTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Debe reemplazar la política al cambiar el archivo y conservarla si el cambio es inválido")
+    void shouldSwapPolicyOnChangeAndKeepItOnInvalidFile() throws IOException {
+        
+        Path policyFile = tempDir.resolve("fraud-rules.yml");
+        write(policyFile, "max-transaction-value: 1000\n", 1);
+        FraudPolicyHolder holder = new FraudPolicyHolder(BigDecimal.valueOf(1000));
+        FraudPolicyFileWatcher watcher = new FraudPolicyFileWatcher(holder, policyFile.toString(), BigDecimal.valueOf(1000));
+        watcher.loadInitialPolicy();
+        FraudPolicy initial = holder.current();
+        
+        
+        write(policyFile, "max-transaction-value: 500\n", 2);
+        watcher.checkForChanges();
+        watcher.checkForChanges();
+        FraudPolicy reloaded = holder.current();
+        
+        write(policyFile, "conditions: no-es-una-lista\n", 3);
+        watcher.checkForChanges();
+        watcher.checkForChanges();
+        
+        
+        assertThat(reloaded).isNotSameAs(initial);
+        assertThat(holder.current()).isSameAs(reloaded);
+    }
+    
+    @Test
+    @DisplayName("Debe esperar a que el archivo no cambie entre dos sondeos antes de recargarlo")
+    void shouldReloadOnlyAfterFileIsStable() throws IOException {
+        
+        Path policyFile = tempDir.resolve("fraud-rules.yml");
+        write(policyFile, "max-transaction-value: 1000\n", 1);
+        FraudPolicyHolder holder = new FraudPolicyHolder(BigDecimal.valueOf(1000));
+        FraudPolicyFileWatcher watcher = new FraudPolicyFileWatcher(holder, policyFile.toString(), BigDecimal.valueOf(1000));
+        watcher.loadInitialPolicy();
+        FraudPolicy initial = holder.current();
+        
+        
+        // Escritura en curso: el archivo cambia entre un sondeo y el siguiente
+        write(policyFile, "max-transaction-value: 5", 2);
+        watcher.checkForChanges();
+        write(policyFile, "max-transaction-value: 500\n", 3);
+        watcher.checkForChanges();
+        FraudPolicy whileWriting = holder.current();
+        watcher.checkForChanges();
+        
+        
+        assertThat(whileWriting).isSameAs(initial);
+        assertThat(holder.current()).isNotSameAs(initial);
+        assertThat(holder.current().getVersion()).endsWith(String.valueOf(1_700_000_003_000L) + "-"
+            + Files.size(policyFile));
+    }
+    
+    // Se fija la fecha de modificación para no depender de la resolución del sistema de archivos
+    private void write(Path file, String content, long second) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + second)));
+    }
+}
@@ -0,0 +1,158 @@
+package com.yape.challenge.benchmarks;
+
+import com.yape.challenge.shared.codec.BinaryEventDeserializer;
+import com.yape.challenge.shared.codec.BinaryEventSerializer;
+import com.yape.challenge.shared.codec.TransactionCreatedEventCodec;
+import com.yape.challenge.shared.codec.TransactionStatusUpdatedEventCodec;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+// Compara el camino JSON de Spring Kafka con el codec binario para los dos eventos.
+// Ejecutar con -prof gc para ver bytes asignados por operación; payloadSizes reporta el tamaño de cada payload
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+    
+    private static final String TOPIC = "benchmark";
+    
+    private JsonSerializer<TransactionCreatedEvent> createdJsonSerializer;
+    private JsonDeserializer<TransactionCreatedEvent> createdJsonDeserializer;
+    private BinaryEventSerializer<TransactionCreatedEvent> createdBinarySerializer;
+    private BinaryEventDeserializer<TransactionCreatedEvent> createdBinaryDeserializer;
+    
+    private JsonSerializer<TransactionStatusUpdatedEvent> statusJsonSerializer;
+    private JsonDeserializer<TransactionStatusUpdatedEvent> statusJsonDeserializer;
+    private BinaryEventSerializer<TransactionStatusUpdatedEvent> statusBinarySerializer;
+    private BinaryEventDeserializer<TransactionStatusUpdatedEvent> statusBinaryDeserializer;
+    
+    private TransactionCreatedEvent createdEvent;
+    private TransactionStatusUpdatedEvent statusEvent;
+    private byte[] createdJson;
+    private byte[] createdBinary;
+    private byte[] statusJson;
+    private byte[] statusBinary;
+    
+    @Setup
+    public void setUp() {
+        createdEvent = TransactionCreatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(new BigDecimal("120.50"))
+            .createdAt(OffsetDateTime.now())
+            .eventId(UUID.randomUUID().toString())
+            .eventTimestamp(OffsetDateTime.now())
+            .build();
+        statusEvent = TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED)
+            .reason("Transacción aprobada")
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .eventId(UUID.randomUUID().toString())
+            .eventTimestamp(OffsetDateTime.now())
+            .build();
+        
+        // Sin cabeceras de tipo: se mide solo el payload, igual que el deserializador con tipo fijo
+        createdJsonSerializer = new JsonSerializer<TransactionCreatedEvent>().noTypeInfo();
+        createdJsonDeserializer = new JsonDeserializer<>(TransactionCreatedEvent.class, false);
+        createdBinarySerializer = new BinaryEventSerializer<>(TransactionCreatedEventCodec.INSTANCE);
+        createdBinaryDeserializer = new BinaryEventDeserializer<>(TransactionCreatedEventCodec.INSTANCE);
+        
+        statusJsonSerializer = new JsonSerializer<TransactionStatusUpdatedEvent>().noTypeInfo();
+        statusJsonDeserializer = new JsonDeserializer<>(TransactionStatusUpdatedEvent.class, false);
+        statusBinarySerializer = new BinaryEventSerializer<>(TransactionStatusUpdatedEventCodec.INSTANCE);
+        statusBinaryDeserializer = new BinaryEventDeserializer<>(TransactionStatusUpdatedEventCodec.INSTANCE);
+        
+        createdJson = createdJsonSerializer.serialize(TOPIC, createdEvent);
+        createdBinary = createdBinarySerializer.serialize(TOPIC, createdEvent);
+        statusJson = statusJsonSerializer.serialize(TOPIC, statusEvent);
+        statusBinary = statusBinarySerializer.serialize(TOPIC, statusEvent);
+    }
+    
+    // Tamaños en bytes como métricas secundarias, así quedan en results.json junto a los tiempos.
+    // JMH suma los contadores de eventos entre iteraciones e hilos: payloadSizes corre una sola vez
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSizes {
+        public long createdJsonBytes;
+        public long createdBinaryBytes;
+        public long statusJsonBytes;
+        public long statusBinaryBytes;
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void payloadSizes(PayloadSizes sizes) {
+        sizes.createdJsonBytes = createdJson.length;
+        sizes.createdBinaryBytes = createdBinary.length;
+        sizes.statusJsonBytes = statusJson.length;
+        sizes.statusBinaryBytes = statusBinary.length;
+    }
+    
+    @Benchmark
+    public byte[] createdEncodeJson() {
+        return createdJsonSerializer.serialize(TOPIC, createdEvent);
+    }
+    
+    @Benchmark
+    public byte[] createdEncodeBinary() {
+        return createdBinarySerializer.serialize(TOPIC, createdEvent);
+    }
+    
+    @Benchmark
+    public TransactionCreatedEvent createdDecodeJson() {
+        return createdJsonDeserializer.deserialize(TOPIC, createdJson);
+    }
+    
+    @Benchmark
+    public TransactionCreatedEvent createdDecodeBinary() {
+        return createdBinaryDeserializer.deserialize(TOPIC, createdBinary);
+    }
+    
+    @Benchmark
+    public byte[] statusEncodeJson() {
+        return statusJsonSerializer.serialize(TOPIC, statusEvent);
+    }
+    
+    @Benchmark
+    public byte[] statusEncodeBinary() {
+        return statusBinarySerializer.serialize(TOPIC, statusEvent);
+    }
+    
+    @Benchmark
+    public TransactionStatusUpdatedEvent statusDecodeJson() {
+        return statusJsonDeserializer.deserialize(TOPIC, statusJson);
+    }
+    
+    @Benchmark
+    public TransactionStatusUpdatedEvent statusDecodeBinary() {
+        return statusBinaryDeserializer.deserialize(TOPIC, statusBinary);
+    }
+}
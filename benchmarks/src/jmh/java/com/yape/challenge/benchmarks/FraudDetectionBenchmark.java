@@ -0,0 +1,88 @@
+package com.yape.challenge.benchmarks;
+
+import com.yape.challenge.antifraud.domain.policy.FraudPolicyHolder;
+import com.yape.challenge.antifraud.domain.rules.AccountActivityStore;
+import com.yape.challenge.antifraud.domain.rules.CreditFanOutRule;
+import com.yape.challenge.antifraud.domain.rules.DebitAmountRule;
+import com.yape.challenge.antifraud.domain.rules.DebitCountRule;
+import com.yape.challenge.antifraud.domain.rules.FraudRuleEngine;
+import com.yape.challenge.antifraud.domain.service.FraudDetectionService;
+import com.yape.challenge.antifraud.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+// validateTransaction sin el retardo simulado (processing-delay-ms queda en 0): política + reglas de velocidad
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudDetectionBenchmark {
+    
+    private static final int ACCOUNTS = 1024;
+    // Tiempo de evento entre dos transacciones: cada cuenta opera cada ~1 s y los buckets de la ventana rotan
+    private static final Duration EVENT_INTERVAL = Duration.ofMillis(1);
+    
+    private FraudDetectionService fraudDetectionService;
+    private TransactionCreatedEvent[] events;
+    private int next;
+    private long sequence;
+    private long sequenceSalt;
+    private OffsetDateTime eventTime;
+    
+    @Setup
+    public void setUp() {
+        // Límites de ventana altos: se mide el costo de evaluar, no el camino de rechazo
+        AccountActivityStore activityStore = new AccountActivityStore(60, 12, 32, ACCOUNTS * 2L, 64);
+        FraudRuleEngine ruleEngine = new FraudRuleEngine(List.of(
+            new DebitCountRule(Integer.MAX_VALUE),
+            new DebitAmountRule(BigDecimal.valueOf(Long.MAX_VALUE / 100)),
+            new CreditFanOutRule(Integer.MAX_VALUE)), activityStore);
+        fraudDetectionService = new FraudDetectionService(ruleEngine, new FraudPolicyHolder(BigDecimal.valueOf(1000)),
+            new PipelineMetrics(new SimpleMeterRegistry()));
+        
+        events = new TransactionCreatedEvent[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            events[i] = TransactionCreatedEvent.builder()
+                .accountExternalIdDebit(UUID.randomUUID())
+                .accountExternalIdCredit(UUID.randomUUID())
+                .transferTypeId(1)
+                .value(BigDecimal.valueOf(10 + i % 900))
+                .build();
+        }
+        sequenceSalt = UUID.randomUUID().getMostSignificantBits();
+        eventTime = OffsetDateTime.now();
+    }
+    
+    // Cada invocación es una transacción nueva con tiempo de evento creciente: si se repitiera el id,
+    // la ventana la trataría como reentrega y solo se mediría el descarte de duplicados
+    @Benchmark
+    public TransactionStatusUpdatedEvent validateTransaction() {
+        TransactionCreatedEvent event = events[next];
+        next = (next + 1) & (ACCOUNTS - 1);
+        eventTime = eventTime.plus(EVENT_INTERVAL);
+        event.setTransactionExternalId(new UUID(sequenceSalt, ++sequence));
+        event.setCreatedAt(eventTime);
+        return fraudDetectionService.validateTransaction(event);
+    }
+}
@@ -0,0 +1,72 @@
+package com.yape.challenge.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+// Serializador de valores de la caché L2, con la misma configuración que CacheConfig
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+    
+    private GenericJackson2JsonRedisSerializer serializer;
+    private TransactionResponse response;
+    private byte[] serialized;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        
+        response = TransactionResponse.builder()
+            .transactionId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .status("approved")
+            .value(new BigDecimal("120.50"))
+            .createdAt(OffsetDateTime.now())
+            .updatedAt(OffsetDateTime.now())
+            .build();
+        serialized = serializer.serialize(response);
+    }
+    
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(response);
+    }
+    
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+    
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(response));
+    }
+}
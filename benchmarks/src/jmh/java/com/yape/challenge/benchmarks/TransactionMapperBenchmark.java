@@ -0,0 +1,91 @@
+package com.yape.challenge.benchmarks;
+
+import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import com.yape.challenge.transaction.application.service.ReferenceDataRegistry;
+import com.yape.challenge.transaction.application.service.TransactionMapper;
+import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.TransactionStatusRepository;
+import com.yape.challenge.transaction.domain.repository.TransactionTypeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMapperBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    
+    private TransactionMapper transactionMapper;
+    
+    private Transaction transaction;
+    
+    private List<TransactionResponse> page;
+    
+    @Setup
+    public void setUp() {
+        // Registro en memoria sin base de datos: los repositorios solo responden findAll()
+        ReferenceDataRegistry referenceDataRegistry = new ReferenceDataRegistry(
+            findAllOnly(TransactionTypeRepository.class, List.of(TransactionType.builder().id(1).name("transfer").build())),
+            findAllOnly(TransactionStatusRepository.class, List.of(TransactionStatus.builder().id(1).name("pending").build())));
+        referenceDataRegistry.refresh();
+        transactionMapper = new TransactionMapper(referenceDataRegistry);
+        
+        transaction = Transaction.builder()
+            .id(1L)
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transactionType(TransactionType.builder().id(1).name("transfer").build())
+            .transactionStatus(TransactionStatus.builder().id(1).name("pending").build())
+            .value(new BigDecimal("120.50"))
+            .createdAt(OffsetDateTime.now())
+            .updatedAt(OffsetDateTime.now())
+            .build();
+        page = Collections.nCopies(PAGE_SIZE, transactionMapper.toResponse(transaction));
+    }
+    
+    @Benchmark
+    public TransactionResponse toResponse() {
+        return transactionMapper.toResponse(transaction);
+    }
+    
+    // Lo que hace el @BatchMapping de transactionType para una página completa
+    @Benchmark
+    public List<TransactionResponse.TransactionTypeDto> transactionTypesForPage() {
+        return transactionMapper.toTransactionTypes(page);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T findAllOnly(Class<T> repositoryType, List<?> rows) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+            (proxy, method, args) -> {
+                if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                    return rows;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,107 @@
+package com.yape.challenge.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+// Ráfaga de mutaciones en vuelo que pasan casi todo su tiempo bloqueadas (JDBC, ack de Kafka, retardo
+// anti-fraude). "platform" replica el pool de Tomcat por defecto (200 hilos); "virtual-pinned" bloquea
+// dentro de synchronized y muestra por qué los caminos calientes usan ReentrantLock. Requiere Java 21
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual", "virtual-pinned"})
+    public String threading;
+
+    @Param({"2000"})
+    public int inFlight;
+
+    @Param({"20"})
+    public long blockingMillis;
+
+    private Executor executor;
+    private ExecutorService platformPool;
+    private Object[] monitors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        monitors = new Object[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            monitors[i] = new Object();
+        }
+
+        if ("platform".equals(threading)) {
+            platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            executor = platformPool;
+            return;
+        }
+        // Con Java 17 falla aquí (UnsupportedOperationException) y JMH reporta solo esta combinación
+        SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("benchmark-virtual-");
+        virtualExecutor.setVirtualThreads(true);
+        executor = virtualExecutor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (platformPool != null) {
+            platformPool.shutdownNow();
+        }
+    }
+
+    // Tiempo en completar toda la ráfaga: inFlight / tiempo = mutaciones concurrentes atendidas por segundo
+    @Benchmark
+    public void inFlightMutations() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(inFlight);
+        boolean pinned = "virtual-pinned".equals(threading);
+        for (int i = 0; i < inFlight; i++) {
+            Object monitor = monitors[i];
+            executor.execute(() -> {
+                try {
+                    if (pinned) {
+                        synchronized (monitor) {
+                            block();
+                        }
+                    } else {
+                        block();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void block() {
+        try {
+            Thread.sleep(blockingMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.yape.challenge.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+// Lag = último offset del topic - offset confirmado por el grupo, sumado sobre todas las particiones
+@Slf4j
+public class ConsumerLagMonitor implements AutoCloseable {
+    
+    private final AdminClient adminClient;
+    private final List<String> groupIds;
+    private final Map<String, Long> maxLag = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastLag = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "consumer-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public ConsumerLagMonitor(String bootstrapServers, List<String> groupIds) {
+        this.adminClient = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        this.groupIds = groupIds;
+    }
+    
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+    
+    public Map<String, Long> maxLag() {
+        return ordered(maxLag);
+    }
+    
+    public Map<String, Long> lastLag() {
+        return ordered(lastLag);
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        adminClient.close();
+    }
+    
+    private void sample() {
+        for (String groupId : groupIds) {
+            try {
+                long lag = currentLag(groupId);
+                lastLag.put(groupId, lag);
+                maxLag.merge(groupId, lag, Math::max);
+            } catch (Exception ex) {
+                log.warn("No se pudo medir el lag del grupo {}: {}", groupId, ex.getMessage());
+            }
+        }
+    }
+    
+    private long currentLag(String groupId) throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+            .partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+        if (committed.isEmpty()) {
+            return 0L;
+        }
+        
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        committed.keySet().forEach(partition -> request.put(partition, OffsetSpec.latest()));
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest =
+            adminClient.listOffsets(request).all().get(5, TimeUnit.SECONDS);
+        
+        long lag = 0L;
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : committed.entrySet()) {
+            if (entry.getValue() != null) {
+                lag += Math.max(0L, latest.get(entry.getKey()).offset() - entry.getValue().offset());
+            }
+        }
+        return lag;
+    }
+    
+    private Map<String, Long> ordered(Map<String, Long> values) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        groupIds.forEach(groupId -> result.put(groupId, values.getOrDefault(groupId, 0L)));
+        return result;
+    }
+}
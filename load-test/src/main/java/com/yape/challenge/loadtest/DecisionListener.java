@@ -0,0 +1,72 @@
+package com.yape.challenge.loadtest;
+
+import com.yape.challenge.shared.codec.BinaryEventDeserializer;
+import com.yape.challenge.shared.codec.TransactionStatusUpdatedEventCodec;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+
+// Lee el topic de estados con un grupo propio: marca el veredicto de anti-fraude, antes de que
+// transaction-service lo aplique en la base de datos
+@Slf4j
+public class DecisionListener implements AutoCloseable {
+    
+    private final KafkaConsumer<String, TransactionStatusUpdatedEvent> consumer;
+    private final LatencyTracker latencyTracker;
+    private final Thread pollThread;
+    
+    public DecisionListener(String bootstrapServers, String topic, LatencyTracker latencyTracker) {
+        this.consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "load-test",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000),
+            new StringDeserializer(),
+            new BinaryEventDeserializer<>(TransactionStatusUpdatedEventCodec.INSTANCE));
+        this.consumer.subscribe(List.of(topic));
+        this.latencyTracker = latencyTracker;
+        this.pollThread = new Thread(this::pollLoop, "decision-listener");
+        this.pollThread.setDaemon(true);
+    }
+    
+    public void start() {
+        pollThread.start();
+    }
+    
+    @Override
+    public void close() {
+        consumer.wakeup();
+        try {
+            pollThread.join(5_000);
+        } catch (InterruptedException ex) {
+            // El hilo es daemon: si no llega a cerrar el consumidor, termina con la JVM
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void pollLoop() {
+        try {
+            while (true) {
+                for (ConsumerRecord<String, TransactionStatusUpdatedEvent> record : consumer.poll(Duration.ofMillis(100))) {
+                    TransactionStatusUpdatedEvent event = record.value();
+                    if (event != null && event.getTransactionExternalId() != null) {
+                        latencyTracker.onDecision(event.getTransactionExternalId(), event.getStatus(), System.nanoTime());
+                    }
+                }
+            }
+        } catch (WakeupException ex) {
+            log.debug("Listener de decisiones detenido");
+        } finally {
+            consumer.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.yape.challenge.loadtest;
+
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Empareja cada mutación aceptada con su evento de estado. La decisión puede llegar antes que la
+// respuesta HTTP, así que ambos lados pasan por compute() sobre la misma clave. Aparte mide hasta que
+// transaction-service aplica el estado, que se observa suscribiéndose antes de enviar la mutación
+public class LatencyTracker {
+    
+    private final Histogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(10), 3);
+    private final Histogram appliedHistogram = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(10), 3);
+    private final ConcurrentHashMap<UUID, Slot> slots = new ConcurrentHashMap<>();
+    
+    private final LongAdder approved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder measuredDecisions = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    
+    // Latencia desde el instante en que la mutación debía enviarse (no desde que se envió):
+    // así los retrasos del propio generador no esconden colas (omisión coordinada)
+    public void onAccepted(UUID transactionId, long intendedNanos, boolean measured) {
+        slots.compute(transactionId, (id, slot) -> {
+            if (slot == null) {
+                return new Slot(intendedNanos, measured, 0L);
+            }
+            record(intendedNanos, measured, slot.decidedNanos());
+            return null;
+        });
+    }
+    
+    public void onDecision(UUID transactionId, TransactionStatusUpdatedEvent.TransactionStatus status, long decidedNanos) {
+        if (status == TransactionStatusUpdatedEvent.TransactionStatus.APPROVED) {
+            approved.increment();
+        } else if (status == TransactionStatusUpdatedEvent.TransactionStatus.REJECTED) {
+            rejected.increment();
+        }
+        slots.compute(transactionId, (id, slot) -> {
+            if (slot == null) {
+                return new Slot(0L, false, decidedNanos);
+            }
+            record(slot.intendedNanos(), slot.measured(), decidedNanos);
+            return null;
+        });
+    }
+    
+    public void onApplied(long intendedNanos, boolean measured, long appliedNanos) {
+        applied.increment();
+        if (measured) {
+            appliedHistogram.recordValue(Math.max(0L, appliedNanos - intendedNanos));
+        }
+    }
+    
+    public Histogram histogram() {
+        return histogram;
+    }
+    
+    public Histogram appliedHistogram() {
+        return appliedHistogram;
+    }
+    
+    public long approved() {
+        return approved.sum();
+    }
+    
+    public long rejected() {
+        return rejected.sum();
+    }
+    
+    public long measuredDecisions() {
+        return measuredDecisions.sum();
+    }
+    
+    // Mutaciones aceptadas cuya decisión ya se vio en el topic de estados
+    public long matched() {
+        return matched.sum();
+    }
+    
+    // Estados finales ya confirmados en la base de datos de transaction-service
+    public long applied() {
+        return applied.sum();
+    }
+    
+    private void record(long intendedNanos, boolean measured, long decidedNanos) {
+        matched.increment();
+        if (measured) {
+            histogram.recordValue(Math.max(0L, decidedNanos - intendedNanos));
+            measuredDecisions.increment();
+        }
+    }
+    
+    private record Slot(long intendedNanos, boolean measured, long decidedNanos) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.yape.challenge.loadtest;
+
+import com.yape.challenge.antifraud.AntiFraudServiceApplication;
+import com.yape.challenge.transaction.TransactionServiceApplication;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionSubscriptionRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+
+// Prueba de carga de tasa abierta: las mutaciones salen a intervalos fijos sin esperar respuestas,
+// así una degradación de los servicios se ve como latencia y lag en lugar de frenar al generador
+@Slf4j
+public class LoadTestRunner {
+    
+    static final String TRANSACTION_CREATED_TOPIC = "transaction.created";
+    static final String TRANSACTION_STATUS_UPDATED_TOPIC = "transaction.status.updated";
+    static final String TRANSACTION_STATUS_UPDATED_DLT = "transaction.status.updated.dlt";
+    static final String ANTI_FRAUD_GROUP = "anti-fraud-service";
+    static final String TRANSACTION_GROUP = "transaction-service";
+    
+    private static final BigDecimal MAX_APPROVED_VALUE = BigDecimal.valueOf(1000);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    
+    private final LoadTestSettings settings;
+    private final LatencyTracker latencyTracker = new LatencyTracker();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    
+    public LoadTestRunner(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestSettings.fromArgs(args)).run();
+        System.exit(0);
+    }
+    
+    public void run() throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, settings.partitions(),
+            TRANSACTION_CREATED_TOPIC, TRANSACTION_STATUS_UPDATED_TOPIC, TRANSACTION_STATUS_UPDATED_DLT);
+        broker.afterPropertiesSet();
+        String bootstrapServers = broker.getBrokersAsString();
+        
+        ConfigurableApplicationContext antiFraudContext = null;
+        ConfigurableApplicationContext transactionContext = null;
+        try {
+            antiFraudContext = start(AntiFraudServiceApplication.class, "load-test-anti-fraud-service", bootstrapServers);
+            transactionContext = start(TransactionServiceApplication.class, "load-test-transaction-service", bootstrapServers,
+                "--yape.transaction.write-mode=" + settings.writeMode(),
+                "--yape.transaction.journal.directory=" + settings.reportDir().resolve("journal-" + System.currentTimeMillis()));
+            int port = Integer.parseInt(transactionContext.getEnvironment().getRequiredProperty("local.server.port"));
+            
+            try (DecisionListener decisionListener = new DecisionListener(bootstrapServers,
+                     TRANSACTION_STATUS_UPDATED_TOPIC, latencyTracker);
+                 ConsumerLagMonitor lagMonitor = new ConsumerLagMonitor(bootstrapServers,
+                     List.of(ANTI_FRAUD_GROUP, TRANSACTION_GROUP))) {
+                decisionListener.start();
+                lagMonitor.start();
+                
+                generateLoad(new MutationClient(port), transactionContext.getBean(TransactionSubscriptionRegistry.class));
+                awaitDecisions();
+                report(lagMonitor);
+            }
+        } finally {
+            if (transactionContext != null) {
+                transactionContext.close();
+            }
+            if (antiFraudContext != null) {
+                antiFraudContext.close();
+            }
+            broker.destroy();
+        }
+    }
+    
+    // Cada servicio usa su propio archivo de configuración: los application.yml de ambos
+    // comparten la raíz del classpath y solo uno sería visible
+    private ConfigurableApplicationContext start(Class<?> application, String configName, String bootstrapServers,
+                                                 String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of("--spring.config.name=" + configName,
+            "--spring.kafka.bootstrap-servers=" + bootstrapServers));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(application).run(args.toArray(String[]::new));
+    }
+    
+    private void generateLoad(MutationClient mutationClient, TransactionSubscriptionRegistry subscriptionRegistry) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond();
+        long warmupNanos = settings.warmup().toNanos();
+        long totalNanos = warmupNanos + settings.duration().toNanos();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        
+        log.warn("Generando {} tx/s durante {}s (+{}s de calentamiento)", settings.ratePerSecond(),
+            settings.duration().toSeconds(), settings.warmup().toSeconds());
+        
+        long start = System.nanoTime();
+        for (long offset = 0; offset < totalNanos; offset += intervalNanos) {
+            long intendedNanos = start + offset;
+            long waitNanos;
+            while ((waitNanos = intendedNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            
+            sent.increment();
+            if (!inFlight.tryAcquire()) {
+                // El generador no espera: si se supera el máximo en vuelo la mutación se descarta y se reporta
+                dropped.increment();
+                continue;
+            }
+            boolean measured = offset >= warmupNanos;
+            UUID debitAccount = UUID.randomUUID();
+            Disposable appliedStatus = awaitAppliedStatus(subscriptionRegistry, debitAccount, intendedNanos, measured);
+            mutationClient.createTransaction(debitAccount, nextValue()).whenComplete((transactionId, ex) -> {
+                inFlight.release();
+                if (ex != null) {
+                    failed.increment();
+                    appliedStatus.dispose();
+                    log.debug("Mutación fallida: {}", ex.getMessage());
+                } else {
+                    accepted.increment();
+                    latencyTracker.onAccepted(transactionId, intendedNanos, measured);
+                }
+            });
+        }
+    }
+    
+    // Misma suscripción por cuenta que ofrece GraphQL, pero en proceso: se registra antes de enviar la
+    // mutación, así el cambio de estado no puede llegar antes que el suscriptor. La cuenta débito es
+    // única por mutación, de modo que el primer estado final es el de esta transacción
+    private Disposable awaitAppliedStatus(TransactionSubscriptionRegistry subscriptionRegistry, UUID debitAccount,
+                                          long intendedNanos, boolean measured) {
+        return subscriptionRegistry.subscribeAccount(debitAccount)
+            .filter(change -> !TransactionStatusCode.PENDING.getStatusName().equals(change.getStatus()))
+            .next()
+            .subscribe(change -> latencyTracker.onApplied(intendedNanos, measured, System.nanoTime()),
+                ex -> log.debug("Suscripción de estado fallida: {}", ex.getMessage()));
+    }
+    
+    private BigDecimal nextValue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < settings.rejectRatio()) {
+            return MAX_APPROVED_VALUE.add(BigDecimal.valueOf(random.nextInt(1, 5000)));
+        }
+        return BigDecimal.valueOf(random.nextInt(1, 100_000), 2);
+    }
+    
+    private void awaitDecisions() throws InterruptedException {
+        long deadline = System.nanoTime() + settings.drainTimeout().toNanos();
+        while (System.nanoTime() < deadline
+            && (latencyTracker.matched() < accepted.sum() || latencyTracker.applied() < accepted.sum())) {
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+    }
+    
+    private void report(ConsumerLagMonitor lagMonitor) throws IOException {
+        Histogram histogram = latencyTracker.histogram().copy();
+        Histogram appliedHistogram = latencyTracker.appliedHistogram().copy();
+        double seconds = settings.duration().toNanos() / 1e9;
+        
+        PrintStream out = System.out;
+        out.println();
+        out.println("=== Resultado de la prueba de carga ===");
+        out.printf("Tasa objetivo: %d tx/s durante %ds (+%ds de calentamiento), escritura %s%n",
+            settings.ratePerSecond(), settings.duration().toSeconds(), settings.warmup().toSeconds(), settings.writeMode());
+        out.printf("Mutaciones: enviadas=%d aceptadas=%d fallidas=%d descartadas=%d%n",
+            sent.sum(), accepted.sum(), failed.sum(), dropped.sum());
+        out.printf("Decisiones: aprobadas=%d rechazadas=%d sin decisión=%d%n",
+            latencyTracker.approved(), latencyTracker.rejected(), accepted.sum() - latencyTracker.matched());
+        out.printf("Throughput decidido (ventana medida): %.1f tx/s%n", latencyTracker.measuredDecisions() / seconds);
+        out.printf("Estados aplicados en transaction-service: %d, sin aplicar=%d%n",
+            latencyTracker.applied(), accepted.sum() - latencyTracker.applied());
+        out.println("Latencia mutación -> veredicto anti-fraude (ms): " + percentiles(histogram));
+        out.println("Latencia mutación -> estado aplicado (ms): " + percentiles(appliedHistogram));
+        out.println("Lag de consumidores (máximo / final): " + formatLag(lagMonitor.maxLag(), lagMonitor.lastLag()));
+        
+        Files.createDirectories(settings.reportDir());
+        Path histogramFile = settings.reportDir().resolve("latency.hgrm");
+        try (PrintStream file = new PrintStream(Files.newOutputStream(histogramFile))) {
+            histogram.outputPercentileDistribution(file, NANOS_PER_MILLI);
+        }
+        Path appliedHistogramFile = settings.reportDir().resolve("latency-applied.hgrm");
+        try (PrintStream file = new PrintStream(Files.newOutputStream(appliedHistogramFile))) {
+            appliedHistogram.outputPercentileDistribution(file, NANOS_PER_MILLI);
+        }
+        out.println("Distribución de percentiles (ms): " + histogramFile.toAbsolutePath() + ", "
+            + appliedHistogramFile.toAbsolutePath());
+    }
+    
+    private static String percentiles(Histogram histogram) {
+        return String.format("p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f (n=%d)",
+            millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+            millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()), histogram.getTotalCount());
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+    
+    private static String formatLag(Map<String, Long> maxLag, Map<String, Long> lastLag) {
+        StringBuilder result = new StringBuilder();
+        maxLag.forEach((groupId, lag) -> result.append(result.isEmpty() ? "" : ", ")
+            .append(groupId).append('=').append(lag).append(" / ").append(lastLag.get(groupId)));
+        return result.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.yape.challenge.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public record LoadTestSettings(
+    int ratePerSecond,
+    Duration duration,
+    Duration warmup,
+    Duration drainTimeout,
+    int partitions,
+    double rejectRatio,
+    int maxInFlight,
+    String writeMode,
+    Path reportDir
+) {
+    
+    // Argumentos con formato --clave=valor; los que falten toman el valor por defecto
+    public static LoadTestSettings fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Argumento inválido, se esperaba --clave=valor: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        
+        LoadTestSettings settings = new LoadTestSettings(
+            Integer.parseInt(values.getOrDefault("rate", "200")),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("drain", "30"))),
+            Integer.parseInt(values.getOrDefault("partitions", "6")),
+            Double.parseDouble(values.getOrDefault("rejectRatio", "0.1")),
+            Integer.parseInt(values.getOrDefault("maxInFlight", "20000")),
+            values.getOrDefault("writeMode", "sync"),
+            Path.of(values.getOrDefault("reportDir", "build/reports/load-test"))
+        );
+        if (settings.ratePerSecond() <= 0 || settings.partitions() <= 0 || settings.maxInFlight() <= 0) {
+            throw new IllegalArgumentException("rate, partitions y maxInFlight deben ser mayores a 0");
+        }
+        if (settings.rejectRatio() < 0 || settings.rejectRatio() > 1) {
+            throw new IllegalArgumentException("rejectRatio debe estar entre 0 y 1");
+        }
+        if (!settings.writeMode().equals("sync") && !settings.writeMode().equals("accepted")) {
+            throw new IllegalArgumentException("writeMode debe ser sync o accepted");
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,67 @@
+package com.yape.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+
+// Cliente mínimo de la mutación createTransaction sobre HTTP/1.1
+public class MutationClient {
+    
+    private static final String CREATE_TRANSACTION = "mutation($input: CreateTransactionInput!) "
+        + "{ createTransaction(input: $input) { transactionId } }";
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI graphqlUri;
+    
+    public MutationClient(int port) {
+        this.graphqlUri = URI.create("http://localhost:" + port + "/graphql");
+    }
+    
+    public CompletableFuture<UUID> createTransaction(UUID debitAccount, BigDecimal value) {
+        ObjectNode body = objectMapper.createObjectNode().put("query", CREATE_TRANSACTION);
+        body.putObject("variables").putObject("input")
+            .put("accountExternalIdDebit", debitAccount.toString())
+            .put("accountExternalIdCredit", UUID.randomUUID().toString())
+            .put("transferTypeId", 1)
+            .put("value", value);
+        
+        HttpRequest request = HttpRequest.newBuilder(graphqlUri)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+        
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(this::transactionId);
+    }
+    
+    private UUID transactionId(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta HTTP " + response.statusCode());
+        }
+        try {
+            JsonNode transactionId = objectMapper.readTree(response.body()).at("/data/createTransaction/transactionId");
+            if (transactionId.isMissingNode() || transactionId.isNull()) {
+                throw new IllegalStateException("Mutación sin transactionId: " + new String(response.body()));
+            }
+            return UUID.fromString(transactionId.asText());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Respuesta GraphQL ilegible", ex);
+        }
+    }
+}
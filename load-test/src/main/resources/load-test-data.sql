@@ -0,0 +1,6 @@
+INSERT INTO transaction_types (id, name, description) VALUES (1, 'transfer', 'Transferencia regular entre cuentas');
+INSERT INTO transaction_types (id, name, description) VALUES (2, 'payment', 'Transacción de pago');
+INSERT INTO transaction_types (id, name, description) VALUES (3, 'refund', 'Transacción de reembolso');
+INSERT INTO transaction_statuses (id, name, description) VALUES (1, 'pending', 'Transacción pendiente de validación');
+INSERT INTO transaction_statuses (id, name, description) VALUES (2, 'approved', 'Transacción aprobada por antifraude');
+INSERT INTO transaction_statuses (id, name, description) VALUES (3, 'rejected', 'Transacción rechazada por antifraude');
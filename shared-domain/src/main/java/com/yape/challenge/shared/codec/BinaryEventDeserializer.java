@@ -0,0 +1,40 @@
+package com.yape.challenge.shared.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+
+// Lee el formato binario y, durante la migración, también los registros JSON que sigan en el topic
+public class BinaryEventDeserializer<T> implements Deserializer<T> {
+    
+    private static final byte JSON_OBJECT_START = '{';
+    
+    private final EventCodec<T> codec;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    public BinaryEventDeserializer(EventCodec<T> codec) {
+        this.codec = codec;
+    }
+    
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (data[0] == JSON_OBJECT_START) {
+                return objectMapper.readValue(data, codec.eventType());
+            }
+            return codec.decode(data);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new SerializationException("No se pudo deserializar evento del topic " + topic, ex);
+        }
+    }
+}
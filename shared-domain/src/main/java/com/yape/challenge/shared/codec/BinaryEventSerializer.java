@@ -0,0 +1,19 @@
+package com.yape.challenge.shared.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+
+// Sin cabeceras de tipo: el esquema viaja en los primeros bytes del valor
+public class BinaryEventSerializer<T> implements Serializer<T> {
+    
+    private final EventCodec<T> codec;
+    
+    public BinaryEventSerializer(EventCodec<T> codec) {
+        this.codec = codec;
+    }
+    
+    @Override
+    public byte[] serialize(String topic, T event) {
+        return event == null ? null : codec.encode(event);
+    }
+}
@@ -0,0 +1,147 @@
+package com.yape.challenge.shared.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+
+// Primitivas del formato binario compartidas por los codecs de eventos.
+// Cabecera: [MAGIC][id de esquema][versión][máscara de campos presentes como varint]
+// Una versión nueva solo agrega campos al final, así un lector antiguo lee los que conoce e ignora el resto.
+// La máscara es un varint para que agregar campos no cambie la cabecera: hasta 7 campos ocupa un byte
+final class BinaryFormat {
+    
+    // Nunca coincide con '{', así el deserializador distingue binario de JSON por el primer byte
+    static final byte MAGIC = (byte) 0xB1;
+    // Tamaño mínimo de la cabecera, con la máscara en un solo byte
+    static final int HEADER_SIZE = 4;
+    static final int UUID_SIZE = 16;
+    static final int MICROS_SIZE = 8;
+    static final int DECIMAL_SIZE = 9;
+    
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+    
+    private BinaryFormat() {
+    }
+    
+    static int headerSize(int presence) {
+        return HEADER_SIZE - 1 + varIntSize(presence);
+    }
+    
+    static void putHeader(ByteBuffer buffer, byte schemaId, byte version, int presence) {
+        buffer.put(MAGIC).put(schemaId).put(version);
+        putVarInt(buffer, presence);
+    }
+    
+    static byte readVersion(ByteBuffer buffer, byte expectedSchemaId) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.get() != MAGIC) {
+            throw new IllegalArgumentException("Evento binario inválido: cabecera desconocida");
+        }
+        byte schemaId = buffer.get();
+        if (schemaId != expectedSchemaId) {
+            throw new IllegalArgumentException("Evento binario de esquema " + schemaId + ", se esperaba " + expectedSchemaId);
+        }
+        byte version = buffer.get();
+        if (version < 1) {
+            throw new IllegalArgumentException("Versión de esquema no soportada: " + version);
+        }
+        return version;
+    }
+    
+    // Se leen todos los bits aunque el lector solo conozca los primeros: los campos nuevos van al final
+    static int readPresence(ByteBuffer buffer) {
+        return getVarInt(buffer);
+    }
+    
+    static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+    
+    static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    
+    // Monto como escala + valor sin escala en un long: 9 bytes frente a un String decimal
+    static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.compareTo(MIN_LONG) < 0 || unscaled.compareTo(MAX_LONG) > 0 || value.scale() > Byte.MAX_VALUE
+            || value.scale() < Byte.MIN_VALUE) {
+            throw new IllegalArgumentException("Monto fuera del rango del formato binario: " + value);
+        }
+        buffer.put((byte) value.scale()).putLong(unscaled.longValue());
+    }
+    
+    static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = buffer.get();
+        return BigDecimal.valueOf(buffer.getLong(), scale);
+    }
+    
+    // Microsegundos desde epoch en UTC; el offset original no se conserva
+    static void putMicros(ByteBuffer buffer, OffsetDateTime timestamp) {
+        Instant instant = timestamp.toInstant();
+        buffer.putLong(Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000));
+    }
+    
+    static OffsetDateTime getMicros(ByteBuffer buffer) {
+        return Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+    }
+    
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    static int stringSize(byte[] utf8) {
+        return varIntSize(utf8.length) + utf8.length;
+    }
+    
+    static void putString(ByteBuffer buffer, byte[] utf8) {
+        putVarInt(buffer, utf8.length);
+        buffer.put(utf8);
+    }
+    
+    static String getString(ByteBuffer buffer) {
+        int length = getVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Evento binario truncado");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+    
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Longitud inválida en evento binario");
+    }
+}
@@ -0,0 +1,11 @@
+package com.yape.challenge.shared.codec;
+
+
+public interface EventCodec<T> {
+    
+    byte[] encode(T event);
+    
+    T decode(byte[] data);
+    
+    Class<T> eventType();
+}
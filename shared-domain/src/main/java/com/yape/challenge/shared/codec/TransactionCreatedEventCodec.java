@@ -0,0 +1,141 @@
+package com.yape.challenge.shared.codec;
+
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static com.yape.challenge.shared.codec.BinaryFormat.*;
+
+
+public final class TransactionCreatedEventCodec implements EventCodec<TransactionCreatedEvent> {
+    
+    public static final TransactionCreatedEventCodec INSTANCE = new TransactionCreatedEventCodec();
+    
+    static final byte SCHEMA_ID = 1;
+    static final byte VERSION = 1;
+    
+    private static final int TRANSACTION_ID = 1;
+    private static final int DEBIT_ACCOUNT = 1 << 1;
+    private static final int CREDIT_ACCOUNT = 1 << 2;
+    private static final int TRANSFER_TYPE = 1 << 3;
+    private static final int VALUE = 1 << 4;
+    private static final int CREATED_AT = 1 << 5;
+    private static final int EVENT_ID = 1 << 6;
+    private static final int EVENT_TIMESTAMP = 1 << 7;
+    
+    private TransactionCreatedEventCodec() {
+    }
+    
+    @Override
+    public byte[] encode(TransactionCreatedEvent event) {
+        int presence = 0;
+        int size = 0;
+        if (event.getTransactionExternalId() != null) {
+            presence |= TRANSACTION_ID;
+            size += UUID_SIZE;
+        }
+        if (event.getAccountExternalIdDebit() != null) {
+            presence |= DEBIT_ACCOUNT;
+            size += UUID_SIZE;
+        }
+        if (event.getAccountExternalIdCredit() != null) {
+            presence |= CREDIT_ACCOUNT;
+            size += UUID_SIZE;
+        }
+        if (event.getTransferTypeId() != null) {
+            presence |= TRANSFER_TYPE;
+            size += Integer.BYTES;
+        }
+        if (event.getValue() != null) {
+            presence |= VALUE;
+            size += DECIMAL_SIZE;
+        }
+        if (event.getCreatedAt() != null) {
+            presence |= CREATED_AT;
+            size += MICROS_SIZE;
+        }
+        byte[] eventId = null;
+        if (event.getEventId() != null) {
+            presence |= EVENT_ID;
+            eventId = utf8(event.getEventId());
+            size += stringSize(eventId);
+        }
+        if (event.getEventTimestamp() != null) {
+            presence |= EVENT_TIMESTAMP;
+            size += MICROS_SIZE;
+        }
+        
+        // Tamaño exacto calculado antes: una sola asignación por evento
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize(presence) + size);
+        putHeader(buffer, SCHEMA_ID, VERSION, presence);
+        if ((presence & TRANSACTION_ID) != 0) {
+            putUuid(buffer, event.getTransactionExternalId());
+        }
+        if ((presence & DEBIT_ACCOUNT) != 0) {
+            putUuid(buffer, event.getAccountExternalIdDebit());
+        }
+        if ((presence & CREDIT_ACCOUNT) != 0) {
+            putUuid(buffer, event.getAccountExternalIdCredit());
+        }
+        if ((presence & TRANSFER_TYPE) != 0) {
+            buffer.putInt(event.getTransferTypeId());
+        }
+        if ((presence & VALUE) != 0) {
+            putDecimal(buffer, event.getValue());
+        }
+        if ((presence & CREATED_AT) != 0) {
+            putMicros(buffer, event.getCreatedAt());
+        }
+        if ((presence & EVENT_ID) != 0) {
+            putString(buffer, eventId);
+        }
+        if ((presence & EVENT_TIMESTAMP) != 0) {
+            putMicros(buffer, event.getEventTimestamp());
+        }
+        return buffer.array();
+    }
+    
+    @Override
+    public TransactionCreatedEvent decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            readVersion(buffer, SCHEMA_ID);
+            int presence = readPresence(buffer);
+            
+            TransactionCreatedEvent event = new TransactionCreatedEvent();
+            if ((presence & TRANSACTION_ID) != 0) {
+                event.setTransactionExternalId(getUuid(buffer));
+            }
+            if ((presence & DEBIT_ACCOUNT) != 0) {
+                event.setAccountExternalIdDebit(getUuid(buffer));
+            }
+            if ((presence & CREDIT_ACCOUNT) != 0) {
+                event.setAccountExternalIdCredit(getUuid(buffer));
+            }
+            if ((presence & TRANSFER_TYPE) != 0) {
+                event.setTransferTypeId(buffer.getInt());
+            }
+            if ((presence & VALUE) != 0) {
+                event.setValue(getDecimal(buffer));
+            }
+            if ((presence & CREATED_AT) != 0) {
+                event.setCreatedAt(getMicros(buffer));
+            }
+            if ((presence & EVENT_ID) != 0) {
+                event.setEventId(getString(buffer));
+            }
+            if ((presence & EVENT_TIMESTAMP) != 0) {
+                event.setEventTimestamp(getMicros(buffer));
+            }
+            return event;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Evento binario truncado", ex);
+        }
+    }
+    
+    @Override
+    public Class<TransactionCreatedEvent> eventType() {
+        return TransactionCreatedEvent.class;
+    }
+}
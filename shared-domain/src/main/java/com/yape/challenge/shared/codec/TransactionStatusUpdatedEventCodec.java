@@ -0,0 +1,164 @@
+package com.yape.challenge.shared.codec;
+
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static com.yape.challenge.shared.codec.BinaryFormat.*;
+
+
+public final class TransactionStatusUpdatedEventCodec implements EventCodec<TransactionStatusUpdatedEvent> {
+    
+    public static final TransactionStatusUpdatedEventCodec INSTANCE = new TransactionStatusUpdatedEventCodec();
+    
+    static final byte SCHEMA_ID = 2;
+    static final byte VERSION = 3;
+    
+    private static final int TRANSACTION_ID = 1;
+    private static final int STATUS = 1 << 1;
+    private static final int REASON = 1 << 2;
+    private static final int EVENT_ID = 1 << 3;
+    private static final int EVENT_TIMESTAMP = 1 << 4;
+    // Versión 2
+    private static final int TRANSACTION_CREATED_AT = 1 << 5;
+    // Versión 3
+    private static final int ACCOUNT_DEBIT = 1 << 6;
+    private static final int ACCOUNT_CREDIT = 1 << 7;
+    
+    private TransactionStatusUpdatedEventCodec() {
+    }
+    
+    @Override
+    public byte[] encode(TransactionStatusUpdatedEvent event) {
+        int presence = 0;
+        int size = 0;
+        if (event.getTransactionExternalId() != null) {
+            presence |= TRANSACTION_ID;
+            size += UUID_SIZE;
+        }
+        if (event.getStatus() != null) {
+            presence |= STATUS;
+            size += 1;
+        }
+        byte[] reason = null;
+        if (event.getReason() != null) {
+            presence |= REASON;
+            reason = utf8(event.getReason());
+            size += stringSize(reason);
+        }
+        byte[] eventId = null;
+        if (event.getEventId() != null) {
+            presence |= EVENT_ID;
+            eventId = utf8(event.getEventId());
+            size += stringSize(eventId);
+        }
+        if (event.getEventTimestamp() != null) {
+            presence |= EVENT_TIMESTAMP;
+            size += MICROS_SIZE;
+        }
+        if (event.getTransactionCreatedAt() != null) {
+            presence |= TRANSACTION_CREATED_AT;
+            size += MICROS_SIZE;
+        }
+        if (event.getAccountExternalIdDebit() != null) {
+            presence |= ACCOUNT_DEBIT;
+            size += UUID_SIZE;
+        }
+        if (event.getAccountExternalIdCredit() != null) {
+            presence |= ACCOUNT_CREDIT;
+            size += UUID_SIZE;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize(presence) + size);
+        putHeader(buffer, SCHEMA_ID, VERSION, presence);
+        if ((presence & TRANSACTION_ID) != 0) {
+            putUuid(buffer, event.getTransactionExternalId());
+        }
+        if ((presence & STATUS) != 0) {
+            buffer.put(toCode(event.getStatus()));
+        }
+        if ((presence & REASON) != 0) {
+            putString(buffer, reason);
+        }
+        if ((presence & EVENT_ID) != 0) {
+            putString(buffer, eventId);
+        }
+        if ((presence & EVENT_TIMESTAMP) != 0) {
+            putMicros(buffer, event.getEventTimestamp());
+        }
+        if ((presence & TRANSACTION_CREATED_AT) != 0) {
+            putMicros(buffer, event.getTransactionCreatedAt());
+        }
+        if ((presence & ACCOUNT_DEBIT) != 0) {
+            putUuid(buffer, event.getAccountExternalIdDebit());
+        }
+        if ((presence & ACCOUNT_CREDIT) != 0) {
+            putUuid(buffer, event.getAccountExternalIdCredit());
+        }
+        return buffer.array();
+    }
+    
+    @Override
+    public TransactionStatusUpdatedEvent decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            readVersion(buffer, SCHEMA_ID);
+            // Solo se usan los bits conocidos: los de versiones más nuevas y sus bytes van después y se ignoran
+            int presence = readPresence(buffer);
+            
+            TransactionStatusUpdatedEvent event = new TransactionStatusUpdatedEvent();
+            if ((presence & TRANSACTION_ID) != 0) {
+                event.setTransactionExternalId(getUuid(buffer));
+            }
+            if ((presence & STATUS) != 0) {
+                event.setStatus(fromCode(buffer.get()));
+            }
+            if ((presence & REASON) != 0) {
+                event.setReason(getString(buffer));
+            }
+            if ((presence & EVENT_ID) != 0) {
+                event.setEventId(getString(buffer));
+            }
+            if ((presence & EVENT_TIMESTAMP) != 0) {
+                event.setEventTimestamp(getMicros(buffer));
+            }
+            // Los eventos de versión 1 nunca traen este bit
+            if ((presence & TRANSACTION_CREATED_AT) != 0) {
+                event.setTransactionCreatedAt(getMicros(buffer));
+            }
+            if ((presence & ACCOUNT_DEBIT) != 0) {
+                event.setAccountExternalIdDebit(getUuid(buffer));
+            }
+            if ((presence & ACCOUNT_CREDIT) != 0) {
+                event.setAccountExternalIdCredit(getUuid(buffer));
+            }
+            return event;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Evento binario truncado", ex);
+        }
+    }
+    
+    @Override
+    public Class<TransactionStatusUpdatedEvent> eventType() {
+        return TransactionStatusUpdatedEvent.class;
+    }
+    
+    // Códigos explícitos: reordenar el enum no cambia el formato
+    private static byte toCode(TransactionStatusUpdatedEvent.TransactionStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case APPROVED -> 1;
+            case REJECTED -> 2;
+        };
+    }
+    
+    private static TransactionStatusUpdatedEvent.TransactionStatus fromCode(byte code) {
+        return switch (code) {
+            case 0 -> TransactionStatusUpdatedEvent.TransactionStatus.PENDING;
+            case 1 -> TransactionStatusUpdatedEvent.TransactionStatus.APPROVED;
+            case 2 -> TransactionStatusUpdatedEvent.TransactionStatus.REJECTED;
+            default -> throw new IllegalArgumentException("Código de estado desconocido: " + code);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.yape.challenge.shared.concurrent;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+
+// Ejecutores de hilos virtuales para lo que Spring Boot no configura solo con spring.threads.virtual.enabled
+// (factories de listeners propias, executors de la aplicación), compartidos por ambos servicios.
+// El bytecode sigue en Java 17
+public final class VirtualThreadExecutors {
+    
+    private VirtualThreadExecutors() {
+    }
+    
+    public static SimpleAsyncTaskExecutor executor(String threadNamePrefix) {
+        // Boot ignora la propiedad en silencio por debajo de Java 21; aquí se prefiere fallar al arrancar
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requiere Java 21 o superior, versión actual: "
+                + Runtime.version());
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -20,6 +20,14 @@ public class TransactionStatusUpdatedEvent {
     private TransactionStatus status;
     private String reason;
     
+    // Se copia del evento de creación para medir el tiempo de creación a decisión.
+    // Sin @JsonFormat: conserva la fracción de segundo
+    private OffsetDateTime transactionCreatedAt;
+    
+    // Se copian del evento de creación para entregar el cambio a los suscriptores de cada cuenta
+    private UUID accountExternalIdDebit;
+    private UUID accountExternalIdCredit;
+    
     private String eventId;
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
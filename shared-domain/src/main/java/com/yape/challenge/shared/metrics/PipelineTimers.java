@@ -0,0 +1,43 @@
+package com.yape.challenge.shared.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+
+// Timers del pipeline compartidos por transaction-service y anti-fraude: cada servicio registra sus tramos
+// con el mismo nombre y configuración, así Prometheus los agrega en una sola métrica
+public final class PipelineTimers {
+    
+    public static final String STAGE_TIMER = "yape.pipeline.stage";
+    
+    private PipelineTimers() {
+    }
+    
+    public static Timer stage(MeterRegistry meterRegistry, String stage) {
+        return histogram(STAGE_TIMER, "Duración de cada tramo del pipeline de transacciones")
+            .tag("stage", stage)
+            .register(meterRegistry);
+    }
+    
+    // Con histograma publicado para poder calcular percentiles agregados en Prometheus
+    public static Timer.Builder histogram(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(Duration.ofMinutes(5));
+    }
+    
+    // Para tramos que empiezan en otro proceso o en la base de datos: reloj de pared, los desfases negativos se descartan
+    public static void recordSince(Timer timer, OffsetDateTime start) {
+        if (start == null) {
+            return;
+        }
+        Duration elapsed = Duration.between(start, OffsetDateTime.now());
+        if (!elapsed.isNegative()) {
+            timer.record(elapsed);
+        }
+    }
+}
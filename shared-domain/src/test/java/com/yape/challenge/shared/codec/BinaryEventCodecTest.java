@@ -0,0 +1,181 @@
+package com.yape.challenge.shared.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Pruebas del codec binario de eventos")
+class BinaryEventCodecTest {
+
+    private final BinaryEventSerializer<TransactionCreatedEvent> createdSerializer =
+        new BinaryEventSerializer<>(TransactionCreatedEventCodec.INSTANCE);
+    private final BinaryEventDeserializer<TransactionCreatedEvent> createdDeserializer =
+        new BinaryEventDeserializer<>(TransactionCreatedEventCodec.INSTANCE);
+
+    @Test
+    @DisplayName("Debe reconstruir el evento de creación con un tamaño menor que JSON")
+    void shouldRoundTripCreatedEventSmallerThanJson() throws Exception {
+
+        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(new BigDecimal("120.50"))
+            .createdAt(OffsetDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000, ZoneOffset.UTC))
+            .eventId("evt-1")
+            .eventTimestamp(OffsetDateTime.of(2024, 1, 15, 10, 30, 1, 0, ZoneOffset.UTC))
+            .build();
+
+
+        byte[] binary = createdSerializer.serialize("transaction.created", event);
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(event);
+
+
+        assertThat(createdDeserializer.deserialize("transaction.created", binary)).isEqualTo(event);
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    @DisplayName("Debe omitir los campos nulos y conservar el estado")
+    void shouldRoundTripStatusEventWithNullFields() {
+
+        TransactionStatusUpdatedEvent event = TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED)
+            .build();
+
+
+        byte[] binary = TransactionStatusUpdatedEventCodec.INSTANCE.encode(event);
+
+
+        assertThat(binary).hasSize(BinaryFormat.HEADER_SIZE + BinaryFormat.UUID_SIZE + 1);
+        assertThat(TransactionStatusUpdatedEventCodec.INSTANCE.decode(binary)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Debe conservar las cuentas del evento de estado (versión 3)")
+    void shouldRoundTripStatusEventAccounts() {
+
+        TransactionStatusUpdatedEvent event = TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED)
+            .transactionCreatedAt(OffsetDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000, ZoneOffset.UTC))
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .build();
+
+
+        byte[] binary = TransactionStatusUpdatedEventCodec.INSTANCE.encode(event);
+
+
+        assertThat(binary[2]).isEqualTo((byte) 3);
+        assertThat(TransactionStatusUpdatedEventCodec.INSTANCE.decode(binary)).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Debe leer registros JSON antiguos durante la migración")
+    void shouldFallBackToJsonForLegacyRecords() {
+
+        UUID transactionId = UUID.randomUUID();
+        String json = "{\"transactionExternalId\":\"" + transactionId + "\",\"value\":500,"
+            + "\"createdAt\":\"2024-01-15T10:30:00Z\",\"campoNuevo\":true}";
+
+
+        TransactionCreatedEvent event = createdDeserializer.deserialize("transaction.created", json.getBytes());
+
+
+        assertThat(event.getTransactionExternalId()).isEqualTo(transactionId);
+        assertThat(event.getValue()).isEqualByComparingTo("500");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar eventos de otro esquema")
+    void shouldRejectForeignSchema() {
+
+        byte[] statusEvent = TransactionStatusUpdatedEventCodec.INSTANCE.encode(TransactionStatusUpdatedEvent.builder()
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED)
+            .build());
+
+
+        assertThatThrownBy(() -> createdDeserializer.deserialize("transaction.created", statusEvent))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    @DisplayName("Debe leer eventos de estado de la versión 1 del esquema")
+    void shouldDecodeVersionOneStatusEvents() {
+
+        UUID transactionId = UUID.randomUUID();
+        ByteBuffer versionOne = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + BinaryFormat.UUID_SIZE + 1);
+        BinaryFormat.putHeader(versionOne, TransactionStatusUpdatedEventCodec.SCHEMA_ID, (byte) 1, 0b11);
+        BinaryFormat.putUuid(versionOne, transactionId);
+        versionOne.put((byte) 1);
+
+
+        TransactionStatusUpdatedEvent event = TransactionStatusUpdatedEventCodec.INSTANCE.decode(versionOne.array());
+
+
+        assertThat(event.getTransactionExternalId()).isEqualTo(transactionId);
+        assertThat(event.getStatus()).isEqualTo(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED);
+        assertThat(event.getTransactionCreatedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe leer eventos de estado de una versión más nueva ignorando los campos desconocidos")
+    void shouldDecodeNewerStatusEventsIgnoringUnknownFields() {
+
+        UUID transactionId = UUID.randomUUID();
+        byte[] current = TransactionStatusUpdatedEventCodec.INSTANCE.encode(TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(transactionId)
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED)
+            .build());
+        // Versión futura: mismo contenido más un campo agregado al final
+        ByteBuffer newer = ByteBuffer.allocate(current.length + 8);
+        newer.put(current).putLong(42L);
+        newer.put(2, (byte) (TransactionStatusUpdatedEventCodec.VERSION + 1));
+
+
+        TransactionStatusUpdatedEvent event = TransactionStatusUpdatedEventCodec.INSTANCE.decode(newer.array());
+
+
+        assertThat(event.getTransactionExternalId()).isEqualTo(transactionId);
+        assertThat(event.getStatus()).isEqualTo(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED);
+    }
+
+    @Test
+    @DisplayName("Debe leer eventos con más campos de los que caben en un byte de máscara")
+    void shouldDecodeEventsWithPresenceMaskBeyondOneByte() {
+
+        UUID transactionId = UUID.randomUUID();
+        // Versión futura con un noveno campo: la máscara pasa a ocupar dos bytes
+        int presence = 0b11 | 1 << 8;
+        ByteBuffer newer = ByteBuffer.allocate(BinaryFormat.headerSize(presence) + BinaryFormat.UUID_SIZE + 1 + 8);
+        BinaryFormat.putHeader(newer, TransactionStatusUpdatedEventCodec.SCHEMA_ID,
+            (byte) (TransactionStatusUpdatedEventCodec.VERSION + 1), presence);
+        BinaryFormat.putUuid(newer, transactionId);
+        newer.put((byte) 2).putLong(42L);
+
+
+        TransactionStatusUpdatedEvent event = TransactionStatusUpdatedEventCodec.INSTANCE.decode(newer.array());
+
+
+        assertThat(BinaryFormat.headerSize(presence)).isEqualTo(BinaryFormat.HEADER_SIZE + 1);
+        assertThat(event.getTransactionExternalId()).isEqualTo(transactionId);
+        assertThat(event.getStatus()).isEqualTo(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED);
+        assertThat(event.getAccountExternalIdCredit()).isNull();
+    }
+}
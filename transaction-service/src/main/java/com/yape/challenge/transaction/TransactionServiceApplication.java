@@ -5,12 +5,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
-@SpringBootApplication(scanBasePackages = "com.yape.challenge")
+@SpringBootApplication(scanBasePackages = "com.yape.challenge.transaction")
 @EnableJpaRepositories
 @EnableKafka
 @EnableCaching
+@EnableScheduling
 public class TransactionServiceApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,31 @@
+package com.yape.challenge.transaction.application.dto;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+
+// Transacción aceptada en el journal y aún no persistida en Postgres (modo de escritura "accepted")
+public record AcceptedTransaction(
+    UUID transactionExternalId,
+    String idempotencyKey,
+    UUID accountExternalIdDebit,
+    UUID accountExternalIdCredit,
+    Integer transferTypeId,
+    BigDecimal value,
+    OffsetDateTime acceptedAt
+) {
+
+    public static AcceptedTransaction from(CreateTransactionRequest request) {
+        return new AcceptedTransaction(
+            UUID.randomUUID(),
+            request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank() ? request.getIdempotencyKey() : null,
+            request.getAccountExternalIdDebit(),
+            request.getAccountExternalIdCredit(),
+            request.getTransferTypeId(),
+            request.getValue(),
+            // Con la precisión de Postgres: el evento de estado la devuelve para ubicar la partición
+            OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+}
@@ -0,0 +1,13 @@
+package com.yape.challenge.transaction.application.dto;
+
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+
+import java.time.OffsetDateTime;
+
+
+// Estado decidido por anti-fraude y el created_at que trae el evento: con él el UPDATE solo toca una partición
+public record StatusUpdate(
+    TransactionStatusCode status,
+    OffsetDateTime transactionCreatedAt
+) {
+}
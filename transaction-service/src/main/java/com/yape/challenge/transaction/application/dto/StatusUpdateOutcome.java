@@ -0,0 +1,12 @@
+package com.yape.challenge.transaction.application.dto;
+
+
+public enum StatusUpdateOutcome {
+    UPDATED,
+    // Reentrega de un evento ya aplicado: la transacción ya tiene el estado destino
+    DUPLICATE,
+    NOT_FOUND,
+    // La transacción ya está en un estado final distinto al solicitado
+    CONFLICT,
+    INVALID
+}
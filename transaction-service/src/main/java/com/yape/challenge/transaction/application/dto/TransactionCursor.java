@@ -0,0 +1,34 @@
+package com.yape.challenge.transaction.application.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+
+// Posición opaca para paginación keyset: (createdAt, id) de la última fila devuelta
+public record TransactionCursor(OffsetDateTime createdAt, long id) {
+    
+    private static final String SEPARATOR = ":";
+    
+    public String encode() {
+        long epochMicros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt.toInstant());
+        String raw = epochMicros + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            long epochMicros = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            OffsetDateTime createdAt = Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+            return new TransactionCursor(createdAt, id);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+}
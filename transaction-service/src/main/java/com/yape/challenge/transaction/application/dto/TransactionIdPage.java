@@ -0,0 +1,20 @@
+package com.yape.challenge.transaction.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionIdPage {
+    
+    private List<UUID> transactionIds;
+    private long totalElements;
+}
@@ -20,7 +20,8 @@ public class TransactionResponse {
     private UUID transactionId;
     private UUID accountExternalIdDebit;
     private UUID accountExternalIdCredit;
-    private TransactionTypeDto transactionType;
+    // El campo transactionType del esquema se resuelve en lote (@BatchMapping) a partir de este id
+    private Integer transferTypeId;
     private String status;
     private BigDecimal value;
     
@@ -0,0 +1,31 @@
+package com.yape.challenge.transaction.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSlice {
+    
+    private List<Item> items;
+    private boolean hasNext;
+    
+    // Solo se calcula si el cliente lo pide; sin filtro de estado es una estimación
+    private Long totalCount;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String cursor;
+        private TransactionResponse transaction;
+    }
+}
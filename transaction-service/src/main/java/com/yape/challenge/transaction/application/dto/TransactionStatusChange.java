@@ -0,0 +1,49 @@
+package com.yape.challenge.transaction.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatusChange {
+    
+    private UUID transactionId;
+    private UUID accountExternalIdDebit;
+    private UUID accountExternalIdCredit;
+    private String status;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ssXXX")
+    private OffsetDateTime updatedAt;
+    
+    // Se construye tras el commit del nuevo estado, con las cuentas que anti-fraude copia en el evento
+    public static TransactionStatusChange from(TransactionStatusUpdatedEvent event, TransactionStatusCode status) {
+        return TransactionStatusChange.builder()
+            .transactionId(event.getTransactionExternalId())
+            .accountExternalIdDebit(event.getAccountExternalIdDebit())
+            .accountExternalIdCredit(event.getAccountExternalIdCredit())
+            .status(status.getStatusName())
+            .updatedAt(OffsetDateTime.now())
+            .build();
+    }
+    
+    public static TransactionStatusChange from(TransactionResponse transaction) {
+        return TransactionStatusChange.builder()
+            .transactionId(transaction.getTransactionId())
+            .accountExternalIdDebit(transaction.getAccountExternalIdDebit())
+            .accountExternalIdCredit(transaction.getAccountExternalIdCredit())
+            .status(transaction.getStatus())
+            .updatedAt(transaction.getUpdatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,215 @@
+package com.yape.challenge.transaction.application.service;
+
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
+import com.yape.challenge.transaction.application.dto.CreateTransactionRequest;
+import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import com.yape.challenge.transaction.domain.repository.TransactionRepository;
+import com.yape.challenge.transaction.infrastructure.journal.TransactionJournal;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// Modo de escritura "accepted": la transacción se confirma al cliente cuando está en el journal local y
+// JournalWriteBehind la persiste después en Postgres y en el outbox
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.transaction.write-mode", havingValue = "accepted")
+public class AcceptedTransactionService {
+
+    private final TransactionJournal transactionJournal;
+    private final TransactionRepository transactionRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final TransactionMapper transactionMapper;
+
+    @Value("${yape.transaction.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${yape.transaction.journal.append-timeout-ms:5000}")
+    private long appendTimeoutMs;
+
+    @Value("${yape.transaction.journal.max-pending:100000}")
+    private int maxPending;
+
+    // Índice de lo aceptado y aún no persistido: lectura read-through e idempotencia antes del flush
+    private final Map<UUID, AcceptedTransaction> pendingById = new ConcurrentHashMap<>();
+    private final Map<String, AcceptedTransaction> pendingByIdempotencyKey = new ConcurrentHashMap<>();
+    // Cupo de max-pending ocupado o reservado por lotes en curso
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    @PostConstruct
+    public void recoverPending() {
+        transactionJournal.pendingTransactions().forEach(this::index);
+    }
+
+    public TransactionResponse accept(CreateTransactionRequest request) {
+        return acceptAll(List.of(request)).get(0);
+    }
+
+    // El lote se valida y reserva su cupo de pendientes antes de escribir en el journal, y se escribe con
+    // un solo append atómico: un error antes de esa escritura no deja ninguna transacción aceptada
+    public List<TransactionResponse> acceptAll(List<CreateTransactionRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("El lote excede el máximo permitido de " + maxBatchSize + " transacciones");
+        }
+        for (CreateTransactionRequest request : requests) {
+            if (referenceDataRegistry.findTransactionType(request.getTransferTypeId()).isEmpty()) {
+                throw new IllegalArgumentException("ID de tipo de transacción inválido: " + request.getTransferTypeId());
+            }
+        }
+
+        // Contrapresión: si Postgres no drena, el journal no crece sin límite
+        if (!reservePending(requests.size())) {
+            throw new IllegalStateException("Demasiadas transacciones pendientes de persistir, reintente más tarde");
+        }
+
+        List<TransactionResponse> responses = new ArrayList<>(requests.size());
+        List<AcceptedTransaction> toAppend = new ArrayList<>(requests.size());
+        try {
+            for (CreateTransactionRequest request : requests) {
+                AcceptedTransaction accepted = AcceptedTransaction.from(request);
+                String idempotencyKey = accepted.idempotencyKey();
+                if (idempotencyKey != null) {
+                    // Primero se reserva la clave entre las pendientes: lo que ya no está pendiente está confirmado en BD
+                    AcceptedTransaction pending = pendingByIdempotencyKey.putIfAbsent(idempotencyKey, accepted);
+                    if (pending != null) {
+                        log.info("Transacción duplicada detectada con idempotencyKey: {}. Devolviendo transacción aceptada: {}",
+                            idempotencyKey, pending.transactionExternalId());
+                        responses.add(toResponse(pending));
+                        continue;
+                    }
+                    Optional<TransactionResponse> existing;
+                    try {
+                        existing = idempotencyKeyRepository.findById(idempotencyKey)
+                            .flatMap(key -> transactionRepository.findByTransactionExternalId(key.getTransactionExternalId()))
+                            .map(transactionMapper::toResponse);
+                    } catch (RuntimeException ex) {
+                        pendingByIdempotencyKey.remove(idempotencyKey, accepted);
+                        throw ex;
+                    }
+                    if (existing.isPresent()) {
+                        pendingByIdempotencyKey.remove(idempotencyKey, accepted);
+                        log.info("Transacción duplicada detectada con idempotencyKey: {}. Devolviendo transacción existente: {}",
+                            idempotencyKey, existing.get().getTransactionId());
+                        responses.add(existing.get());
+                        continue;
+                    }
+                }
+                toAppend.add(accepted);
+                responses.add(toResponse(accepted));
+            }
+
+            toAppend.forEach(accepted -> pendingById.put(accepted.transactionExternalId(), accepted));
+            appendToJournal(toAppend);
+        } catch (RuntimeException ex) {
+            // Nada del lote llegó al journal: se liberan las claves y el cupo reservados
+            toAppend.forEach(this::unindexReserved);
+            pendingCount.addAndGet(-requests.size());
+            throw ex;
+        }
+        // Duplicados: reservaron cupo pero no ocupan lugar en el journal
+        pendingCount.addAndGet(toAppend.size() - requests.size());
+        log.debug("Aceptadas {} transacciones en el journal", toAppend.size());
+        return responses;
+    }
+
+    // Un solo fsync cubre todo el lote y solo con él confirmado se devuelven los ids. Si falla o no llega a
+    // tiempo el lote se anula en el journal y la solicitud falla: nunca se persiste algo que no se confirmó
+    private void appendToJournal(List<AcceptedTransaction> toAppend) {
+        CompletableFuture<Void> synced = transactionJournal.appendAll(toAppend);
+        try {
+            synced.get(appendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("No se pudo confirmar el lote en el journal, reintente más tarde", ex.getCause());
+        } catch (TimeoutException ex) {
+            discardUnlessDurable(synced, toAppend.size());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            discardUnlessDurable(synced, toAppend.size());
+        }
+    }
+
+    // El fsync pudo completarse justo después del timeout: en ese caso el lote ya es durable y se confirma
+    private void discardUnlessDurable(CompletableFuture<Void> synced, int batchSize) {
+        if (transactionJournal.discard(synced)) {
+            log.error("Lote de {} transacciones descartado del journal sin confirmar el fsync", batchSize);
+            throw new IllegalStateException("No se pudo confirmar el lote en el journal, reintente más tarde");
+        }
+    }
+
+    private boolean reservePending(int count) {
+        while (true) {
+            int current = pendingCount.get();
+            if (current + count > maxPending) {
+                return false;
+            }
+            if (pendingCount.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    public Optional<TransactionResponse> findPending(UUID transactionExternalId) {
+        return Optional.ofNullable(pendingById.get(transactionExternalId)).map(this::toResponse);
+    }
+
+    // Se llama después del commit: hasta entonces las lecturas siguen sirviéndose desde el journal
+    public void markPersisted(List<AcceptedTransaction> transactions) {
+        transactions.forEach(this::unindex);
+    }
+
+    private void index(AcceptedTransaction accepted) {
+        if (pendingById.put(accepted.transactionExternalId(), accepted) == null) {
+            pendingCount.incrementAndGet();
+        }
+        if (accepted.idempotencyKey() != null) {
+            pendingByIdempotencyKey.putIfAbsent(accepted.idempotencyKey(), accepted);
+        }
+    }
+
+    private void unindex(AcceptedTransaction accepted) {
+        if (unindexReserved(accepted)) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    // Quita la transacción de los índices sin devolver cupo: lo libera quien lo reservó
+    private boolean unindexReserved(AcceptedTransaction accepted) {
+        boolean removed = pendingById.remove(accepted.transactionExternalId()) != null;
+        if (accepted.idempotencyKey() != null) {
+            pendingByIdempotencyKey.remove(accepted.idempotencyKey(), accepted);
+        }
+        return removed;
+    }
+
+    private TransactionResponse toResponse(AcceptedTransaction accepted) {
+        return TransactionResponse.builder()
+            .transactionId(accepted.transactionExternalId())
+            .accountExternalIdDebit(accepted.accountExternalIdDebit())
+            .accountExternalIdCredit(accepted.accountExternalIdCredit())
+            .transferTypeId(accepted.transferTypeId())
+            .status(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING).getName())
+            .value(accepted.value())
+            .createdAt(accepted.acceptedAt())
+            .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.yape.challenge.transaction.application.service;
+
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.TransactionStatusRepository;
+import com.yape.challenge.transaction.domain.repository.TransactionTypeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final TransactionTypeRepository transactionTypeRepository;
+    private final TransactionStatusRepository transactionStatusRepository;
+
+    // Tablas pequeñas sembradas por migración que no cambian en tiempo de ejecución
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void refresh() {
+        Map<Integer, TransactionType> typesById = transactionTypeRepository.findAll().stream()
+            .collect(Collectors.toUnmodifiableMap(TransactionType::getId, Function.identity()));
+
+        Map<String, TransactionStatus> statusesByName = transactionStatusRepository.findAll().stream()
+            .collect(Collectors.toUnmodifiableMap(TransactionStatus::getName, Function.identity()));
+        Map<Integer, TransactionStatus> statusesById = statusesByName.values().stream()
+            .collect(Collectors.toUnmodifiableMap(TransactionStatus::getId, Function.identity()));
+
+        Map<TransactionStatusCode, TransactionStatus> statusesByCode = new EnumMap<>(TransactionStatusCode.class);
+        for (TransactionStatusCode code : TransactionStatusCode.values()) {
+            TransactionStatus status = statusesByName.get(code.getStatusName());
+            if (status == null) {
+                throw new IllegalStateException("Estado " + code.getStatusName() + " no encontrado en base de datos");
+            }
+            statusesByCode.put(code, status);
+        }
+
+        // Reemplazo atómico: los lectores ven el registro anterior o el nuevo, nunca uno a medio cargar
+        this.snapshot = new Snapshot(typesById, statusesById, statusesByName, statusesByCode);
+        log.info("Registro de referencia cargado: {} tipos de transacción, {} estados",
+            typesById.size(), statusesByName.size());
+    }
+
+    public Optional<TransactionType> findTransactionType(Integer id) {
+        return Optional.ofNullable(snapshot.typesById().get(id));
+    }
+
+    public TransactionStatus getTransactionStatus(TransactionStatusCode code) {
+        return snapshot.statusesByCode().get(code);
+    }
+
+    public Optional<TransactionStatus> findTransactionStatus(Integer id) {
+        return Optional.ofNullable(snapshot.statusesById().get(id));
+    }
+
+    public Optional<TransactionStatus> findTransactionStatus(String name) {
+        return Optional.ofNullable(snapshot.statusesByName().get(name));
+    }
+
+    public Collection<TransactionType> getTransactionTypes() {
+        return snapshot.typesById().values();
+    }
+
+    public Collection<TransactionStatus> getTransactionStatuses() {
+        return snapshot.statusesByName().values();
+    }
+
+    private record Snapshot(
+        Map<Integer, TransactionType> typesById,
+        Map<Integer, TransactionStatus> statusesById,
+        Map<String, TransactionStatus> statusesByName,
+        Map<TransactionStatusCode, TransactionStatus> statusesByCode
+    ) {
+    }
+}
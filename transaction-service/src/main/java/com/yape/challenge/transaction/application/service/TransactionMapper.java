@@ -2,24 +2,64 @@ package com.yape.challenge.transaction.application.service;
 
 import com.yape.challenge.transaction.application.dto.TransactionResponse;
 import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
+@RequiredArgsConstructor
 public class TransactionMapper {
     
+    private final ReferenceDataRegistry referenceDataRegistry;
+    
+    // Solo se leen los ids de tipo y estado: con asociaciones LAZY el proxy no se inicializa
     public TransactionResponse toResponse(Transaction transaction) {
         return TransactionResponse.builder()
             .transactionId(transaction.getTransactionExternalId())
             .accountExternalIdDebit(transaction.getAccountExternalIdDebit())
             .accountExternalIdCredit(transaction.getAccountExternalIdCredit())
-            .transactionType(TransactionResponse.TransactionTypeDto.builder()
-                .id(transaction.getTransactionType().getId())
-                .name(transaction.getTransactionType().getName())
-                .build())
-            .status(transaction.getTransactionStatus().getName())
+            .transferTypeId(transaction.getTransactionType().getId())
+            .status(statusName(transaction.getTransactionStatus().getId()))
+            .value(transaction.getValue())
+            .createdAt(transaction.getCreatedAt())
+            .updatedAt(transaction.getUpdatedAt())
+            .build();
+    }
+    
+    public TransactionResponse toResponse(TransactionRepository.TransactionView transaction) {
+        return TransactionResponse.builder()
+            .transactionId(transaction.getTransactionExternalId())
+            .accountExternalIdDebit(transaction.getAccountExternalIdDebit())
+            .accountExternalIdCredit(transaction.getAccountExternalIdCredit())
+            .transferTypeId(transaction.getTransferTypeId())
+            .status(statusName(transaction.getStatusId()))
             .value(transaction.getValue())
             .createdAt(transaction.getCreatedAt())
             .updatedAt(transaction.getUpdatedAt())
             .build();
     }
+    
+    // Resuelve el campo transactionType de todo un resultado en una sola pasada, en el mismo orden
+    public List<TransactionResponse.TransactionTypeDto> toTransactionTypes(List<TransactionResponse> transactions) {
+        return transactions.stream()
+            .map(transaction -> {
+                TransactionType transactionType = referenceDataRegistry.findTransactionType(transaction.getTransferTypeId())
+                    .orElseThrow(() -> new IllegalStateException("Tipo de transacción desconocido: " + transaction.getTransferTypeId()));
+                return TransactionResponse.TransactionTypeDto.builder()
+                    .id(transactionType.getId())
+                    .name(transactionType.getName())
+                    .build();
+            })
+            .toList();
+    }
+    
+    private String statusName(Integer statusId) {
+        return referenceDataRegistry.findTransactionStatus(statusId)
+            .map(TransactionStatus::getName)
+            .orElseThrow(() -> new IllegalStateException("Estado de transacción desconocido: " + statusId));
+    }
 }
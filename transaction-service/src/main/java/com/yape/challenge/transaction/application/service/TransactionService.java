@@ -1,27 +1,60 @@
 package com.yape.challenge.transaction.application.service;
 
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
 import com.yape.challenge.transaction.application.dto.CreateTransactionRequest;
+import com.yape.challenge.transaction.application.dto.StatusUpdate;
+import com.yape.challenge.transaction.application.dto.StatusUpdateOutcome;
+import com.yape.challenge.transaction.application.dto.TransactionCursor;
+import com.yape.challenge.transaction.application.dto.TransactionIdPage;
 import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import com.yape.challenge.transaction.application.dto.TransactionSlice;
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
 import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionKey;
+import com.yape.challenge.transaction.domain.model.TransactionDirection;
 import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
 import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import com.yape.challenge.transaction.domain.repository.TransactionKeyRepository;
 import com.yape.challenge.transaction.domain.repository.TransactionRepository;
-import com.yape.challenge.transaction.domain.repository.TransactionStatusRepository;
-import com.yape.challenge.transaction.domain.repository.TransactionTypeRepository;
-import com.yape.challenge.transaction.infrastructure.kafka.TransactionEventProducer;
+import com.yape.challenge.transaction.infrastructure.cache.StatusListingGenerations;
+import com.yape.challenge.transaction.infrastructure.cache.TwoLevelCache;
+import com.yape.challenge.transaction.infrastructure.datasource.ReadYourWritesGuard;
+import com.yape.challenge.transaction.infrastructure.idempotency.IdempotencyGuard;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.outbox.OutboxEventWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -29,39 +62,82 @@ import java.util.UUID;
 @Slf4j
 public class TransactionService {
     
+    static final String TRANSACTIONS_CACHE = "transactions";
+    static final String TRANSACTION_PAGES_CACHE = "transaction-pages";
+    
+    // Cotas por defecto del historial por cuenta: la consulta es siempre la misma, con o sin rango
+    private static final OffsetDateTime UNBOUNDED_FROM = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime UNBOUNDED_TO = OffsetDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    
     private final TransactionRepository transactionRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
-    private final TransactionStatusRepository transactionStatusRepository;
-    private final TransactionEventProducer eventProducer;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionKeyRepository transactionKeyRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final OutboxEventWriter outboxEventWriter;
     private final TransactionMapper transactionMapper;
+    private final CacheManager cacheManager;
+    private final StatusListingGenerations statusListingGenerations;
+    private final PipelineMetrics pipelineMetrics;
+    private final IdempotencyGuard idempotencyGuard;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${yape.transaction.batch.max-size:500}")
+    private int maxBatchSize;
+    
+    @Value("${yape.transaction.page.max-size:100}")
+    private int maxPageSize;
+    
+    // La estimación lee las estadísticas de las particiones en el catálogo de Postgres: sin particiones
+    // (por ejemplo H2 en la prueba de carga) esa consulta no existe y se cuenta directamente
+    @Value("${yape.transaction.partitions.enabled:true}")
+    private boolean partitionedTable;
     
    
-    @Transactional
+    // Sin @Transactional: si el INSERT viola la unicidad de idempotencyKey la transacción queda abortada,
+    // y la transacción original se busca después del rollback
     public TransactionResponse createTransaction(CreateTransactionRequest request) {
         log.info("Creando transacción con monto: {}", request.getValue());
         
         // IDEMPOTENCIA: Verificar si ya existe una transacción con este idempotencyKey
-        if (request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()) {
-            Optional<Transaction> existingTransaction = transactionRepository.findByIdempotencyKey(request.getIdempotencyKey());
+        String idempotencyKey = request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank()
+            ? request.getIdempotencyKey() : null;
+        if (idempotencyKey != null) {
+            Optional<TransactionResponse> existingTransaction = findByIdempotencyKey(idempotencyKey);
             if (existingTransaction.isPresent()) {
                 log.info("Transacción duplicada detectada con idempotencyKey: {}. Devolviendo transacción existente: {}", 
-                    request.getIdempotencyKey(), existingTransaction.get().getTransactionExternalId());
-                return transactionMapper.toResponse(existingTransaction.get());
+                    idempotencyKey, existingTransaction.get().getTransactionId());
+                return existingTransaction.get();
             }
         }
         
-        // Validar y obtener tipo de transacción
-        TransactionType transactionType = transactionTypeRepository.findById(request.getTransferTypeId())
+        try {
+            return transactionTemplate.execute(status -> insertTransaction(request, idempotencyKey));
+        } catch (DataIntegrityViolationException ex) {
+            // La clave no estaba en el filtro (otra instancia, o anterior a la precarga) o llegó otra petición
+            // con la misma clave entre la verificación y el INSERT: la PK de idempotency_keys decide
+            Optional<TransactionResponse> original = idempotencyKey == null ? Optional.empty()
+                : findOriginalTransaction(idempotencyKey);
+            if (original.isEmpty()) {
+                throw ex;
+            }
+            log.info("Transacción duplicada detectada al insertar con idempotencyKey: {}. Devolviendo transacción existente: {}",
+                idempotencyKey, original.get().getTransactionId());
+            return original.get();
+        }
+    }
+    
+    private TransactionResponse insertTransaction(CreateTransactionRequest request, String idempotencyKey) {
+        // Validar y obtener tipo de transacción (registro en memoria, sin consulta a BD)
+        TransactionType transactionType = referenceDataRegistry.findTransactionType(request.getTransferTypeId())
             .orElseThrow(() -> new IllegalArgumentException("ID de tipo de transacción inválido: " + request.getTransferTypeId()));
         
         // Obtener estado pendiente
-        TransactionStatus pendingStatus = transactionStatusRepository.findByName("pending")
-            .orElseThrow(() -> new IllegalStateException("Estado pendiente no encontrado en base de datos"));
+        TransactionStatus pendingStatus = referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING);
         
         // Crear entidad de transacción
         Transaction transaction = Transaction.builder()
             .transactionExternalId(UUID.randomUUID())
-            .idempotencyKey(request.getIdempotencyKey())
             .accountExternalIdDebit(request.getAccountExternalIdDebit())
             .accountExternalIdCredit(request.getAccountExternalIdCredit())
             .transactionType(transactionType)
@@ -69,34 +145,247 @@ public class TransactionService {
             .value(request.getValue())
             .build();
         
-        // Guardar transacción
+        // Guardar transacción (flush para que createdAt esté poblado antes de construir el evento)
+        long insertStart = System.nanoTime();
         transaction = transactionRepository.save(transaction);
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .transactionExternalId(transaction.getTransactionExternalId())
+                .build());
+        }
+        transactionRepository.flush();
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.DB_INSERT, insertStart);
         log.info("Transacción creada con ID: {}", transaction.getTransactionExternalId());
         
-        // Emitir evento a Kafka para validación antifraude
-        TransactionCreatedEvent event = TransactionCreatedEvent.builder()
-            .transactionExternalId(transaction.getTransactionExternalId())
-            .accountExternalIdDebit(transaction.getAccountExternalIdDebit())
-            .accountExternalIdCredit(transaction.getAccountExternalIdCredit())
-            .transferTypeId(transaction.getTransactionType().getId())
-            .value(transaction.getValue())
-            .createdAt(transaction.getCreatedAt())
-            .eventId(UUID.randomUUID().toString())
-            .eventTimestamp(OffsetDateTime.now())
-            .build();
-        
-        eventProducer.sendTransactionCreatedEvent(event);
+        // Registrar evento en el outbox dentro de la misma transacción; el relay lo publica en Kafka
+        outboxEventWriter.append(toCreatedEvent(transaction));
+        statusListingGenerations.bumpAfterCommit(TransactionStatusCode.PENDING);
+        if (idempotencyKey != null) {
+            idempotencyGuard.recordAfterCommit(Map.of(idempotencyKey, transaction.getTransactionExternalId()));
+        }
+        readYourWritesGuard.recordAfterCommit(List.of(transaction.getTransactionExternalId()));
         
         return transactionMapper.toResponse(transaction);
     }
     
+    // Una clave reciente se responde desde la caché por transacción; la BD solo se consulta si el filtro
+    // de Bloom no descarta la clave
+    private Optional<TransactionResponse> findByIdempotencyKey(String idempotencyKey) {
+        Optional<UUID> recentTransactionId = idempotencyGuard.recentTransactionId(idempotencyKey);
+        if (recentTransactionId.isPresent()) {
+            List<TransactionResponse> recent = hydrate(List.of(recentTransactionId.get()));
+            if (!recent.isEmpty()) {
+                return Optional.of(recent.get(0));
+            }
+        }
+        if (!idempotencyGuard.mightContain(idempotencyKey)) {
+            return Optional.empty();
+        }
+        return findOriginalTransaction(idempotencyKey);
+    }
+    
+    // Solo las claves dentro de la retención siguen en idempotency_keys: pasada la ventana, la misma clave
+    // crea una transacción nueva
+    private Optional<TransactionResponse> findOriginalTransaction(String idempotencyKey) {
+        Optional<IdempotencyKey> key = idempotencyKeyRepository.findById(idempotencyKey);
+        key.ifPresent(found -> idempotencyGuard.record(idempotencyKey, found.getTransactionExternalId(),
+            found.getCreatedAt()));
+        return key.flatMap(found -> hydrate(List.of(found.getTransactionExternalId())).stream().findFirst());
+    }
+    
+    private Map<String, Transaction> findTransactionsByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        Map<UUID, String> keysByTransactionId = idempotencyKeyRepository.findAllById(idempotencyKeys).stream()
+            .collect(Collectors.toMap(IdempotencyKey::getTransactionExternalId, IdempotencyKey::getIdempotencyKey));
+        Map<String, Transaction> transactionsByKey = new HashMap<>();
+        if (!keysByTransactionId.isEmpty()) {
+            transactionRepository.findAllByTransactionExternalIdIn(keysByTransactionId.keySet())
+                .forEach(existing -> transactionsByKey.put(keysByTransactionId.get(existing.getTransactionExternalId()), existing));
+        }
+        return transactionsByKey;
+    }
    
+    public List<TransactionResponse> createTransactions(List<CreateTransactionRequest> requests) {
+        log.info("Creando lote de {} transacciones", requests.size());
+        
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("El lote excede el máximo permitido de " + maxBatchSize + " transacciones");
+        }
+        
+        try {
+            return transactionTemplate.execute(status -> insertTransactions(requests, false));
+        } catch (DataIntegrityViolationException ex) {
+            if (requests.stream().allMatch(request -> request.getIdempotencyKey() == null || request.getIdempotencyKey().isBlank())) {
+                throw ex;
+            }
+            // Alguna clave del lote ya estaba en BD sin que el filtro la conociera: se repite consultando todas
+            log.info("Lote con idempotencyKey ya persistida fuera del filtro; se reintenta resolviendo todas las claves en BD");
+            return transactionTemplate.execute(status -> insertTransactions(requests, true));
+        }
+    }
+    
+    private List<TransactionResponse> insertTransactions(List<CreateTransactionRequest> requests, boolean lookUpAllKeys) {
+        // IDEMPOTENCIA: Resolver en una sola consulta las claves del lote que el filtro no descarta
+        Set<String> idempotencyKeys = requests.stream()
+            .map(CreateTransactionRequest::getIdempotencyKey)
+            .filter(key -> key != null && !key.isBlank())
+            .filter(key -> lookUpAllKeys || idempotencyGuard.mightContain(key))
+            .collect(Collectors.toSet());
+        
+        Map<String, Transaction> transactionsByKey = idempotencyKeys.isEmpty() ? new HashMap<>()
+            : findTransactionsByIdempotencyKeys(idempotencyKeys);
+        
+        TransactionStatus pendingStatus = referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING);
+        
+        List<Transaction> transactions = new ArrayList<>(requests.size());
+        List<Transaction> newTransactions = new ArrayList<>();
+        List<IdempotencyKey> newKeys = new ArrayList<>();
+        for (CreateTransactionRequest request : requests) {
+            String idempotencyKey = request.getIdempotencyKey();
+            boolean hasKey = idempotencyKey != null && !idempotencyKey.isBlank();
+            
+            // Claves repetidas (en BD o dentro del mismo lote) devuelven la misma transacción
+            if (hasKey && transactionsByKey.containsKey(idempotencyKey)) {
+                transactions.add(transactionsByKey.get(idempotencyKey));
+                continue;
+            }
+            
+            TransactionType transactionType = referenceDataRegistry.findTransactionType(request.getTransferTypeId())
+                .orElseThrow(() -> new IllegalArgumentException("ID de tipo de transacción inválido: " + request.getTransferTypeId()));
+            
+            Transaction transaction = Transaction.builder()
+                .transactionExternalId(UUID.randomUUID())
+                .accountExternalIdDebit(request.getAccountExternalIdDebit())
+                .accountExternalIdCredit(request.getAccountExternalIdCredit())
+                .transactionType(transactionType)
+                .transactionStatus(pendingStatus)
+                .value(request.getValue())
+                .build();
+            
+            if (hasKey) {
+                transactionsByKey.put(idempotencyKey, transaction);
+                newKeys.add(IdempotencyKey.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .transactionExternalId(transaction.getTransactionExternalId())
+                    .build());
+            }
+            newTransactions.add(transaction);
+            transactions.add(transaction);
+        }
+        
+        // Guardar todas las transacciones nuevas en un solo lote JDBC
+        long insertStart = System.nanoTime();
+        List<Transaction> savedTransactions = transactionRepository.saveAll(newTransactions);
+        idempotencyKeyRepository.saveAll(newKeys);
+        transactionRepository.flush();
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.DB_INSERT, insertStart);
+        log.info("Lote creado: {} transacciones nuevas, {} duplicadas", 
+            savedTransactions.size(), requests.size() - savedTransactions.size());
+        
+        // Registrar todos los eventos del lote en el outbox con un solo lote JDBC
+        if (!savedTransactions.isEmpty()) {
+            outboxEventWriter.appendAll(savedTransactions.stream()
+                .map(this::toCreatedEvent)
+                .toList());
+            statusListingGenerations.bumpAfterCommit(TransactionStatusCode.PENDING);
+            idempotencyGuard.recordAfterCommit(newKeys.stream()
+                .collect(Collectors.toMap(IdempotencyKey::getIdempotencyKey, IdempotencyKey::getTransactionExternalId)));
+            readYourWritesGuard.recordAfterCommit(savedTransactions.stream()
+                .map(Transaction::getTransactionExternalId)
+                .toList());
+        }
+        
+        return transactions.stream()
+            .map(transactionMapper::toResponse)
+            .toList();
+    }
+    
+    // Escritura diferida del modo "accepted". Un lote puede estar ya en BD si el proceso cayó entre el
+    // commit y el checkpoint del journal: las transacciones existentes se omiten
+    @Transactional
+    public int persistAccepted(List<AcceptedTransaction> acceptedTransactions) {
+        Set<UUID> existingIds = transactionRepository.findStatusesByTransactionExternalIdIn(acceptedTransactions.stream()
+                .map(AcceptedTransaction::transactionExternalId)
+                .toList())
+            .stream()
+            .map(TransactionRepository.StatusView::getTransactionExternalId)
+            .collect(Collectors.toSet());
+        
+        Set<String> idempotencyKeys = acceptedTransactions.stream()
+            .map(AcceptedTransaction::idempotencyKey)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<String> existingKeys = idempotencyKeys.isEmpty() ? Set.of() : idempotencyKeyRepository
+            .findAllById(idempotencyKeys).stream()
+            .map(IdempotencyKey::getIdempotencyKey)
+            .collect(Collectors.toSet());
+        
+        TransactionStatus pendingStatus = referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING);
+        List<Transaction> newTransactions = new ArrayList<>(acceptedTransactions.size());
+        List<IdempotencyKey> newKeys = new ArrayList<>();
+        for (AcceptedTransaction accepted : acceptedTransactions) {
+            if (existingIds.contains(accepted.transactionExternalId())) {
+                continue;
+            }
+            if (accepted.idempotencyKey() != null && existingKeys.contains(accepted.idempotencyKey())) {
+                log.warn("Transacción aceptada {} descartada: idempotencyKey {} ya persistida por otra transacción",
+                    accepted.transactionExternalId(), accepted.idempotencyKey());
+                continue;
+            }
+            Optional<TransactionType> transactionType = referenceDataRegistry.findTransactionType(accepted.transferTypeId());
+            if (transactionType.isEmpty()) {
+                log.error("Transacción aceptada {} descartada: tipo de transacción {} ya no existe",
+                    accepted.transactionExternalId(), accepted.transferTypeId());
+                continue;
+            }
+            
+            if (accepted.idempotencyKey() != null) {
+                newKeys.add(IdempotencyKey.builder()
+                    .idempotencyKey(accepted.idempotencyKey())
+                    .transactionExternalId(accepted.transactionExternalId())
+                    .build());
+            }
+            newTransactions.add(Transaction.builder()
+                .transactionExternalId(accepted.transactionExternalId())
+                .accountExternalIdDebit(accepted.accountExternalIdDebit())
+                .accountExternalIdCredit(accepted.accountExternalIdCredit())
+                .transactionType(transactionType.get())
+                .transactionStatus(pendingStatus)
+                .value(accepted.value())
+                .createdAt(accepted.acceptedAt())
+                .build());
+        }
+        
+        if (newTransactions.isEmpty()) {
+            return 0;
+        }
+        
+        long insertStart = System.nanoTime();
+        List<Transaction> savedTransactions = transactionRepository.saveAll(newTransactions);
+        idempotencyKeyRepository.saveAll(newKeys);
+        transactionRepository.flush();
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.DB_INSERT, insertStart);
+        
+        outboxEventWriter.appendAll(savedTransactions.stream()
+            .map(this::toCreatedEvent)
+            .toList());
+        statusListingGenerations.bumpAfterCommit(TransactionStatusCode.PENDING);
+        readYourWritesGuard.recordAfterCommit(savedTransactions.stream()
+            .map(Transaction::getTransactionExternalId)
+            .toList());
+        return savedTransactions.size();
+    }
+
+   
+    // Las transacciones readOnly pueden leer de una réplica; una escritura reciente se lee del primario
+    // para no devolver (ni cachear) una versión anterior
     @Transactional(readOnly = true)
-    @Cacheable(value = "transactions", key = "#transactionExternalId")
+    @Cacheable(value = TRANSACTIONS_CACHE, key = "#transactionExternalId")
     public TransactionResponse getTransaction(UUID transactionExternalId) {
         log.debug("Consultando transacción: {}", transactionExternalId);
         
-        Transaction transaction = transactionRepository.findByTransactionExternalId(transactionExternalId)
+        TransactionRepository.TransactionView transaction = readYourWritesGuard.read(transactionExternalId,
+                () -> transactionRepository.findByTransactionExternalId(transactionExternalId))
             .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada: " + transactionExternalId));
         
         return transactionMapper.toResponse(transaction);
@@ -107,7 +396,7 @@ public class TransactionService {
     public Page<TransactionResponse> getAllTransactions(int page, int size) {
         log.debug("Consultando transacciones página: {}, tamaño: {}", page, size);
         
-        Page<Transaction> transactions = transactionRepository.findAllByOrderByCreatedAtDesc(
+        Page<TransactionRepository.TransactionView> transactions = transactionRepository.findAllByOrderByCreatedAtDesc(
             PageRequest.of(page, size)
         );
         
@@ -115,41 +404,360 @@ public class TransactionService {
     }
     
    
-    @Cacheable(value = "transactions", key = "'status:' + #status + ':' + #page + ':' + #size")
+    @Transactional(readOnly = true)
     public Page<TransactionResponse> getTransactionsByStatus(String status, int page, int size) {
         log.debug("Consultando transacciones con status: {}, página: {}, tamaño: {}", status, page, size);
         
-        Page<Transaction> transactions = transactionRepository.findByTransactionStatusNameOrderByCreatedAtDesc(
-            status, 
-            PageRequest.of(page, size)
-        );
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Optional<TransactionStatusCode> statusCode = TransactionStatusCode.fromStatusName(status);
+        if (statusCode.isEmpty()) {
+            return transactionRepository.findByTransactionStatusNameOrderByCreatedAtDesc(status, pageRequest)
+                .map(transactionMapper::toResponse);
+        }
         
-        return transactions.map(transactionMapper::toResponse);
+        // La clave incluye la generación del estado: cada transición la incrementa e invalida todo el listado
+        Cache pageCache = cacheManager.getCache(TRANSACTION_PAGES_CACHE);
+        String pageKey = "status:" + status + ":g" + statusListingGenerations.current(statusCode.get())
+            + ":" + page + ":" + size;
+        
+        TransactionIdPage cachedPage = pageCache.get(pageKey, TransactionIdPage.class);
+        if (cachedPage != null) {
+            return new PageImpl<>(hydrate(cachedPage.getTransactionIds()), pageRequest, cachedPage.getTotalElements());
+        }
+        
+        // Con escrituras recientes la página se lee del primario, así lo cacheado bajo la generación vigente las
+        // incluye; la siguiente transición incrementa la generación y la descarta
+        Page<TransactionResponse> transactions = readYourWritesGuard.readListing(() -> transactionRepository
+                .findByTransactionStatusNameOrderByCreatedAtDesc(status, pageRequest))
+            .map(transactionMapper::toResponse);
+        
+        // La página solo guarda IDs; el contenido vive una sola vez en la caché por transacción
+        Cache transactionCache = cacheManager.getCache(TRANSACTIONS_CACHE);
+        transactions.forEach(response -> transactionCache.put(response.getTransactionId(), response));
+        pageCache.put(pageKey, TransactionIdPage.builder()
+            .transactionIds(transactions.map(TransactionResponse::getTransactionId).getContent())
+            .totalElements(transactions.getTotalElements())
+            .build());
+        
+        return transactions;
     }
     
- 
-    @Transactional
-    @CacheEvict(value = "transactions", key = "#transactionExternalId")
-    public void updateTransactionStatus(UUID transactionExternalId, String statusName) {
-        log.info("Actualizando transacción {} a estado: {}", transactionExternalId, statusName);
+    @Transactional(readOnly = true)
+    public TransactionSlice getTransactionsAfter(String status, String after, int first, boolean includeTotalCount) {
+        log.debug("Consultando transacciones keyset con status: {}, after: {}, first: {}", status, after, first);
         
-        // Usar bloqueo pesimista para prevenir actualizaciones concurrentes
-        Transaction transaction = transactionRepository.findByTransactionExternalIdForUpdate(transactionExternalId)
-            .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada: " + transactionExternalId));
+        if (first < 1 || first > maxPageSize) {
+            throw new IllegalArgumentException("first debe estar entre 1 y " + maxPageSize);
+        }
         
-        TransactionStatus newStatus = transactionStatusRepository.findByName(statusName)
-            .orElseThrow(() -> new IllegalArgumentException("Estado inválido: " + statusName));
+        Integer statusId = null;
+        if (status != null && !status.isBlank()) {
+            Optional<TransactionStatus> transactionStatus = referenceDataRegistry.findTransactionStatus(status);
+            if (transactionStatus.isEmpty()) {
+                return TransactionSlice.builder()
+                    .items(List.of())
+                    .totalCount(includeTotalCount ? 0L : null)
+                    .build();
+            }
+            statusId = transactionStatus.get().getId();
+        }
         
-        // Usar método de dominio para actualizar estado (valida reglas de negocio)
-        if ("approved".equals(statusName)) {
-            transaction.approve(newStatus);
-        } else if ("rejected".equals(statusName)) {
-            transaction.reject(newStatus);
+        // Se pide una fila extra para saber si hay página siguiente sin contar
+        PageRequest limit = PageRequest.of(0, first + 1);
+        TransactionCursor cursor = after != null && !after.isBlank() ? TransactionCursor.decode(after) : null;
+        List<TransactionRepository.TransactionView> transactions;
+        if (cursor == null) {
+            transactions = statusId == null
+                ? transactionRepository.findByOrderByCreatedAtDescIdDesc(limit)
+                : transactionRepository.findByTransactionStatusIdOrderByCreatedAtDescIdDesc(statusId, limit);
         } else {
-            throw new IllegalArgumentException("Transición de estado inválida: " + statusName);
+            transactions = statusId == null
+                ? transactionRepository.findPageAfter(cursor.createdAt(), cursor.id(), limit)
+                : transactionRepository.findPageByStatusAfter(statusId, cursor.createdAt(), cursor.id(), limit);
+        }
+        
+        return toSlice(transactions, first, includeTotalCount ? countTransactions(statusId) : null);
+    }
+    
+    // Extracto de una cuenta: siempre una sola consulta keyset sobre los índices (cuenta, created_at, id)
+    @Transactional(readOnly = true)
+    public TransactionSlice getTransactionsByAccount(UUID accountId, TransactionDirection direction, OffsetDateTime from,
+                                                     OffsetDateTime to, int first, String after) {
+        log.debug("Consultando transacciones de la cuenta {} ({}) entre {} y {}, after: {}, first: {}",
+            accountId, direction, from, to, after, first);
+        
+        if (first < 1 || first > maxPageSize) {
+            throw new IllegalArgumentException("first debe estar entre 1 y " + maxPageSize);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from no puede ser posterior a to");
+        }
+        
+        // El cursor reemplaza a la cota superior salvo que el rango pedido termine antes
+        TransactionCursor cursor = after != null && !after.isBlank() ? TransactionCursor.decode(after) : null;
+        OffsetDateTime upperCreatedAt = to != null ? to : UNBOUNDED_TO;
+        long upperId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.createdAt().isAfter(upperCreatedAt)) {
+            upperCreatedAt = cursor.createdAt();
+            upperId = cursor.id();
+        }
+        OffsetDateTime lowerCreatedAt = from != null ? from : UNBOUNDED_FROM;
+        
+        int limit = first + 1;
+        List<TransactionRepository.TransactionView> transactions = switch (direction != null ? direction : TransactionDirection.ALL) {
+            case DEBIT -> transactionRepository.findDebitPageByAccount(accountId, lowerCreatedAt, upperCreatedAt, upperId,
+                PageRequest.of(0, limit));
+            case CREDIT -> transactionRepository.findCreditPageByAccount(accountId, lowerCreatedAt, upperCreatedAt, upperId,
+                PageRequest.of(0, limit));
+            case ALL -> transactionRepository.findPageByAccount(accountId, lowerCreatedAt, upperCreatedAt, upperId, limit);
+        };
+        
+        return toSlice(transactions, first, null);
+    }
+    
+    // Se pidió una fila extra: si llegó, hay página siguiente
+    private TransactionSlice toSlice(List<TransactionRepository.TransactionView> transactions, int first, Long totalCount) {
+        List<TransactionSlice.Item> items = transactions.stream()
+            .limit(first)
+            .map(transaction -> TransactionSlice.Item.builder()
+                .cursor(new TransactionCursor(transaction.getCreatedAt(), transaction.getId()).encode())
+                .transaction(transactionMapper.toResponse(transaction))
+                .build())
+            .toList();
+        
+        return TransactionSlice.builder()
+            .items(items)
+            .hasNext(transactions.size() > first)
+            .totalCount(totalCount)
+            .build();
+    }
+    
+    @Transactional
+    public StatusUpdateOutcome updateTransactionStatus(UUID transactionExternalId, StatusUpdate update) {
+        TransactionStatusCode statusCode = update.status();
+        log.info("Actualizando transacción {} a estado: {}", transactionExternalId, statusCode);
+        
+        if (statusCode == TransactionStatusCode.PENDING) {
+            throw new IllegalArgumentException("Transición de estado inválida: " + statusCode);
         }
         
-        transactionRepository.save(transaction);
+        // Compare-and-set en una sola sentencia: solo cambia si sigue pendiente, sin bloqueo previo ni cargar la entidad.
+        // El created_at del evento deja el UPDATE en una sola partición; sin él se toma de transaction_keys
+        TransactionStatus pendingStatus = referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING);
+        TransactionStatus newStatus = referenceDataRegistry.getTransactionStatus(statusCode);
+        OffsetDateTime createdAt = update.transactionCreatedAt() != null
+            ? update.transactionCreatedAt()
+            : transactionKeyRepository.findById(transactionExternalId)
+                .map(TransactionKey::getCreatedAt)
+                .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada: " + transactionExternalId));
+        OffsetDateTime now = OffsetDateTime.now();
+        int updated = transactionRepository.transitionFromPending(transactionExternalId, createdAt, pendingStatus,
+            newStatus, now);
+        
+        if (updated == 0) {
+            // Camino poco frecuente: distinguir una reentrega de una transacción inexistente
+            TransactionRepository.StatusView current = transactionRepository
+                .findStatusesByTransactionExternalIdIn(List.of(transactionExternalId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Transacción no encontrada: " + transactionExternalId));
+            
+            // Si sigue pendiente, el created_at del evento no era el guardado (eventos con más precisión que
+            // Postgres): se repite con el de la fila
+            boolean pending = current.getStatusId().equals(pendingStatus.getId());
+            if (!pending || transactionRepository.transitionFromPending(transactionExternalId, current.getCreatedAt(),
+                    pendingStatus, newStatus, now) == 0) {
+                StatusUpdateOutcome outcome = current.getStatusId().equals(newStatus.getId())
+                    ? StatusUpdateOutcome.DUPLICATE
+                    : StatusUpdateOutcome.CONFLICT;
+                log.info("Transacción {} ya no estaba pendiente, evento ignorado ({})", transactionExternalId, outcome);
+                return outcome;
+            }
+        }
+        
+        evictTransactionsAfterCommit(List.of(transactionExternalId));
+        statusListingGenerations.bumpAfterCommit(TransactionStatusCode.PENDING, statusCode);
         log.info("Transacción {} actualizada exitosamente", transactionExternalId);
+        return StatusUpdateOutcome.UPDATED;
+    }
+    
+    // Aplica un poll completo de eventos de estado: una consulta para clasificar y un UPDATE masivo por
+    // estado destino, en lugar de bloquear y guardar fila por fila. Ambas sentencias se acotan al rango de
+    // created_at de las filas, así solo recorren las particiones de esos meses
+    @Transactional
+    public Map<UUID, StatusUpdateOutcome> updateTransactionStatuses(Map<UUID, StatusUpdate> updates) {
+        Map<UUID, StatusUpdateOutcome> outcomes = new HashMap<>();
+        if (updates.isEmpty()) {
+            return outcomes;
+        }
+        
+        Map<UUID, TransactionRepository.StatusView> currentStatuses = findCurrentStatuses(updates);
+        
+        TransactionStatus pendingStatus = referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING);
+        Map<TransactionStatusCode, List<UUID>> transitions = new EnumMap<>(TransactionStatusCode.class);
+        updates.forEach((transactionExternalId, update) -> {
+            TransactionStatusCode statusCode = update.status();
+            TransactionRepository.StatusView current = currentStatuses.get(transactionExternalId);
+            if (statusCode == TransactionStatusCode.PENDING) {
+                outcomes.put(transactionExternalId, StatusUpdateOutcome.INVALID);
+            } else if (current == null) {
+                outcomes.put(transactionExternalId, StatusUpdateOutcome.NOT_FOUND);
+            } else if (current.getStatusId().equals(pendingStatus.getId())) {
+                transitions.computeIfAbsent(statusCode, code -> new ArrayList<>()).add(transactionExternalId);
+            } else if (current.getStatusId().equals(referenceDataRegistry.getTransactionStatus(statusCode).getId())) {
+                outcomes.put(transactionExternalId, StatusUpdateOutcome.DUPLICATE);
+            } else {
+                outcomes.put(transactionExternalId, StatusUpdateOutcome.CONFLICT);
+            }
+        });
+        
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> updatedIds = new ArrayList<>();
+        transitions.forEach((statusCode, transactionExternalIds) -> {
+            TransactionStatus targetStatus = referenceDataRegistry.getTransactionStatus(statusCode);
+            List<OffsetDateTime> createdAts = transactionExternalIds.stream()
+                .map(id -> currentStatuses.get(id).getCreatedAt())
+                .toList();
+            OffsetDateTime createdFrom = Collections.min(createdAts);
+            OffsetDateTime createdTo = Collections.max(createdAts);
+            int updated = transactionRepository.transitionFromPending(transactionExternalIds, createdFrom, createdTo,
+                pendingStatus, targetStatus, now);
+            if (updated == transactionExternalIds.size()) {
+                transactionExternalIds.forEach(id -> outcomes.put(id, StatusUpdateOutcome.UPDATED));
+                updatedIds.addAll(transactionExternalIds);
+                return;
+            }
+            
+            // Otro proceso cambió alguna fila entre la clasificación y el UPDATE: se reclasifican solo esas
+            log.warn("Actualización masiva a {}: {} de {} filas seguían pendientes", statusCode, updated,
+                transactionExternalIds.size());
+            transactionRepository.findStatusesByTransactionExternalIdIn(transactionExternalIds, createdFrom, createdTo)
+                .forEach(view -> {
+                    boolean atTarget = view.getStatusId().equals(targetStatus.getId());
+                    outcomes.put(view.getTransactionExternalId(),
+                        atTarget ? StatusUpdateOutcome.UPDATED : StatusUpdateOutcome.CONFLICT);
+                    if (atTarget) {
+                        updatedIds.add(view.getTransactionExternalId());
+                    }
+                });
+        });
+        
+        if (!updatedIds.isEmpty()) {
+            evictTransactionsAfterCommit(updatedIds);
+            statusListingGenerations.bumpAfterCommit(TransactionStatusCode.PENDING,
+                transitions.keySet().toArray(TransactionStatusCode[]::new));
+        }
+        log.info("Lote de estados aplicado: {} eventos, {} transacciones actualizadas", updates.size(), updatedIds.size());
+        return outcomes;
+    }
+    
+    // Estado y created_at actuales, leyendo solo las particiones del rango de created_at que traen los eventos.
+    // Las que no aparecen ahí (eventos sin created_at o con más precisión que Postgres) se ubican por
+    // transaction_keys; si tampoco están ahí, la transacción no existe
+    private Map<UUID, TransactionRepository.StatusView> findCurrentStatuses(Map<UUID, StatusUpdate> updates) {
+        Map<UUID, TransactionRepository.StatusView> currentStatuses = new HashMap<>();
+        List<OffsetDateTime> eventCreatedAts = updates.values().stream()
+            .map(StatusUpdate::transactionCreatedAt)
+            .filter(Objects::nonNull)
+            .toList();
+        if (!eventCreatedAts.isEmpty()) {
+            transactionRepository.findStatusesByTransactionExternalIdIn(updates.keySet(),
+                    Collections.min(eventCreatedAts), Collections.max(eventCreatedAts))
+                .forEach(view -> currentStatuses.put(view.getTransactionExternalId(), view));
+        }
+        
+        Set<UUID> unresolvedIds = updates.keySet().stream()
+            .filter(id -> !currentStatuses.containsKey(id))
+            .collect(Collectors.toSet());
+        if (unresolvedIds.isEmpty()) {
+            return currentStatuses;
+        }
+        List<OffsetDateTime> keyCreatedAts = transactionKeyRepository.findAllById(unresolvedIds).stream()
+            .map(TransactionKey::getCreatedAt)
+            .toList();
+        if (!keyCreatedAts.isEmpty()) {
+            transactionRepository.findStatusesByTransactionExternalIdIn(unresolvedIds,
+                    Collections.min(keyCreatedAts), Collections.max(keyCreatedAts))
+                .forEach(view -> currentStatuses.put(view.getTransactionExternalId(), view));
+        }
+        return currentStatuses;
+    }
+    
+    private TransactionCreatedEvent toCreatedEvent(Transaction transaction) {
+        return TransactionCreatedEvent.builder()
+            .transactionExternalId(transaction.getTransactionExternalId())
+            .accountExternalIdDebit(transaction.getAccountExternalIdDebit())
+            .accountExternalIdCredit(transaction.getAccountExternalIdCredit())
+            .transferTypeId(transaction.getTransactionType().getId())
+            .value(transaction.getValue())
+            .createdAt(transaction.getCreatedAt())
+            .eventId(UUID.randomUUID().toString())
+            .eventTimestamp(OffsetDateTime.now())
+            .build();
+    }
+    
+    // Evicción agrupada tras el commit: en la caché de dos niveles es un único mensaje de invalidación
+    private void evictTransactionsAfterCommit(List<UUID> transactionExternalIds) {
+        Cache transactionCache = cacheManager.getCache(TRANSACTIONS_CACHE);
+        Runnable eviction = () -> {
+            readYourWritesGuard.record(transactionExternalIds);
+            if (transactionCache.getNativeCache() instanceof TwoLevelCache twoLevelCache) {
+                twoLevelCache.evictAll(transactionExternalIds);
+            } else {
+                transactionExternalIds.forEach(transactionCache::evict);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+    
+    // Sin filtro se usa la estimación del planner; por estado el conteo recorre solo idx_status_created
+    private long countTransactions(Integer statusId) {
+        if (statusId != null) {
+            return transactionRepository.countByTransactionStatusId(statusId);
+        }
+        if (!partitionedTable) {
+            return transactionRepository.count();
+        }
+        Long estimate = transactionRepository.estimateRowCount();
+        // reltuples es -1 mientras la tabla no haya sido analizada
+        return estimate != null && estimate >= 0 ? estimate : transactionRepository.count();
+    }
+    
+    // Arma la página desde la caché por transacción y carga los faltantes con una sola consulta
+    private List<TransactionResponse> hydrate(List<UUID> transactionIds) {
+        Cache transactionCache = cacheManager.getCache(TRANSACTIONS_CACHE);
+        Map<UUID, TransactionResponse> responses = new HashMap<>();
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID transactionId : transactionIds) {
+            TransactionResponse cached = transactionCache.get(transactionId, TransactionResponse.class);
+            if (cached != null) {
+                responses.put(transactionId, cached);
+            } else {
+                missingIds.add(transactionId);
+            }
+        }
+        
+        if (!missingIds.isEmpty()) {
+            for (TransactionRepository.TransactionView transaction : transactionRepository.findByTransactionExternalIdIn(missingIds)) {
+                TransactionResponse response = transactionMapper.toResponse(transaction);
+                if (!readYourWritesGuard.isRecent(transaction.getTransactionExternalId())) {
+                    transactionCache.put(transaction.getTransactionExternalId(), response);
+                }
+                responses.put(transaction.getTransactionExternalId(), response);
+            }
+        }
+        
+        return transactionIds.stream()
+            .map(responses::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 }
@@ -0,0 +1,57 @@
+package com.yape.challenge.transaction.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    public static final String TRANSACTION_CREATED = "TransactionCreated";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_id_generator")
+    @SequenceGenerator(name = "outbox_events_id_generator", sequenceName = "outbox_events_id_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private UUID aggregateId;
+    
+    @Column(name = "event_type", nullable = false, updatable = false, length = 100)
+    private String eventType;
+    
+    @Column(nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+    
+    @Column(name = "claimed_until")
+    private OffsetDateTime claimedUntil;
+    
+    @Column(name = "failed_at")
+    private OffsetDateTime failedAt;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -4,12 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
+import lombok.ToString;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 
@@ -17,7 +19,9 @@ import java.util.UUID;
 @Table(name = "transactions", indexes = {
     @Index(name = "idx_transaction_external_id", columnList = "transaction_external_id"),
     @Index(name = "idx_transaction_status", columnList = "status_id"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_account_debit_created", columnList = "account_external_id_debit, created_at DESC, id DESC"),
+    @Index(name = "idx_account_credit_created", columnList = "account_external_id_credit, created_at DESC, id DESC")
 })
 @Data
 @Builder
@@ -26,33 +30,40 @@ import java.util.UUID;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_generator")
+    @SequenceGenerator(name = "transactions_id_generator", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
     
+    // En Postgres la tabla está particionada por created_at: la unicidad entre particiones de este campo
+    // la garantiza transaction_keys (migración V6). La idempotencyKey vive en IdempotencyKey (migración V7)
     @Column(name = "transaction_external_id", nullable = false, unique = true, updatable = false)
     private UUID transactionExternalId;
     
-    @Column(name = "idempotency_key", length = 255)
-    private String idempotencyKey;
-    
     @Column(name = "account_external_id_debit", nullable = false)
     private UUID accountExternalIdDebit;
     
     @Column(name = "account_external_id_credit", nullable = false)
     private UUID accountExternalIdCredit;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    // LAZY: las lecturas usan TransactionView y el registro de referencia; el proxy entrega el id sin inicializarse
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transfer_type_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private TransactionType transactionType;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "status_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private TransactionStatus transactionStatus;
     
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal value;
     
-    @CreationTimestamp
+    // Las transacciones del modo "accepted" llegan con la hora en que se aceptaron (ya devuelta al cliente);
+    // el resto toma la hora del INSERT, truncada a microsegundos como la guarda Postgres: el evento de estado
+    // la devuelve y el UPDATE la compara por igualdad para ubicar la partición
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
     
@@ -63,21 +74,28 @@ public class Transaction {
     @Version
     private Long version;
     
+    @PrePersist
+    void assignCreatedAt() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+    
     public void approve(TransactionStatus approvedStatus) {
-        if (!this.transactionStatus.getName().equals("pending")) {
+        if (!isPending()) {
             throw new IllegalStateException("Solo se pueden aprobar transacciones pendientes");
         }
         this.transactionStatus = approvedStatus;
     }
     
     public void reject(TransactionStatus rejectedStatus) {
-        if (!this.transactionStatus.getName().equals("pending")) {
+        if (!isPending()) {
             throw new IllegalStateException("Solo se pueden rechazar transacciones pendientes");
         }
         this.transactionStatus = rejectedStatus;
     }
     
     public boolean isPending() {
-        return this.transactionStatus.getName().equals("pending");
+        return this.transactionStatus.getCode() == TransactionStatusCode.PENDING;
     }
 }
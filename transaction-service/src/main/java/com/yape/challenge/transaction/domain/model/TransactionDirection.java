@@ -0,0 +1,10 @@
+package com.yape.challenge.transaction.domain.model;
+
+
+// Lado de la transacción en el que participa una cuenta
+public enum TransactionDirection {
+    
+    DEBIT,
+    CREDIT,
+    ALL
+}
@@ -0,0 +1,37 @@
+package com.yape.challenge.transaction.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+
+// Solo lectura: la llena el trigger de transactions (migración V6). Su created_at ubica la partición
+// de una transacción conocida solo por su transaction_external_id
+@Entity
+@Immutable
+@Table(name = "transaction_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionKey {
+
+    @Id
+    @Column(name = "transaction_external_id", updatable = false)
+    private UUID transactionExternalId;
+
+    @Column(name = "idempotency_key", length = 255, updatable = false)
+    private String idempotencyKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+}
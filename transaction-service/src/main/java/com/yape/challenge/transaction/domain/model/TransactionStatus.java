@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 
 @Entity
@@ -24,4 +26,17 @@ public class TransactionStatus {
     
     @Column(length = 255)
     private String description;
+    
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private TransactionStatusCode code;
+    
+    // Se resuelve una sola vez por instancia; las instancias del registro de referencia ya lo traen resuelto
+    public TransactionStatusCode getCode() {
+        if (code == null && name != null) {
+            code = TransactionStatusCode.fromStatusName(name).orElse(null);
+        }
+        return code;
+    }
 }
@@ -0,0 +1,30 @@
+package com.yape.challenge.transaction.domain.model;
+
+import java.util.Optional;
+
+
+public enum TransactionStatusCode {
+    
+    PENDING("pending"),
+    APPROVED("approved"),
+    REJECTED("rejected");
+    
+    private final String statusName;
+    
+    TransactionStatusCode(String statusName) {
+        this.statusName = statusName;
+    }
+    
+    public String getStatusName() {
+        return statusName;
+    }
+    
+    public static Optional<TransactionStatusCode> fromStatusName(String statusName) {
+        for (TransactionStatusCode code : values()) {
+            if (code.statusName.equals(statusName)) {
+                return Optional.of(code);
+            }
+        }
+        return Optional.empty();
+    }
+}
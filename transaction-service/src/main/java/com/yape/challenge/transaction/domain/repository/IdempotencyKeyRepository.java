@@ -0,0 +1,33 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // Precarga del filtro de idempotencia: en streaming para no materializar las claves de la ventana en una lista
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT k FROM IdempotencyKey k WHERE k.createdAt >= :since")
+    Stream<IdempotencyKey> streamCreatedSince(OffsetDateTime since);
+
+
+    // Un lote por sentencia: cada DELETE toma pocos locks y genera poco WAL, y autovacuum recupera el espacio
+    // entre lotes en lugar de después de un único DELETE masivo
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE idempotency_key IN ("
+        + "SELECT idempotency_key FROM idempotency_keys WHERE created_at < :createdBefore LIMIT :limit)",
+        nativeQuery = true)
+    int deleteBatchCreatedBefore(OffsetDateTime createdBefore, int limit);
+}
@@ -0,0 +1,49 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // SKIP LOCKED permite que varias instancias drenen el outbox en paralelo sin bloquearse entre sí.
+    // El bloqueo solo dura hasta que claim() anota el reclamo; las filas reclamadas se saltan hasta que vence
+    @Query(value = "SELECT * FROM outbox_events WHERE sent_at IS NULL AND failed_at IS NULL "
+        + "AND (claimed_until IS NULL OR claimed_until < :now) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<OutboxEvent> lockNextClaimableBatch(OffsetDateTime now, int limit);
+    
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :claimedUntil, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int claim(Collection<Long> ids, OffsetDateTime claimedUntil);
+    
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markAsSent(Collection<Long> ids, OffsetDateTime sentAt);
+    
+    
+    // Adelanta el vencimiento del reclamo para reintentar sin esperar el plazo completo
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :retryAt WHERE e.id IN :ids")
+    int releaseForRetry(Collection<Long> ids, OffsetDateTime retryAt);
+    
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt, e.lastError = :lastError WHERE e.id = :id")
+    int markAsFailed(Long id, OffsetDateTime failedAt, String lastError);
+    
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :sentBefore")
+    int deleteSentBefore(OffsetDateTime sentBefore);
+}
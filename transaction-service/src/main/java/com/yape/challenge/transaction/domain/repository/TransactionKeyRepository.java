@@ -0,0 +1,12 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.TransactionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+
+@Repository
+public interface TransactionKeyRepository extends JpaRepository<TransactionKey, UUID> {
+}
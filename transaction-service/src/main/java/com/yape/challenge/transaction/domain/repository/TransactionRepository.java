@@ -1,14 +1,18 @@
 package com.yape.challenge.transaction.domain.repository;
 
 import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,22 +20,163 @@ import java.util.UUID;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Columnas escalares y FKs de tipo y estado, sin JOIN: los nombres se resuelven en memoria con el registro
+    String VIEW_SELECT = "SELECT t.id AS id, t.transactionExternalId AS transactionExternalId, "
+        + "t.accountExternalIdDebit AS accountExternalIdDebit, t.accountExternalIdCredit AS accountExternalIdCredit, "
+        + "t.transactionType.id AS transferTypeId, t.transactionStatus.id AS statusId, t.value AS value, "
+        + "t.createdAt AS createdAt, t.updatedAt AS updatedAt FROM Transaction t ";
+    
+    String ACCOUNT_KEYSET = "t.createdAt >= :from AND t.createdAt <= :createdAt "
+        + "AND (t.createdAt < :createdAt OR t.id < :id) ORDER BY t.createdAt DESC, t.id DESC";
+    
    
-    Optional<Transaction> findByTransactionExternalId(UUID transactionExternalId);
+    // El created_at sale de transaction_keys (sin particionar, búsqueda por PK): con ese valor Postgres
+    // descarta en ejecución las particiones que no lo contienen en lugar de probar el índice de cada mes
+    @Query(VIEW_SELECT + "WHERE t.transactionExternalId = :transactionExternalId AND t.createdAt = ("
+        + "SELECT k.createdAt FROM TransactionKey k WHERE k.transactionExternalId = :transactionExternalId)")
+    Optional<TransactionView> findByTransactionExternalId(UUID transactionExternalId);
+    
+    
+    @Query(VIEW_SELECT + "WHERE t.transactionExternalId IN :transactionExternalIds")
+    List<TransactionView> findByTransactionExternalIdIn(Collection<UUID> transactionExternalIds);
+    
+    
+    @Query("SELECT t.transactionExternalId AS transactionExternalId, t.transactionStatus.id AS statusId, "
+        + "t.createdAt AS createdAt FROM Transaction t WHERE t.transactionExternalId IN :transactionExternalIds")
+    List<StatusView> findStatusesByTransactionExternalIdIn(Collection<UUID> transactionExternalIds);
+    
+    
+    // Acotada al rango de created_at del lote: solo recorre las particiones de esos meses
+    @Query("SELECT t.transactionExternalId AS transactionExternalId, t.transactionStatus.id AS statusId, "
+        + "t.createdAt AS createdAt FROM Transaction t WHERE t.transactionExternalId IN :transactionExternalIds "
+        + "AND t.createdAt BETWEEN :createdFrom AND :createdTo")
+    List<StatusView> findStatusesByTransactionExternalIdIn(Collection<UUID> transactionExternalIds,
+                                                           OffsetDateTime createdFrom, OffsetDateTime createdTo);
     
     
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT t FROM Transaction t WHERE t.transactionExternalId = :transactionExternalId")
-    Optional<Transaction> findByTransactionExternalIdForUpdate(UUID transactionExternalId);
+    // UPDATE masivo condicionado a pending: una sola sentencia por estado destino, sin cargar entidades,
+    // y acotada al rango de created_at de esas filas para no probar cada partición
+    @Modifying
+    @Query("UPDATE Transaction t SET t.transactionStatus = :targetStatus, t.updatedAt = :updatedAt, "
+        + "t.version = t.version + 1 "
+        + "WHERE t.transactionExternalId IN :transactionExternalIds AND t.transactionStatus = :pendingStatus "
+        + "AND t.createdAt BETWEEN :createdFrom AND :createdTo")
+    int transitionFromPending(Collection<UUID> transactionExternalIds, OffsetDateTime createdFrom,
+                              OffsetDateTime createdTo, TransactionStatus pendingStatus,
+                              TransactionStatus targetStatus, OffsetDateTime updatedAt);
+    
+    
+    // Transición compare-and-set de una transacción: devuelve 0 si ya no estaba pendiente, si no existe o si
+    // el created_at no es el suyo. El created_at deja el UPDATE en una sola partición
+    @Modifying
+    @Query("UPDATE Transaction t SET t.transactionStatus = :targetStatus, t.updatedAt = :updatedAt, "
+        + "t.version = t.version + 1 "
+        + "WHERE t.transactionExternalId = :transactionExternalId AND t.createdAt = :createdAt "
+        + "AND t.transactionStatus = :pendingStatus")
+    int transitionFromPending(UUID transactionExternalId, OffsetDateTime createdAt, TransactionStatus pendingStatus,
+                              TransactionStatus targetStatus, OffsetDateTime updatedAt);
     
    
-    Page<Transaction> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    @Query(value = VIEW_SELECT + "ORDER BY t.createdAt DESC", countQuery = "SELECT COUNT(t) FROM Transaction t")
+    Page<TransactionView> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
    
-    Page<Transaction> findByTransactionStatusNameOrderByCreatedAtDesc(String statusName, Pageable pageable);
+    @Query(value = VIEW_SELECT + "WHERE t.transactionStatus.name = :statusName ORDER BY t.createdAt DESC",
+        countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.transactionStatus.name = :statusName")
+    Page<TransactionView> findByTransactionStatusNameOrderByCreatedAtDesc(String statusName, Pageable pageable);
+    
+    
+    // Paginación keyset: el Pageable solo aporta el LIMIT (página 0), nunca OFFSET ni COUNT
+    @Query(VIEW_SELECT + "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findByOrderByCreatedAtDescIdDesc(Pageable limit);
+    
+    
+    @Query(VIEW_SELECT + "WHERE t.transactionStatus.id = :statusId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findByTransactionStatusIdOrderByCreatedAtDescIdDesc(Integer statusId, Pageable limit);
+    
+    
+    // El primer predicado es un rango sobre idx_created_at; el OR solo desempata filas con el mismo created_at
+    @Query(VIEW_SELECT + "WHERE t.createdAt <= :createdAt "
+        + "AND (t.createdAt < :createdAt OR t.id < :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findPageAfter(OffsetDateTime createdAt, Long id, Pageable limit);
+    
+    
+    @Query(VIEW_SELECT + "WHERE t.transactionStatus.id = :statusId AND t.createdAt <= :createdAt "
+        + "AND (t.createdAt < :createdAt OR t.id < :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionView> findPageByStatusAfter(Integer statusId, OffsetDateTime createdAt, Long id, Pageable limit);
+    
+    
+    // Historial por cuenta sobre idx_account_*_created: la cota superior es el cursor (o el fin del rango)
+    // y el recorrido del índice se detiene al completar la página
+    @Query(VIEW_SELECT + "WHERE t.accountExternalIdDebit = :accountId AND " + ACCOUNT_KEYSET)
+    List<TransactionView> findDebitPageByAccount(UUID accountId, OffsetDateTime from, OffsetDateTime createdAt,
+                                                 Long id, Pageable limit);
+    
+    
+    @Query(VIEW_SELECT + "WHERE t.accountExternalIdCredit = :accountId AND " + ACCOUNT_KEYSET)
+    List<TransactionView> findCreditPageByAccount(UUID accountId, OffsetDateTime from, OffsetDateTime createdAt,
+                                                  Long id, Pageable limit);
+    
+    
+    // Ambos lados en una sentencia: cada rama recorre su índice y aporta a lo sumo :limit filas, así el
+    // orden final trabaja sobre 2 * limit filas. Un OR sobre las dos columnas perdería el orden del índice.
+    // La rama de crédito excluye las transferencias a la misma cuenta, que ya trae la de débito
+    @Query("SELECT u.id AS id, u.transactionExternalId AS transactionExternalId, "
+        + "u.accountExternalIdDebit AS accountExternalIdDebit, u.accountExternalIdCredit AS accountExternalIdCredit, "
+        + "u.transferTypeId AS transferTypeId, u.statusId AS statusId, u.value AS value, "
+        + "u.createdAt AS createdAt, u.updatedAt AS updatedAt FROM ("
+        + "(" + VIEW_SELECT + "WHERE t.accountExternalIdDebit = :accountId AND " + ACCOUNT_KEYSET + " LIMIT :limit) "
+        + "UNION ALL (" + VIEW_SELECT + "WHERE t.accountExternalIdCredit = :accountId "
+        + "AND t.accountExternalIdDebit <> :accountId AND " + ACCOUNT_KEYSET + " LIMIT :limit)"
+        + ") u ORDER BY u.createdAt DESC, u.id DESC LIMIT :limit")
+    List<TransactionView> findPageByAccount(UUID accountId, OffsetDateTime from, OffsetDateTime createdAt, Long id,
+                                            int limit);
+    
+    
+    // Estimación del planner (pg_class.reltuples): evita el COUNT(*) sobre toda la tabla. La tabla está
+    // particionada y el padre no tiene estadísticas propias: se suman las de sus particiones, y solo se
+    // devuelve -1 si ninguna fue analizada todavía (las recién creadas y vacías quedan en -1)
+    @Query(value = "SELECT CAST(CASE WHEN MAX(c.reltuples) < 0 THEN -1 ELSE SUM(GREATEST(c.reltuples, 0)) END AS BIGINT) "
+        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+        + "WHERE i.inhparent = CAST('transactions' AS regclass)", nativeQuery = true)
+    Long estimateRowCount();
+    
+    
+    long countByTransactionStatusId(Integer statusId);
    
-    Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
+    // Transacciones originales de las idempotencyKey vigentes (idempotency_keys)
+    List<Transaction> findAllByTransactionExternalIdIn(Collection<UUID> transactionExternalIds);
     
   
     boolean existsByTransactionExternalId(UUID transactionExternalId);
+    
+    
+    interface StatusView {
+        UUID getTransactionExternalId();
+        
+        Integer getStatusId();
+        
+        OffsetDateTime getCreatedAt();
+    }
+    
+    
+    interface TransactionView {
+        Long getId();
+        
+        UUID getTransactionExternalId();
+        
+        UUID getAccountExternalIdDebit();
+        
+        UUID getAccountExternalIdCredit();
+        
+        Integer getTransferTypeId();
+        
+        Integer getStatusId();
+        
+        BigDecimal getValue();
+        
+        OffsetDateTime getCreatedAt();
+        
+        OffsetDateTime getUpdatedAt();
+    }
 }
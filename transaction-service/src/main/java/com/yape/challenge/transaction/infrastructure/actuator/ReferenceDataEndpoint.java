@@ -0,0 +1,47 @@
+package com.yape.challenge.transaction.infrastructure.actuator;
+
+import com.yape.challenge.transaction.application.service.ReferenceDataRegistry;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+
+@Component
+@Endpoint(id = "referencedata")
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataEndpoint {
+    
+    private final ReferenceDataRegistry referenceDataRegistry;
+    
+    @ReadOperation
+    public Map<String, Object> referenceData() {
+        return Map.of(
+            "transactionTypes", referenceDataRegistry.getTransactionTypes().stream()
+                .sorted(Comparator.comparing(TransactionType::getId))
+                .map(type -> Map.of("id", type.getId(), "name", type.getName()))
+                .toList(),
+            "transactionStatuses", referenceDataRegistry.getTransactionStatuses().stream()
+                .sorted(Comparator.comparing(TransactionStatus::getId))
+                .map(status -> Map.of("id", status.getId(), "name", status.getName()))
+                .toList()
+        );
+    }
+    
+    // POST /actuator/referencedata recarga el registro sin reiniciar el servicio
+    @WriteOperation
+    public Map<String, Object> refresh() {
+        log.info("Recargando registro de datos de referencia desde actuator");
+        referenceDataRegistry.refresh();
+        return referenceData();
+    }
+}
@@ -0,0 +1,72 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatusListingGenerations {
+    
+    private static final String KEY_PREFIX = "yape:cache:status-generation:";
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    
+    // Sin Redis (yape.cache.mode=none) no hay listados cacheados que invalidar
+    @Value("${yape.cache.mode:redis}")
+    private String cacheMode;
+    
+    // La generación forma parte de la clave de los listados: al incrementarla, todas las páginas
+    // cacheadas de ese estado quedan inalcanzables en O(1) y expiran solas por TTL
+    public long current(TransactionStatusCode statusCode) {
+        if (!isRedisEnabled()) {
+            return 0L;
+        }
+        String generation = stringRedisTemplate.opsForValue().get(KEY_PREFIX + statusCode.getStatusName());
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+    
+    
+    public void bumpAfterCommit(TransactionStatusCode first, TransactionStatusCode... others) {
+        if (!isRedisEnabled()) {
+            return;
+        }
+        Set<TransactionStatusCode> statusCodes = EnumSet.of(first, others);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(statusCodes);
+                }
+            });
+        } else {
+            bump(statusCodes);
+        }
+    }
+    
+    private void bump(Set<TransactionStatusCode> statusCodes) {
+        for (TransactionStatusCode statusCode : statusCodes) {
+            try {
+                // INCR es atómico en Redis: todas las instancias ven la nueva generación a la vez
+                stringRedisTemplate.opsForValue().increment(KEY_PREFIX + statusCode.getStatusName());
+            } catch (Exception ex) {
+                log.warn("No se pudo incrementar la generación del listado {}; se servirá hasta su TTL",
+                    statusCode, ex);
+            }
+        }
+    }
+    
+    private boolean isRedisEnabled() {
+        return !"none".equals(cacheMode);
+    }
+}
@@ -0,0 +1,211 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+
+public class TwoLevelCache implements Cache {
+    
+    private static final int EVICTION_STRIPES = 1024;
+    
+    private final String name;
+    private final Cache localCache;
+    private final Cache remoteCache;
+    private final Consumer<String> invalidationPublisher;
+    // Sello de evicción por franja de claves: detecta una evicción concurrente mientras se promueve un valor de L2
+    private final AtomicLongArray evictionStamps = new AtomicLongArray(EVICTION_STRIPES);
+    
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    
+    public TwoLevelCache(String name, Cache localCache, Cache remoteCache, MeterRegistry meterRegistry,
+                         Consumer<String> invalidationPublisher) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+        
+        this.localHits = requestCounter(meterRegistry, "l1", "hit");
+        this.localMisses = requestCounter(meterRegistry, "l1", "miss");
+        this.remoteHits = requestCounter(meterRegistry, "l2", "hit");
+        this.remoteMisses = requestCounter(meterRegistry, "l2", "miss");
+        
+        ratioGauge(meterRegistry, "yape.cache.hit.ratio", "l1", localHits, localMisses);
+        ratioGauge(meterRegistry, "yape.cache.miss.ratio", "l1", localMisses, localHits);
+        ratioGauge(meterRegistry, "yape.cache.hit.ratio", "l2", remoteHits, remoteMisses);
+        ratioGauge(meterRegistry, "yape.cache.miss.ratio", "l2", remoteMisses, remoteHits);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        
+        // L1: caché local en memoria, sin salto de red ni deserialización
+        ValueWrapper value = localCache.get(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+        
+        // L2: Redis compartido entre instancias; al encontrarlo se promueve a L1
+        long stamp = evictionStamps.get(stripe(localKey));
+        value = remoteCache.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        localCache.put(localKey, value.get());
+        // Si hubo una evicción durante la lectura, el valor promovido puede ser el anterior: se descarta de L1
+        if (evictionStamps.get(stripe(localKey)) != stamp) {
+            localCache.evict(localKey);
+        }
+        return value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("El valor en caché no es del tipo requerido [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        
+        // El loader corre fuera de cualquier lock: la consulta a BD no bloquea otras claves ni fija un hilo virtual
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), value);
+    }
+    
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        localCache.put(localKey(key), existing != null ? existing.get() : value);
+        return existing;
+    }
+    
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        remoteCache.evict(key);
+        evictLocal(localKey);
+        invalidationPublisher.accept(localKey);
+    }
+    
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        boolean present = remoteCache.evictIfPresent(key);
+        evictLocal(localKey);
+        invalidationPublisher.accept(localKey);
+        return present;
+    }
+    
+    // Invalidación agrupada: un solo mensaje pub/sub para todas las claves
+    public void evictAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> localKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            remoteCache.evict(key);
+            localKeys.add(localKey(key));
+        }
+        localKeys.forEach(this::evictLocal);
+        invalidationPublisher.accept(String.join(TwoLevelCacheManager.KEY_SEPARATOR, localKeys));
+    }
+    
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        clearLocal();
+        invalidationPublisher.accept(null);
+    }
+    
+    // Invalidación recibida de otra instancia: solo se limpia L1, L2 ya fue actualizado por el emisor
+    // El sello se incrementa antes de limpiar L1 para que una promoción en curso lo detecte al verificarlo
+    public void evictLocal(String key) {
+        evictionStamps.incrementAndGet(stripe(key));
+        localCache.evict(key);
+    }
+    
+    public void clearLocal() {
+        for (int i = 0; i < EVICTION_STRIPES; i++) {
+            evictionStamps.incrementAndGet(i);
+        }
+        localCache.clear();
+    }
+    
+    // Las claves locales se normalizan a String para que coincidan con las recibidas por pub/sub
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+    
+    private int stripe(String localKey) {
+        return localKey.hashCode() & (EVICTION_STRIPES - 1);
+    }
+    
+    private Counter requestCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("yape.cache.requests")
+            .description("Consultas a la caché por nivel y resultado")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private void ratioGauge(MeterRegistry meterRegistry, String metricName, String tier, Counter counted, Counter others) {
+        Gauge.builder(metricName, () -> {
+                double total = counted.count() + others.count();
+                return total == 0 ? 0.0 : counted.count() / total;
+            })
+            .description("Proporción de aciertos o fallos de la caché por nivel")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .register(meterRegistry);
+    }
+}
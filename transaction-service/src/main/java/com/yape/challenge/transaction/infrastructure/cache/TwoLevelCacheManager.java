@@ -0,0 +1,104 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+    
+    private static final String SEPARATOR = "|";
+    private static final String CLEAR_ALL = "*";
+    static final String KEY_SEPARATOR = ",";
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final CacheManager remoteCacheManager;
+    private final Caffeine<Object, Object> localCacheBuilder;
+    private final MeterRegistry meterRegistry;
+    private final Consumer<String> invalidationPublisher;
+    private final ConcurrentMap<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, List<String>> remoteEvictionListener = (cacheName, keys) -> { };
+    
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, Caffeine<Object, Object> localCacheBuilder,
+                                MeterRegistry meterRegistry, Consumer<String> invalidationPublisher) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheBuilder = localCacheBuilder;
+        this.meterRegistry = meterRegistry;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+    
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return List.of();
+    }
+    
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return twoLevelCaches.computeIfAbsent(name, cacheName -> {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeLocalCache = localCacheBuilder.build();
+            CaffeineCacheMetrics.monitor(meterRegistry, nativeLocalCache, cacheName, "tier", "l1");
+            return new TwoLevelCache(cacheName, new CaffeineCache(cacheName, nativeLocalCache, true), remoteCache,
+                meterRegistry, key -> publishInvalidation(cacheName, key));
+        });
+    }
+    
+    // Recibe las claves que otra instancia invalidó (nombre de caché, claves), antes de evictarlas aquí
+    public void setRemoteEvictionListener(BiConsumer<String, List<String>> remoteEvictionListener) {
+        this.remoteEvictionListener = remoteEvictionListener;
+    }
+    
+    // Formato del mensaje: <instancia>|<caché>|<clave>[,<clave>...] (la clave "*" limpia toda la caché local)
+    public void onInvalidationMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Mensaje de invalidación de caché inválido: {}", message);
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return; // La instancia emisora ya invalidó su caché local
+        }
+        
+        TwoLevelCache cache = twoLevelCaches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR_ALL.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            List<String> keys = List.of(parts[2].split(KEY_SEPARATOR));
+            try {
+                remoteEvictionListener.accept(parts[1], keys);
+            } catch (RuntimeException ex) {
+                log.warn("Error notificando la invalidación remota de la caché {}", parts[1], ex);
+            }
+            keys.forEach(cache::evictLocal);
+        }
+    }
+    
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            invalidationPublisher.accept(instanceId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : CLEAR_ALL));
+        } catch (Exception ex) {
+            // El TTL corto de L1 acota la obsolescencia si se pierde una invalidación
+            log.warn("No se pudo publicar invalidación de caché {} para clave {}", cacheName, key, ex);
+        }
+    }
+}
@@ -3,30 +3,53 @@ package com.yape.challenge.transaction.infrastructure.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yape.challenge.transaction.infrastructure.cache.TwoLevelCacheManager;
+import com.yape.challenge.transaction.infrastructure.datasource.ReadYourWritesGuard;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.UUID;
 
 
 @Configuration
 @EnableCaching
+@ConditionalOnProperty(value = "yape.cache.mode", havingValue = "redis", matchIfMissing = true)
 public class CacheConfig {
     
     @Value("${yape.cache.ttl-minutes:10}")
     private int cacheTtlMinutes;
     
+    @Value("${yape.cache.local.max-size:10000}")
+    private long localCacheMaxSize;
+    
+    // TTL corto en L1: acota la obsolescencia si se pierde un mensaje de invalidación (pub/sub no garantiza entrega)
+    @Value("${yape.cache.local.ttl-seconds:30}")
+    private long localCacheTtlSeconds;
+    
+    @Value("${yape.cache.invalidation-channel:yape:cache:invalidation}")
+    private String invalidationChannel;
+    
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             ReadYourWritesGuard readYourWritesGuard) {
         
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -36,6 +59,8 @@ public class CacheConfig {
         
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(cacheTtlMinutes))
+            // Versión del formato de los valores: se incrementa cuando cambia la forma de TransactionResponse
+            .prefixCacheNameWith("v2:")
             .serializeKeysWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
             )
@@ -43,9 +68,39 @@ public class CacheConfig {
                 RedisSerializationContext.SerializationPair.fromSerializer(serializer)
             );
         
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
             .cacheDefaults(config)
-            .transactionAware()
             .build();
+        redisCacheManager.afterPropertiesSet();
+        
+        Caffeine<Object, Object> localCacheBuilder = Caffeine.newBuilder()
+            .maximumSize(localCacheMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(localCacheTtlSeconds))
+            .recordStats();
+        
+        // L1 local (Caffeine) delante de L2 compartido (Redis); las evicciones se propagan por pub/sub
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, localCacheBuilder, meterRegistry,
+            message -> stringRedisTemplate.convertAndSend(invalidationChannel, message));
+        cacheManager.setTransactionAware(true);
+        // Un cambio de estado hecho en otra instancia llega como invalidación: hasta que la réplica lo tenga,
+        // las lecturas por id de esas transacciones van al primario
+        cacheManager.setRemoteEvictionListener((cacheName, keys) -> {
+            if ("transactions".equals(cacheName)) {
+                readYourWritesGuard.record(keys.stream().map(UUID::fromString).toList());
+            }
+        });
+        return cacheManager;
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> cacheManager.onInvalidationMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(invalidationChannel)
+        );
+        return container;
     }
 }
@@ -13,6 +13,7 @@ public class GraphQLConfig {
         return wiringBuilder -> wiringBuilder
             .scalar(ExtendedScalars.UUID)
             .scalar(ExtendedScalars.GraphQLBigDecimal)
-            .scalar(ExtendedScalars.DateTime);
+            .scalar(ExtendedScalars.DateTime)
+            .scalar(ExtendedScalars.GraphQLLong);
     }
 }
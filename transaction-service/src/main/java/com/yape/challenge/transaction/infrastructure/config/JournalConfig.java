@@ -0,0 +1,32 @@
+package com.yape.challenge.transaction.infrastructure.config;
+
+import com.yape.challenge.transaction.infrastructure.journal.TransactionJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+
+// Solo en modo de escritura "accepted": el journal local es la fuente de verdad hasta que el escritor
+// diferido confirma cada lote en Postgres
+@Configuration
+@ConditionalOnProperty(value = "yape.transaction.write-mode", havingValue = "accepted")
+public class JournalConfig {
+    
+    @Value("${yape.transaction.journal.directory:data/journal}")
+    private String directory;
+    
+    @Value("${yape.transaction.journal.segment-size-bytes:67108864}")
+    private int segmentSizeBytes;
+    
+    @Value("${yape.transaction.journal.fsync-interval-us:1000}")
+    private long fsyncIntervalMicros;
+    
+    
+    @Bean(destroyMethod = "close")
+    public TransactionJournal transactionJournal() {
+        return new TransactionJournal(Path.of(directory), segmentSizeBytes, fsyncIntervalMicros);
+    }
+}
@@ -1,9 +1,19 @@
 package com.yape.challenge.transaction.infrastructure.config;
 
+import com.yape.challenge.shared.codec.BinaryEventDeserializer;
+import com.yape.challenge.shared.codec.BinaryEventSerializer;
+import com.yape.challenge.shared.codec.EventCodec;
+import com.yape.challenge.shared.codec.TransactionCreatedEventCodec;
+import com.yape.challenge.shared.codec.TransactionStatusUpdatedEventCodec;
+import com.yape.challenge.shared.concurrent.VirtualThreadExecutors;
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,9 +22,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,25 +39,48 @@ import java.util.Map;
 @EnableKafka
 public class KafkaConfig {
     
+    private static final String BINARY_CODEC = "binary";
+    
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
     
+    @Value("${yape.kafka.producer.linger-ms:5}")
+    private int lingerMs;
+    
+    @Value("${yape.kafka.status-consumer.max-poll-records:500}")
+    private int batchMaxPollRecords;
+    
+    @Value("${yape.kafka.topics.transaction-status-updated-dlt}")
+    private String statusDeadLetterTopic;
+    
+    @Value("${yape.kafka.status-consumer.retry.initial-interval-ms:200}")
+    private long retryInitialIntervalMs;
+    
+    @Value("${yape.kafka.status-consumer.retry.max-interval-ms:10000}")
+    private long retryMaxIntervalMs;
+    
+    @Value("${yape.kafka.status-consumer.retry.max-elapsed-ms:60000}")
+    private long retryMaxElapsedMs;
+    
+    // Formato por topic: json | binary. El deserializador binario también lee JSON,
+    // así que al migrar se cambian primero los consumidores y después los productores
+    @Value("${yape.kafka.codec.transaction-created:json}")
+    private String transactionCreatedCodec;
+    
+    @Value("${yape.kafka.codec.transaction-status-updated:json}")
+    private String transactionStatusUpdatedCodec;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
     
     @Bean
     public ProducerFactory<String, TransactionCreatedEvent> producerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        config.put(ProducerConfig.ACKS_CONFIG, "all");
-        config.put(ProducerConfig.RETRIES_CONFIG, 3);
-        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
-        
-        return new DefaultKafkaProducerFactory<>(config);
+        return new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(),
+            valueSerializer(transactionCreatedCodec, TransactionCreatedEventCodec.INSTANCE));
     }
     
     @Bean
@@ -51,21 +89,29 @@ public class KafkaConfig {
     }
     
     
+    // Productor del DLT de estados: los eventos legibles se reenvían con el codec del topic y los que no se
+    // pudieron deserializar, con sus bytes originales
+    @Bean
+    public ProducerFactory<String, Object> statusDeadLetterProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(),
+            new DelegatingByTypeSerializer(Map.of(
+                byte[].class, new ByteArraySerializer(),
+                TransactionStatusUpdatedEvent.class,
+                valueSerializer(transactionStatusUpdatedCodec, TransactionStatusUpdatedEventCodec.INSTANCE))));
+    }
+    
+    // Toma el payload crudo de la cabecera del ErrorHandlingDeserializer y agrega las cabeceras
+    // kafka_dlt-* con el topic, offset y excepción de origen
+    @Bean
+    public DeadLetterPublishingRecoverer statusDeadLetterRecoverer() {
+        return new DeadLetterPublishingRecoverer(new KafkaTemplate<>(statusDeadLetterProducerFactory()),
+            (record, exception) -> new TopicPartition(statusDeadLetterTopic, -1));
+    }
+    
+    
     @Bean
     public ConsumerFactory<String, TransactionStatusUpdatedEvent> consumerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
-        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransactionStatusUpdatedEvent.class.getName());
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
-        
-        return new DefaultKafkaConsumerFactory<>(config);
+        return new DefaultKafkaConsumerFactory<>(consumerConfig(100), new StringDeserializer(), statusEventDeserializer());
     }
     
     @Bean
@@ -75,6 +121,75 @@ public class KafkaConfig {
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3); // Procesar mensajes con 3 threads concurrentes unu
         factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.RECORD);
+        applyThreading(factory, "status-consumer-");
         return factory;
     }
+    
+    
+    // Modo lote: el listener recibe todo el poll y lo aplica con un UPDATE masivo por estado destino
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionStatusUpdatedEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TransactionStatusUpdatedEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerConfig(batchMaxPollRecords),
+            new StringDeserializer(), statusEventDeserializer()));
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(statusBatchErrorHandler());
+        applyThreading(factory, "status-batch-consumer-");
+        return factory;
+    }
+    
+    // Un fallo del lote (por ejemplo la base de datos caída) se reintenta con espera exponencial; agotado el
+    // tiempo, cada registro del lote va al DLT y el consumidor sigue avanzando
+    private DefaultErrorHandler statusBatchErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialIntervalMs, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        backOff.setMaxElapsedTime(retryMaxElapsedMs);
+        return new DefaultErrorHandler(statusDeadLetterRecoverer(), backOff);
+    }
+    
+    // Los consumidores pasan casi todo el tiempo bloqueados en poll y en JDBC: con hilos virtuales no
+    // retienen un hilo de plataforma mientras esperan
+    private void applyThreading(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            factory.getContainerProperties().setListenerTaskExecutor(VirtualThreadExecutors.executor(threadNamePrefix));
+        }
+    }
+    
+    private Map<String, Object> producerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.RETRIES_CONFIG, 3);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs); // Agrupar ráfagas de eventos en menos peticiones
+        return config;
+    }
+    
+    private Map<String, Object> consumerConfig(int maxPollRecords) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return config;
+    }
+    
+    private <T> Serializer<T> valueSerializer(String codec, EventCodec<T> binaryCodec) {
+        return BINARY_CODEC.equals(codec) ? new BinaryEventSerializer<>(binaryCodec) : new JsonSerializer<>();
+    }
+    
+    private Deserializer<TransactionStatusUpdatedEvent> statusEventDeserializer() {
+        if (BINARY_CODEC.equals(transactionStatusUpdatedCodec)) {
+            return new ErrorHandlingDeserializer<>(new BinaryEventDeserializer<>(TransactionStatusUpdatedEventCodec.INSTANCE));
+        }
+        JsonDeserializer<TransactionStatusUpdatedEvent> jsonDeserializer =
+            new JsonDeserializer<>(TransactionStatusUpdatedEvent.class);
+        jsonDeserializer.addTrustedPackages("*");
+        return new ErrorHandlingDeserializer<>(jsonDeserializer);
+    }
 }
@@ -0,0 +1,19 @@
+package com.yape.challenge.transaction.infrastructure.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+// Sin Redis: cada lectura va a la base de datos. Pensado para pruebas de carga locales
+@Configuration
+@ConditionalOnProperty(value = "yape.cache.mode", havingValue = "none")
+public class NoOpCacheConfig {
+    
+    @Bean
+    public CacheManager cacheManager() {
+        return new NoOpCacheManager();
+    }
+}
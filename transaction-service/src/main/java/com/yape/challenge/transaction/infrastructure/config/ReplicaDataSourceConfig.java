@@ -0,0 +1,72 @@
+package com.yape.challenge.transaction.infrastructure.config;
+
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicaHealthMonitor;
+import com.yape.challenge.transaction.infrastructure.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+
+// Pool propio para las réplicas: los listados dejan de competir con las escrituras por las conexiones del
+// primario. Al declarar un DataSource Spring Boot deja de crear el suyo, por eso el primario se arma
+// aquí con las mismas propiedades spring.datasource.*
+@Configuration
+@ConditionalOnProperty(value = "yape.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Value("${yape.datasource.replica.lag-query:" + ReplicaHealthMonitor.POSTGRES_LAG_QUERY + "}")
+    private String lagQuery;
+
+    @Value("${yape.datasource.replica.max-lag-ms:1000}")
+    private long maxLagMs;
+
+    @Value("${yape.datasource.replica.health-check-timeout-seconds:2}")
+    private int healthCheckTimeoutSeconds;
+
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // yape.datasource.replica.url/username/password con el mismo formato que spring.datasource; el pool se
+    // configura en yape.datasource.replica.hikari
+    @Bean
+    @ConfigurationProperties("yape.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        DataSourceProperties replicaProperties = Binder.get(environment)
+            .bind("yape.datasource.replica", DataSourceProperties.class)
+            .orElseThrow(() -> new IllegalStateException("Falta la configuración yape.datasource.replica.url"));
+        return replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                     MeterRegistry meterRegistry) {
+        return new ReplicaHealthMonitor(replicaDataSource, lagQuery, maxLagMs, healthCheckTimeoutSeconds, meterRegistry);
+    }
+
+    // El DataSource que usan JPA, Flyway y los JdbcTemplate: Flyway y el arranque de Hibernate corren
+    // fuera de una transacción readOnly y siempre llegan al primario
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaHealthMonitor replicaHealthMonitor) {
+        return new LazyConnectionDataSourceProxy(
+            new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaHealthMonitor));
+    }
+}
@@ -0,0 +1,34 @@
+package com.yape.challenge.transaction.infrastructure.config;
+
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionStatusPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+
+// Cambios de estado aplicados por otras instancias, para sus suscriptores conectados a esta
+@Configuration
+@ConditionalOnProperty(value = "yape.cache.mode", havingValue = "redis", matchIfMissing = true)
+public class SubscriptionRelayConfig {
+
+    @Value("${yape.graphql.subscriptions.channel:yape:transaction:status}")
+    private String channel;
+
+    @Bean
+    public RedisMessageListenerContainer statusChangeListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       TransactionStatusPublisher transactionStatusPublisher) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> transactionStatusPublisher.onRelayMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(channel)
+        );
+        return container;
+    }
+}
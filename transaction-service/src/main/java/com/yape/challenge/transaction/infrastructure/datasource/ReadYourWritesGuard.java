@@ -0,0 +1,85 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+
+// Transacciones escritas hace menos de read-your-writes-ms: la réplica puede no tener todavía el INSERT o
+// el cambio de estado, así que su lectura por id, y los listados dentro de la ventana, van al primario.
+// Sin réplicas configuradas no registra nada
+@Component
+public class ReadYourWritesGuard {
+
+    // Con la ventana por defecto alcanza para 20.000 escrituras por segundo en la instancia
+    private static final int MAX_TRACKED_WRITES = 100_000;
+
+    @Value("${yape.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${yape.datasource.replica.read-your-writes-ms:5000}")
+    private long windowMs;
+
+    private Cache<UUID, Boolean> recentWrites;
+    private volatile long lastWriteNanos;
+
+    @PostConstruct
+    public void init() {
+        recentWrites = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_WRITES)
+            .expireAfterWrite(Duration.ofMillis(windowMs))
+            .build();
+    }
+
+    public void record(Collection<UUID> transactionExternalIds) {
+        if (!enabled || transactionExternalIds.isEmpty()) {
+            return;
+        }
+        transactionExternalIds.forEach(id -> recentWrites.put(id, Boolean.TRUE));
+        lastWriteNanos = System.nanoTime();
+    }
+
+    // La ventana empieza con el commit: antes la réplica tampoco puede tener la escritura
+    public void recordAfterCommit(Collection<UUID> transactionExternalIds) {
+        if (!enabled || transactionExternalIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(transactionExternalIds);
+                }
+            });
+        } else {
+            record(transactionExternalIds);
+        }
+    }
+
+    public boolean isRecent(UUID transactionExternalId) {
+        return enabled && recentWrites.getIfPresent(transactionExternalId) != null;
+    }
+
+    // Un listado leído de una réplica puede no incluir lo escrito dentro de la ventana
+    public boolean hasRecentWrites() {
+        return enabled && lastWriteNanos != 0 && System.nanoTime() - lastWriteNanos < Duration.ofMillis(windowMs).toNanos();
+    }
+
+    public <T> T read(UUID transactionExternalId, Supplier<T> read) {
+        return isRecent(transactionExternalId) ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+
+    // Un listado leído dentro de la ventana va al primario: así incluye esas escrituras y se puede cachear
+    public <T> T readListing(Supplier<T> read) {
+        return hasRecentWrites() ? ReplicaRoutingDataSource.onPrimary(read) : read.get();
+    }
+}
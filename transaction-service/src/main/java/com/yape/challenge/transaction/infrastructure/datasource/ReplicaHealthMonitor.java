@@ -0,0 +1,80 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+
+// Las réplicas reciben lecturas mientras responden y su retraso de replicación no supera max-lag-ms.
+// Arranca como no disponible: hasta la primera verificación todas las lecturas van al primario.
+// Con varios hosts en la URL cada verificación mide el de la conexión que entrega el pool
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    // Sin WAL recibido pendiente de aplicar la réplica está al día aunque la última transacción replicada
+    // sea antigua (primario sin escrituras); NULL si no se puede saber
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+        + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+        + "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile boolean available;
+    private volatile long lagMs = -1;
+
+    public ReplicaHealthMonitor(DataSource replicaDataSource, String lagQuery, long maxLagMs, int queryTimeoutSeconds,
+                                MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("yape.datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+            .description("1 si las lecturas readOnly van a las réplicas, 0 si vuelven al primario")
+            .register(meterRegistry);
+        Gauge.builder("yape.datasource.replica.lag", this, monitor -> monitor.lagMs)
+            .description("Retraso de replicación medido en la última verificación (ms, -1 si no se pudo medir)")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${yape.datasource.replica.health-check-interval-ms:2000}")
+    public void checkReplica() {
+        Long lag;
+        try {
+            lag = replicaJdbcTemplate.queryForObject(lagQuery, Long.class);
+        } catch (RuntimeException ex) {
+            markUnavailable(ex);
+            return;
+        }
+        if (lag == null) {
+            markUnavailable(new IllegalStateException("Retraso de replicación desconocido"));
+            return;
+        }
+        lagMs = lag;
+        boolean healthy = lag <= maxLagMs;
+        if (healthy && !available) {
+            log.info("Réplicas disponibles (retraso {} ms): las lecturas readOnly vuelven a las réplicas", lag);
+        } else if (!healthy && available) {
+            log.warn("Retraso de replicación {} ms supera el máximo {} ms: las lecturas vuelven al primario", lag, maxLagMs);
+        }
+        available = healthy;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    void markUnavailable(Exception cause) {
+        if (available) {
+            log.warn("Réplicas no disponibles, las lecturas vuelven al primario: {}", cause.getMessage());
+        }
+        available = false;
+        lagMs = -1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+
+// Las transacciones readOnly leen de las réplicas; las escrituras, lo que corre fuera de una transacción
+// y las lecturas que deben ver una escritura reciente van al primario. Debe quedar detrás de un
+// LazyConnectionDataSourceProxy: JpaTransactionManager pide la conexión al iniciar la transacción, antes
+// de publicar el flag readOnly, y el proxy la pide recién en la primera sentencia
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaHealthMonitor replicaHealthMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                    ReplicaHealthMonitor replicaHealthMonitor) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.replicaHealthMonitor = replicaHealthMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            return primaryDataSource.getConnection();
+        }
+        try {
+            return replicaDataSource.getConnection();
+        } catch (SQLException ex) {
+            // Sin esperar a la próxima verificación: esta lectura y las siguientes vuelven al primario
+            replicaHealthMonitor.markUnavailable(ex);
+            return primaryDataSource.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return routesToReplica()
+            ? replicaDataSource.getConnection(username, password)
+            : primaryDataSource.getConnection(username, password);
+    }
+
+    boolean routesToReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && !Boolean.TRUE.equals(PRIMARY_REQUIRED.get())
+            && replicaHealthMonitor.isAvailable();
+    }
+
+    // Solo tiene efecto si la transacción todavía no ejecutó ninguna sentencia: después la conexión ya está elegida
+    static <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+}
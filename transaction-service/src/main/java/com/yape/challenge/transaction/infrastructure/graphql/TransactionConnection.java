@@ -0,0 +1,39 @@
+package com.yape.challenge.transaction.infrastructure.graphql;
+
+import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionConnection {
+    private List<Edge> edges;
+    private PageInfo pageInfo;
+    private Long totalCount;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edge {
+        private String cursor;
+        private TransactionResponse node;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageInfo {
+        private boolean hasNextPage;
+        private boolean hasPreviousPage;
+        private String startCursor;
+        private String endCursor;
+    }
+}
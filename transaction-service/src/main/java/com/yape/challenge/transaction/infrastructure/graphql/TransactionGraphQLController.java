@@ -2,17 +2,31 @@ package com.yape.challenge.transaction.infrastructure.graphql;
 
 import com.yape.challenge.transaction.application.dto.CreateTransactionRequest;
 import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import com.yape.challenge.transaction.application.dto.TransactionSlice;
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
+import com.yape.challenge.transaction.application.service.AcceptedTransactionService;
+import com.yape.challenge.transaction.application.service.TransactionMapper;
 import com.yape.challenge.transaction.application.service.TransactionService;
+import com.yape.challenge.transaction.domain.model.TransactionDirection;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionSubscriptionRegistry;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 
@@ -23,11 +37,19 @@ import java.util.UUID;
 public class TransactionGraphQLController {
     
     private final TransactionService transactionService;
+    private final TransactionMapper transactionMapper;
+    private final PipelineMetrics pipelineMetrics;
+    private final TransactionSubscriptionRegistry transactionSubscriptionRegistry;
+    
+    // Presente solo con yape.transaction.write-mode=accepted
+    private final Optional<AcceptedTransactionService> acceptedTransactionService;
     
     @QueryMapping
     public TransactionResponse transaction(@Argument UUID id) {
         log.info("GraphQL Query: transaction({})", id);
-        return transactionService.getTransaction(id);
+        // Read-through: lo aceptado en el journal y aún no persistido se sirve desde memoria
+        return acceptedTransactionService.flatMap(service -> service.findPending(id))
+            .orElseGet(() -> transactionService.getTransaction(id));
     }
     
    
@@ -59,11 +81,110 @@ public class TransactionGraphQLController {
     }
     
    
+    @QueryMapping
+    public TransactionConnection transactionsConnection(
+        @Argument(name = "first") Integer first,
+        @Argument(name = "after") String after,
+        @Argument(name = "status") String status,
+        @Argument(name = "includeTotalCount") Boolean includeTotalCount
+    ) {
+        log.info("GraphQL Query: transactionsConnection(first={}, after={}, status={})", first, after, status);
+        
+        TransactionSlice slice = transactionService.getTransactionsAfter(status, after,
+            first != null ? first : 10, Boolean.TRUE.equals(includeTotalCount));
+        
+        return toConnection(slice, after);
+    }
+    
+    
+    // Extracto de una cuenta: una consulta keyset por página sobre los índices (cuenta, created_at, id)
+    @QueryMapping
+    public TransactionConnection transactionsByAccount(
+        @Argument(name = "accountId") UUID accountId,
+        @Argument(name = "direction") TransactionDirection direction,
+        @Argument(name = "from") OffsetDateTime from,
+        @Argument(name = "to") OffsetDateTime to,
+        @Argument(name = "first") Integer first,
+        @Argument(name = "after") String after
+    ) {
+        log.info("GraphQL Query: transactionsByAccount(accountId={}, direction={}, from={}, to={}, first={}, after={})",
+            accountId, direction, from, to, first, after);
+        
+        TransactionSlice slice = transactionService.getTransactionsByAccount(accountId, direction, from, to,
+            first != null ? first : 10, after);
+        return toConnection(slice, after);
+    }
+    
+    
+    // Reemplaza el polling de transaction(id): emite el estado final y termina
+    @SubscriptionMapping
+    public Flux<TransactionStatusChange> transactionStatusChanged(@Argument UUID id) {
+        log.info("GraphQL Subscription: transactionStatusChanged({})", id);
+        return transactionSubscriptionRegistry.subscribeTransaction(id, () -> Optional.of(transaction(id))
+            .filter(transaction -> !TransactionStatusCode.PENDING.getStatusName().equals(transaction.getStatus()))
+            .map(TransactionStatusChange::from));
+    }
+    
+    @SubscriptionMapping("transactionsByAccount")
+    public Flux<TransactionStatusChange> transactionStatusChangesByAccount(@Argument UUID accountId) {
+        log.info("GraphQL Subscription: transactionsByAccount({})", accountId);
+        return transactionSubscriptionRegistry.subscribeAccount(accountId);
+    }
+    
+    
+    // DataLoader: se invoca una sola vez por request con todos los Transaction del resultado,
+    // y solo si la consulta pide transactionType
+    @BatchMapping(typeName = "Transaction")
+    public List<TransactionResponse.TransactionTypeDto> transactionType(List<TransactionResponse> transactions) {
+        return transactionMapper.toTransactionTypes(transactions);
+    }
+    
+   
     @MutationMapping
     public TransactionResponse createTransaction(@Argument("input") @Valid CreateTransactionRequest input) {
         log.info("GraphQL Mutation: createTransaction(accountDebit={}, accountCredit={}, value={})",
             input.getAccountExternalIdDebit(), input.getAccountExternalIdCredit(), input.getValue());
         
-        return transactionService.createTransaction(input);
+        long start = System.nanoTime();
+        try {
+            return acceptedTransactionService.map(service -> service.accept(input))
+                .orElseGet(() -> transactionService.createTransaction(input));
+        } finally {
+            pipelineMetrics.recordSince(PipelineMetrics.Stage.GRAPHQL_MUTATION, start);
+        }
+    }
+    
+   
+    @MutationMapping
+    public List<TransactionResponse> createTransactions(@Argument("inputs") @Valid List<CreateTransactionRequest> inputs) {
+        log.info("GraphQL Mutation: createTransactions(count={})", inputs.size());
+        
+        long start = System.nanoTime();
+        try {
+            return acceptedTransactionService.map(service -> service.acceptAll(inputs))
+                .orElseGet(() -> transactionService.createTransactions(inputs));
+        } finally {
+            pipelineMetrics.recordSince(PipelineMetrics.Stage.GRAPHQL_MUTATION, start);
+        }
+    }
+    
+    private TransactionConnection toConnection(TransactionSlice slice, String after) {
+        List<TransactionConnection.Edge> edges = slice.getItems().stream()
+            .map(item -> TransactionConnection.Edge.builder()
+                .cursor(item.getCursor())
+                .node(item.getTransaction())
+                .build())
+            .toList();
+        
+        return TransactionConnection.builder()
+            .edges(edges)
+            .pageInfo(TransactionConnection.PageInfo.builder()
+                .hasNextPage(slice.isHasNext())
+                .hasPreviousPage(after != null && !after.isBlank())
+                .startCursor(edges.isEmpty() ? null : edges.get(0).getCursor())
+                .endCursor(edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor())
+                .build())
+            .totalCount(slice.getTotalCount())
+            .build();
     }
 }
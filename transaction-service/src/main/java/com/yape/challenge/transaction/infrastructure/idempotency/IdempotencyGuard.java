@@ -0,0 +1,203 @@
+package com.yape.challenge.transaction.infrastructure.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+
+// Filtro previo a la consulta por idempotencyKey: casi todas las claves son nuevas y el filtro de Bloom
+// lo confirma sin ir a la BD. Solo un probable acierto consulta la BD. Las claves que esta instancia no
+// conoce (de otra instancia o anteriores a la precarga) pasan como nuevas: la PK de idempotency_keys sigue
+// siendo el árbitro y TransactionService resuelve la violación devolviendo la transacción original.
+// Un filtro de Bloom no permite borrar: se rota por generaciones de retention-hours y se consultan la
+// actual y la anterior, así cada clave se recuerda al menos durante la retención y la memoria no crece
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyGuard {
+
+    public static final String LOOKUP_COUNTER = "yape.idempotency.guard.lookups";
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    // false: toda clave se consulta en la BD, como antes del filtro
+    @Value("${yape.transaction.idempotency.guard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${yape.transaction.idempotency.guard.expected-keys:1000000}")
+    private int expectedKeys;
+
+    @Value("${yape.transaction.idempotency.guard.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${yape.transaction.idempotency.guard.recent-size:100000}")
+    private int recentSize;
+
+    @Value("${yape.transaction.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    private volatile ScalableBloomFilter filter;
+    private volatile ScalableBloomFilter previousFilter;
+    private Cache<String, RecentKey> recentKeys;
+    private Counter skipped;
+    private Counter probed;
+    private Counter recentHits;
+
+    @PostConstruct
+    public void init() {
+        filter = new ScalableBloomFilter(expectedKeys, falsePositiveRate);
+        previousFilter = new ScalableBloomFilter(expectedKeys, falsePositiveRate);
+        // Pasada la retención la clave puede estar purgada y la BD aceptaría una transacción nueva con ella.
+        // El plazo se cuenta desde el created_at de la clave, no desde que entró al caché: las precargadas
+        // vencen cuando vence su fila
+        recentKeys = Caffeine.newBuilder()
+            .maximumSize(recentSize)
+            .expireAfter(new RetentionExpiry(Duration.ofHours(retentionHours)))
+            .build();
+        skipped = lookupCounter("skipped");
+        probed = lookupCounter("probed");
+        recentHits = lookupCounter("recent");
+    }
+
+    // Solo las claves dentro de la retención pueden repetirse; las que llegan mientras esto corre con el
+    // servidor ya aceptando peticiones las resuelve la PK
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        AtomicLong loaded = new AtomicLong();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<IdempotencyKey> keys = idempotencyKeyRepository
+                    .streamCreatedSince(OffsetDateTime.now().minusHours(retentionHours))) {
+                    keys.forEach(key -> {
+                        record(key.getIdempotencyKey(), key.getTransactionExternalId(), key.getCreatedAt());
+                        loaded.incrementAndGet();
+                    });
+                }
+            });
+            log.info("Filtro de idempotencia precargado con {} claves ({} bits)", loaded.get(), filter.bitSize());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo precargar el filtro de idempotencia tras {} claves; las faltantes se resuelven en BD",
+                loaded.get(), ex);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${yape.transaction.idempotency.retention-hours:24}",
+        initialDelayString = "${yape.transaction.idempotency.retention-hours:24}", timeUnit = TimeUnit.HOURS)
+    public void rotate() {
+        previousFilter = filter;
+        filter = new ScalableBloomFilter(expectedKeys, falsePositiveRate);
+        log.debug("Filtro de idempotencia rotado: la generación anterior ocupa {} bits", previousFilter.bitSize());
+    }
+
+    // Transacción ya conocida por esta instancia: se responde sin consultar la BD por la clave
+    public Optional<UUID> recentTransactionId(String idempotencyKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RecentKey recent = recentKeys.getIfPresent(idempotencyKey);
+        if (recent == null) {
+            return Optional.empty();
+        }
+        recentHits.increment();
+        return Optional.of(recent.transactionExternalId());
+    }
+
+    public boolean mightContain(String idempotencyKey) {
+        if (!enabled) {
+            return true;
+        }
+        boolean probable = filter.mightContain(idempotencyKey) || previousFilter.mightContain(idempotencyKey);
+        (probable ? probed : skipped).increment();
+        return probable;
+    }
+
+    public void record(String idempotencyKey, UUID transactionExternalId) {
+        record(idempotencyKey, transactionExternalId, OffsetDateTime.now());
+    }
+
+    public void record(String idempotencyKey, UUID transactionExternalId, OffsetDateTime createdAt) {
+        if (!enabled) {
+            return;
+        }
+        filter.put(idempotencyKey);
+        recentKeys.put(idempotencyKey, new RecentKey(transactionExternalId, createdAt));
+    }
+
+    // Un rollback no debe dejar una clave apuntando a una transacción inexistente
+    public void recordAfterCommit(Map<String, UUID> transactionIdsByKey) {
+        if (!enabled || transactionIdsByKey.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    transactionIdsByKey.forEach(IdempotencyGuard.this::record);
+                }
+            });
+        } else {
+            transactionIdsByKey.forEach(this::record);
+        }
+    }
+
+    private record RecentKey(UUID transactionExternalId, OffsetDateTime createdAt) {
+    }
+
+    // Vence al cumplirse la retención desde el created_at; una lectura no extiende el plazo
+    private record RetentionExpiry(Duration retention) implements Expiry<String, RecentKey> {
+
+        @Override
+        public long expireAfterCreate(String idempotencyKey, RecentKey recent, long currentTime) {
+            return Math.max(0, Duration.between(OffsetDateTime.now(), recent.createdAt().plus(retention)).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String idempotencyKey, RecentKey recent, long currentTime, long currentDuration) {
+            return expireAfterCreate(idempotencyKey, recent, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String idempotencyKey, RecentKey recent, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder(LOOKUP_COUNTER)
+            .description("Verificaciones de idempotencyKey según cómo se resolvieron")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.yape.challenge.transaction.infrastructure.idempotency;
+
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+
+
+// Retira de idempotency_keys las claves que salieron de la retención. Cada lote se confirma en su propia
+// transacción: la purga no retiene locks sobre la tabla mientras los INSERT siguen llegando.
+// No se particiona por tiempo para vencer con DROP: la PK de una tabla particionada debe incluir created_at
+// y la misma clave a ambos lados del corte entraría dos veces. La tabla plana guarda solo la ventana y cada
+// lote recorre idx_idempotency_keys_created_at desde el extremo antiguo
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.transaction.idempotency.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyKeyPurger {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${yape.transaction.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${yape.transaction.idempotency.purge.batch-size:5000}")
+    private int batchSize;
+
+
+    @Scheduled(fixedDelayString = "${yape.transaction.idempotency.purge.interval-ms:300000}")
+    public void purgeExpiredKeys() {
+        try {
+            int purged = purge(OffsetDateTime.now().minusHours(retentionHours));
+            if (purged > 0) {
+                log.info("Limpieza de idempotencia: {} claves vencidas eliminadas", purged);
+            }
+        } catch (Exception ex) {
+            log.error("Error purgando claves de idempotencia", ex);
+        }
+    }
+
+    int purge(OffsetDateTime createdBefore) {
+        int purged = 0;
+        // Seguir mientras los lotes vengan llenos
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteBatchCreatedBefore(createdBefore, batchSize));
+            purged += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == batchSize);
+        return purged;
+    }
+}
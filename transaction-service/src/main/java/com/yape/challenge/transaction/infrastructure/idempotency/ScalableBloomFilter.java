@@ -0,0 +1,108 @@
+package com.yape.challenge.transaction.infrastructure.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+// Filtro de Bloom escalable: cuando una etapa llega a su capacidad se agrega otra con el doble de capacidad
+// y la mitad de tasa de falsos positivos (p/2, p/4, ...), así la tasa total queda por debajo de
+// falsePositiveRate sin saber de antemano cuántas claves habrá. Sin falsos negativos: lo agregado siempre se encuentra
+public class ScalableBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final double falsePositiveRate;
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        if (initialCapacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Capacidad o tasa de falsos positivos inválida");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        stages.add(new Stage(initialCapacity, falsePositiveRate / 2));
+    }
+
+    public boolean mightContain(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(String key) {
+        long hash1 = hash(key);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        Stage current = stages.get(stages.size() - 1);
+        current.put(hash1, hash2);
+        if (current.count.incrementAndGet() == current.capacity) {
+            synchronized (stages) {
+                if (stages.get(stages.size() - 1) == current) {
+                    stages.add(new Stage(current.capacity * 2L, falsePositiveRate / Math.pow(2, stages.size() + 1)));
+                }
+            }
+        }
+    }
+
+    public long bitSize() {
+        return stages.stream().mapToLong(stage -> stage.bitCount).sum();
+    }
+
+    // FNV-1a sobre UTF-8 y mezcla final de splitmix64: dispersión suficiente para el doble hashing
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private static final class Stage {
+
+        private final int capacity;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = (int) Math.min(capacity, Integer.MAX_VALUE);
+            long optimalBits = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            this.bitCount = Math.max(64, (optimalBits + 63) / 64 * 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * LN2));
+            this.bits = new AtomicLongArray((int) (bitCount / 64));
+        }
+
+        // Doble hashing (Kirsch-Mitzenmacher): las k posiciones salen de dos hashes de 64 bits
+        private boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long index = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long index = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                long mask = 1L << index;
+                bits.getAndAccumulate((int) (index >>> 6), mask, (word, bit) -> word | bit);
+            }
+        }
+    }
+}
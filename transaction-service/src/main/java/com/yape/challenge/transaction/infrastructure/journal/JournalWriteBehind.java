@@ -0,0 +1,128 @@
+package com.yape.challenge.transaction.infrastructure.journal;
+
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
+import com.yape.challenge.transaction.application.service.AcceptedTransactionService;
+import com.yape.challenge.transaction.application.service.TransactionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+// Escritor diferido (group commit): vacía el journal a Postgres y al outbox por lotes, en orden,
+// y avanza el checkpoint solo después de cada commit
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.transaction.write-mode", havingValue = "accepted")
+public class JournalWriteBehind {
+
+    private final TransactionJournal transactionJournal;
+    private final TransactionService transactionService;
+    private final AcceptedTransactionService acceptedTransactionService;
+
+    @Value("${yape.transaction.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${yape.transaction.write-behind.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "transaction-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Lo que quede sin persistir se recupera del journal en el próximo arranque
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        while (running) {
+            List<TransactionJournal.Entry> batch;
+            try {
+                batch = transactionJournal.takeDurable(batchSize, 100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            List<AcceptedTransaction> transactions = batch.stream()
+                .map(TransactionJournal.Entry::transaction)
+                .toList();
+            if (!persist(transactions)) {
+                return;
+            }
+            // Ya están en la base: las lecturas dejan de servirse desde el journal aunque falle el checkpoint
+            try {
+                acceptedTransactionService.markPersisted(transactions);
+            } catch (RuntimeException ex) {
+                log.error("Error quitando del índice de pendientes {} transacciones ya persistidas", transactions.size(), ex);
+            }
+            if (!checkpoint(batch.get(batch.size() - 1))) {
+                return;
+            }
+        }
+    }
+
+    // Sin checkpoint un reinicio solo reprocesa lotes ya insertados (se omiten), pero los segmentos no se
+    // borran: se reintenta hasta que el disco lo acepte
+    private boolean checkpoint(TransactionJournal.Entry lastPersisted) {
+        while (running) {
+            try {
+                transactionJournal.checkpoint(lastPersisted);
+                return true;
+            } catch (RuntimeException ex) {
+                log.error("Error escribiendo el checkpoint del journal, se reintentará", ex);
+                if (!backOff()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Reintenta el mismo lote hasta que la base de datos lo acepte: el orden del journal no se rompe
+    private boolean persist(List<AcceptedTransaction> transactions) {
+        while (running) {
+            try {
+                int inserted = transactionService.persistAccepted(transactions);
+                log.debug("Journal: {} de {} transacciones persistidas", inserted, transactions.size());
+                return true;
+            } catch (RuntimeException ex) {
+                log.error("Error persistiendo lote de {} transacciones del journal, se reintentará", transactions.size(), ex);
+                if (!backOff()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean backOff() {
+        try {
+            Thread.sleep(retryBackoffMs);
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
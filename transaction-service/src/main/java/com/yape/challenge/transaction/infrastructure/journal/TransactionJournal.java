@@ -0,0 +1,502 @@
+package com.yape.challenge.transaction.infrastructure.journal;
+
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+
+// Write-ahead journal en segmentos mapeados en memoria. Cada registro es [longitud][crc32][payload];
+// un hilo agrupa los fsync de todas las escrituras llegadas en la ventana (group commit).
+// Un lote cuyo fsync falla o que se descarta antes de confirmarse queda anulado: se quita de lo pendiente
+// y su crc se guarda invertido, así tampoco se recupera al reiniciar
+@Slf4j
+public class TransactionJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+
+    // En orden de journal: entradas escritas y aún no confirmadas en base de datos
+    private final ArrayDeque<Entry> unpersisted = new ArrayDeque<>();
+    // Lotes esperando el próximo fsync y lotes cubiertos por el fsync en curso
+    private final List<PendingSync> awaitingSync = new ArrayList<>();
+    private final List<PendingSync> syncing = new ArrayList<>();
+    // Segmentos con anulaciones aún no sincronizadas
+    private final Set<MappedByteBuffer> dirtySegments = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long nextSequence;
+    private long durableSequence = -1;
+
+    private long segmentId;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+
+    private final Thread syncThread;
+    private volatile boolean closed;
+
+    public TransactionJournal(Path directory, int segmentSize, long fsyncIntervalMicros) {
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Tamaño de segmento inválido: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalNanos = TimeUnit.MICROSECONDS.toNanos(fsyncIntervalMicros);
+
+        try {
+            Files.createDirectories(directory);
+            long lastSegmentId = replay();
+            openSegment(lastSegmentId + 1);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo abrir el journal en " + directory, ex);
+        }
+
+        this.syncThread = new Thread(this::syncLoop, "transaction-journal-sync");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    // El futuro se completa cuando el registro está en disco; antes de eso no debe confirmarse al cliente
+    public CompletableFuture<Void> append(AcceptedTransaction transaction) {
+        return appendAll(List.of(transaction));
+    }
+
+    // Todo o nada: los registros se codifican y se valida que quepan en un segmento antes de escribir el
+    // primero, y la rotación (lo único que puede fallar) ocurre antes de escribir. El futuro se completa
+    // cuando el último registro, y por lo tanto todo el lote, está en disco
+    public CompletableFuture<Void> appendAll(List<AcceptedTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<byte[]> payloads = new ArrayList<>(transactions.size());
+        int[] checksums = new int[transactions.size()];
+        long totalSize = 0;
+        CRC32 crc = new CRC32();
+        for (AcceptedTransaction transaction : transactions) {
+            byte[] payload = encode(transaction);
+            crc.reset();
+            crc.update(payload);
+            checksums[payloads.size()] = (int) crc.getValue();
+            payloads.add(payload);
+            totalSize += RECORD_HEADER_SIZE + payload.length;
+        }
+        if (totalSize > segmentSize) {
+            throw new IllegalArgumentException("Lote de " + totalSize + " bytes excede el segmento del journal");
+        }
+
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("El journal está cerrado");
+            }
+            if (segment.remaining() < totalSize) {
+                rollSegment();
+            }
+            long firstSequence = nextSequence;
+            int startOffset = segment.position();
+            for (int i = 0; i < payloads.size(); i++) {
+                byte[] payload = payloads.get(i);
+                segment.putInt(payload.length).putInt(checksums[i]).put(payload);
+                unpersisted.addLast(new Entry(nextSequence++, segmentId, segment.position(), transactions.get(i)));
+            }
+            awaitingSync.add(new PendingSync(synced, firstSequence, nextSequence - 1, segment, startOffset,
+                segment.position()));
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        return synced;
+    }
+
+    // Anula un lote cuyo fsync no se confirmó a tiempo. Devuelve false si el lote ya es durable y debe
+    // confirmarse. Si el fsync en curso lo cubre, el registro puede llegar a disco antes que la anulación:
+    // un reinicio en ese intervalo lo recupera, por eso el cliente debe reintentar con su idempotencyKey
+    public boolean discard(CompletableFuture<Void> synced) {
+        lock.lock();
+        try {
+            PendingSync pending = find(awaitingSync, synced);
+            if (pending == null) {
+                pending = find(syncing, synced);
+            }
+            if (pending == null) {
+                // Ya resuelto por el hilo de sincronización
+                return synced.isCompletedExceptionally();
+            }
+            awaitingSync.remove(pending);
+            syncing.remove(pending);
+            annul(pending);
+            synced.completeExceptionally(new IllegalStateException("Lote del journal descartado sin confirmar el fsync"));
+            appended.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Entregan al escritor en orden de journal solo entradas ya sincronizadas a disco
+    public List<Entry> takeDurable(int maxEntries, long timeoutMs) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (!hasDurableEntry()) {
+                if (closed || remaining <= 0) {
+                    return List.of();
+                }
+                remaining = durable.awaitNanos(remaining);
+            }
+            List<Entry> batch = new ArrayList<>(Math.min(maxEntries, unpersisted.size()));
+            while (batch.size() < maxEntries && hasDurableEntry()) {
+                batch.add(unpersisted.pollFirst());
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<AcceptedTransaction> pendingTransactions() {
+        lock.lock();
+        try {
+            return unpersisted.stream().map(Entry::transaction).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Marca como persistido todo lo anterior a la entrada (inclusive) y borra los segmentos ya cubiertos
+    public void checkpoint(Entry lastPersisted) {
+        try {
+            Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.allocate(12).putLong(lastPersisted.segmentId())
+                    .putInt(lastPersisted.endOffset()).flip());
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+
+            for (Path segmentPath : listSegments()) {
+                if (segmentIdOf(segmentPath) < lastPersisted.segmentId()) {
+                    Files.deleteIfExists(segmentPath);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir el checkpoint del journal", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segment.force();
+            segmentChannel.close();
+        } catch (IOException ex) {
+            log.warn("Error cerrando el segmento {} del journal", segmentId, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            lock.lock();
+            try {
+                while (awaitingSync.isEmpty() && dirtySegments.isEmpty() && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (awaitingSync.isEmpty() && dirtySegments.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Ventana de agrupación: las escrituras que lleguen mientras tanto comparten el mismo fsync
+            if (fsyncIntervalNanos > 0) {
+                LockSupport.parkNanos(fsyncIntervalNanos);
+            }
+
+            long sequence;
+            List<MappedByteBuffer> toForce;
+            lock.lock();
+            try {
+                syncing.addAll(awaitingSync);
+                awaitingSync.clear();
+                sequence = nextSequence - 1;
+                // Los segmentos anteriores se sincronizaron al rotar, basta con el actual y los que tengan anulaciones
+                dirtySegments.add(segment);
+                toForce = new ArrayList<>(dirtySegments);
+                dirtySegments.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+            try {
+                toForce.forEach(MappedByteBuffer::force);
+            } catch (RuntimeException ex) {
+                log.error("Error sincronizando el journal a disco", ex);
+                failure = ex;
+            }
+
+            lock.lock();
+            try {
+                if (failure == null) {
+                    durableSequence = sequence;
+                    syncing.forEach(pending -> pending.synced().complete(null));
+                } else {
+                    // Sin fsync confirmado el cliente recibe un error: esos registros no deben persistirse después
+                    for (PendingSync pending : syncing) {
+                        annul(pending);
+                        pending.synced().completeExceptionally(failure);
+                    }
+                }
+                syncing.clear();
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Con el lock tomado: quita el lote de lo pendiente e invierte el crc de sus registros en el segmento
+    private void annul(PendingSync pending) {
+        unpersisted.removeIf(entry -> entry.sequence() >= pending.firstSequence()
+            && entry.sequence() <= pending.lastSequence());
+        MappedByteBuffer target = pending.segment();
+        int offset = pending.startOffset();
+        while (offset < pending.endOffset()) {
+            int length = target.getInt(offset);
+            target.putInt(offset + 4, ~target.getInt(offset + 4));
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        dirtySegments.add(target);
+    }
+
+    private static PendingSync find(List<PendingSync> batches, CompletableFuture<Void> synced) {
+        for (PendingSync pending : batches) {
+            if (pending.synced() == synced) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasDurableEntry() {
+        Entry first = unpersisted.peekFirst();
+        return first != null && first.sequence() <= durableSequence;
+    }
+
+    private void rollSegment() {
+        try {
+            segment.force();
+            segmentChannel.close();
+            openSegment(segmentId + 1);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo rotar el segmento del journal", ex);
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        segmentChannel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentId = id;
+    }
+
+    // Relee desde el último checkpoint; las entradas recuperadas ya están en disco y quedan pendientes de
+    // persistir. Siempre se escribe en un segmento nuevo para no continuar detrás de un registro truncado
+    private long replay() throws IOException {
+        long checkpointSegment = -1;
+        int checkpointOffset = 0;
+        Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointPath)) {
+            ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointPath));
+            checkpointSegment = checkpoint.getLong();
+            checkpointOffset = checkpoint.getInt();
+        }
+
+        long lastSegmentId = checkpointSegment;
+        for (Path segmentPath : listSegments()) {
+            long id = segmentIdOf(segmentPath);
+            lastSegmentId = Math.max(lastSegmentId, id);
+            if (id < checkpointSegment) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.position(id == checkpointSegment ? checkpointOffset : 0);
+                readSegment(id, buffer);
+            }
+        }
+
+        durableSequence = nextSequence - 1;
+        if (!unpersisted.isEmpty()) {
+            log.info("Journal: {} transacciones aceptadas pendientes de persistir tras el reinicio", unpersisted.size());
+        }
+        return lastSegmentId;
+    }
+
+    private void readSegment(long id, ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() == ~checksum) {
+                continue; // Lote anulado: nunca se confirmó al cliente
+            }
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Registro corrupto en el segmento {} del journal, se descarta el resto", id);
+                return;
+            }
+            unpersisted.addLast(new Entry(nextSequence++, id, buffer.position(), decode(payload)));
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIdOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static byte[] encode(AcceptedTransaction transaction) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeUuid(out, transaction.transactionExternalId());
+            writeUuid(out, transaction.accountExternalIdDebit());
+            writeUuid(out, transaction.accountExternalIdCredit());
+            out.writeInt(transaction.transferTypeId());
+            byte[] unscaled = transaction.value().unscaledValue().toByteArray();
+            out.writeInt(transaction.value().scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+            out.writeLong(ChronoUnit.MICROS.between(Instant.EPOCH, transaction.acceptedAt().toInstant()));
+            if (transaction.idempotencyKey() == null) {
+                out.writeShort(-1);
+            } else {
+                byte[] key = transaction.idempotencyKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(key.length);
+                out.write(key);
+            }
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static AcceptedTransaction decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            UUID transactionExternalId = readUuid(in);
+            UUID accountExternalIdDebit = readUuid(in);
+            UUID accountExternalIdCredit = readUuid(in);
+            int transferTypeId = in.readInt();
+            int scale = in.readInt();
+            byte[] unscaled = in.readNBytes(in.readShort());
+            OffsetDateTime acceptedAt = Instant.EPOCH.plus(in.readLong(), ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+            short keyLength = in.readShort();
+            String idempotencyKey = keyLength < 0 ? null : new String(in.readNBytes(keyLength), StandardCharsets.UTF_8);
+            return new AcceptedTransaction(transactionExternalId, idempotencyKey, accountExternalIdDebit,
+                accountExternalIdCredit, transferTypeId, new BigDecimal(new BigInteger(unscaled), scale), acceptedAt);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    public record Entry(long sequence, long segmentId, int endOffset, AcceptedTransaction transaction) {
+    }
+
+    // Registros de un append, contiguos en un mismo segmento
+    private record PendingSync(CompletableFuture<Void> synced, long firstSequence, long lastSequence,
+                               MappedByteBuffer segment, int startOffset, int endOffset) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.yape.challenge.transaction.infrastructure.kafka;
 
 import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,19 +18,22 @@ import java.util.concurrent.CompletableFuture;
 public class TransactionEventProducer {
     
     private final KafkaTemplate<String, TransactionCreatedEvent> kafkaTemplate;
+    private final PipelineMetrics pipelineMetrics;
     
     @Value("${yape.kafka.topics.transaction-created}")
     private String transactionCreatedTopic;
     
     
-    public void sendTransactionCreatedEvent(TransactionCreatedEvent event) {
+    public CompletableFuture<SendResult<String, TransactionCreatedEvent>> sendTransactionCreatedEvent(TransactionCreatedEvent event) {
         log.info("Enviando evento de transacción creada para: {}", event.getTransactionExternalId());
         
+        long start = System.nanoTime();
         CompletableFuture<SendResult<String, TransactionCreatedEvent>> future = 
             kafkaTemplate.send(transactionCreatedTopic, event.getTransactionExternalId().toString(), event);
         
         future.whenComplete((result, ex) -> {
             if (ex == null) {
+                pipelineMetrics.recordSince(PipelineMetrics.Stage.KAFKA_PUBLISH_ACK, start);
                 log.info("Evento de transacción creada enviado exitosamente", 
                     event.getTransactionExternalId(), 
                     result.getRecordMetadata().partition());
@@ -37,5 +41,7 @@ public class TransactionEventProducer {
                 log.error("Error al enviar evento de transacción creada", event.getTransactionExternalId(), ex);
             }
         });
+        
+        return future;
     }
 }
@@ -0,0 +1,107 @@
+package com.yape.challenge.transaction.infrastructure.kafka;
+
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import com.yape.challenge.transaction.application.dto.StatusUpdate;
+import com.yape.challenge.transaction.application.dto.StatusUpdateOutcome;
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
+import com.yape.challenge.transaction.application.service.TransactionService;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionStatusPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.kafka.status-consumer.mode", havingValue = "batch")
+public class TransactionStatusBatchConsumer {
+    
+    static final String DLT_REASON_HEADER = "yape-dlt-reason";
+    
+    private final TransactionService transactionService;
+    private final PipelineMetrics pipelineMetrics;
+    private final DeadLetterPublishingRecoverer statusDeadLetterRecoverer;
+    private final TransactionStatusPublisher transactionStatusPublisher;
+    
+    
+    @KafkaListener(
+        topics = "${yape.kafka.topics.transaction-status-updated}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeTransactionStatusUpdatedEvents(List<ConsumerRecord<String, TransactionStatusUpdatedEvent>> records) {
+        log.info("Recibido lote de {} eventos de actualización de estado", records.size());
+        
+        Map<UUID, StatusUpdate> updates = new LinkedHashMap<>();
+        List<ConsumerRecord<String, TransactionStatusUpdatedEvent>> applicable = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, TransactionStatusUpdatedEvent> record : records) {
+            TransactionStatusUpdatedEvent event = record.value();
+            if (event == null || event.getTransactionExternalId() == null || event.getStatus() == null) {
+                // Payload no deserializable: el recoverer reenvía los bytes originales que el
+                // ErrorHandlingDeserializer dejó en las cabeceras
+                sendToDeadLetter(record, "DESERIALIZATION");
+                continue;
+            }
+            updates.putIfAbsent(event.getTransactionExternalId(),
+                new StatusUpdate(toStatusCode(event.getStatus()), event.getTransactionCreatedAt()));
+            applicable.add(record);
+        }
+        
+        // Si la base de datos falla se relanza y el error handler reintenta el lote completo;
+        // reaplicarlo es seguro porque el UPDATE solo afecta filas todavía pendientes
+        long start = System.nanoTime();
+        Map<UUID, StatusUpdateOutcome> outcomes = transactionService.updateTransactionStatuses(updates);
+        pipelineMetrics.recordSince(PipelineMetrics.Stage.STATUS_UPDATE_COMMIT, start);
+        
+        Map<UUID, TransactionStatusChange> changes = new LinkedHashMap<>();
+        for (ConsumerRecord<String, TransactionStatusUpdatedEvent> record : applicable) {
+            TransactionStatusUpdatedEvent event = record.value();
+            StatusUpdateOutcome outcome = outcomes.get(event.getTransactionExternalId());
+            if (updates.get(event.getTransactionExternalId()).status() != toStatusCode(event.getStatus())) {
+                outcome = StatusUpdateOutcome.CONFLICT; // Dos estados distintos para la misma transacción en el lote
+            }
+            if (outcome == StatusUpdateOutcome.UPDATED) {
+                pipelineMetrics.recordCreatedToDecided(event.getTransactionCreatedAt());
+                // El mismo evento repetido en el lote se notifica una sola vez
+                changes.putIfAbsent(event.getTransactionExternalId(),
+                    TransactionStatusChange.from(event, toStatusCode(event.getStatus())));
+            } else if (outcome != StatusUpdateOutcome.DUPLICATE) {
+                log.warn("Evento de estado de transacción {} no aplicado ({}), se envía al DLT",
+                    event.getTransactionExternalId(), outcome);
+                sendToDeadLetter(record, String.valueOf(outcome));
+            }
+        }
+        transactionStatusPublisher.publish(List.copyOf(changes.values()));
+    }
+    
+    // El recoverer espera la confirmación del envío: los offsets del lote solo se confirman cuando el DLT
+    // tiene todos los eventos no aplicados, y si el envío falla el error handler reintenta el lote
+    private void sendToDeadLetter(ConsumerRecord<String, TransactionStatusUpdatedEvent> record, String reason) {
+        record.headers().remove(DLT_REASON_HEADER);
+        record.headers().add(DLT_REASON_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+        statusDeadLetterRecoverer.accept(record, null,
+            new IllegalStateException("Evento de estado no aplicado: " + reason));
+    }
+    
+    private TransactionStatusCode toStatusCode(TransactionStatusUpdatedEvent.TransactionStatus status) {
+        return switch (status) {
+            case PENDING -> TransactionStatusCode.PENDING;
+            case APPROVED -> TransactionStatusCode.APPROVED;
+            case REJECTED -> TransactionStatusCode.REJECTED;
+        };
+    }
+}
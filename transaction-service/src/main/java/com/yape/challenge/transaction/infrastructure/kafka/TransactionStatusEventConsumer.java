@@ -1,22 +1,34 @@
 package com.yape.challenge.transaction.infrastructure.kafka;
 
 import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import com.yape.challenge.transaction.application.dto.StatusUpdate;
+import com.yape.challenge.transaction.application.dto.StatusUpdateOutcome;
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
 import com.yape.challenge.transaction.application.service.TransactionService;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionStatusPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(value = "yape.kafka.status-consumer.mode", havingValue = "record", matchIfMissing = true)
 public class TransactionStatusEventConsumer {
     
     private final TransactionService transactionService;
+    private final PipelineMetrics pipelineMetrics;
+    private final TransactionStatusPublisher transactionStatusPublisher;
     
     
     @KafkaListener(
@@ -34,14 +46,31 @@ public class TransactionStatusEventConsumer {
         
         try {
             // Actualizar estado de transacción
-            String statusName = event.getStatus().name().toLowerCase();
-            transactionService.updateTransactionStatus(event.getTransactionExternalId(), statusName);
+            // Las reentregas y eventos tardíos devuelven DUPLICATE/CONFLICT sin lanzar excepción ni reintentar
+            long start = System.nanoTime();
+            TransactionStatusCode status = toStatusCode(event.getStatus());
+            StatusUpdateOutcome outcome = transactionService.updateTransactionStatus(event.getTransactionExternalId(),
+                new StatusUpdate(status, event.getTransactionCreatedAt()));
+            pipelineMetrics.recordSince(PipelineMetrics.Stage.STATUS_UPDATE_COMMIT, start);
+            if (outcome == StatusUpdateOutcome.UPDATED) {
+                pipelineMetrics.recordCreatedToDecided(event.getTransactionCreatedAt());
+                // Solo los cambios aplicados: una reentrega no vuelve a notificar a los suscriptores
+                transactionStatusPublisher.publish(List.of(TransactionStatusChange.from(event, status)));
+            }
             
-            log.info("Estado de transacción actualizado exitosamente: {}", event.getTransactionExternalId());
+            log.info("Evento de estado procesado: {} ({})", event.getTransactionExternalId(), outcome);
         } catch (Exception ex) {
             log.error("Error procesando evento de actualización de estado: {}", event.getTransactionExternalId(), ex);
             // En producción, implementar estrategia de manejo de errores (reintentos, DLQ, etc.)
             throw ex; // Re-lanzar para activar mecanismo de reintento de Kafka
         }
     }
+    
+    private TransactionStatusCode toStatusCode(TransactionStatusUpdatedEvent.TransactionStatus status) {
+        return switch (status) {
+            case PENDING -> TransactionStatusCode.PENDING;
+            case APPROVED -> TransactionStatusCode.APPROVED;
+            case REJECTED -> TransactionStatusCode.REJECTED;
+        };
+    }
 }
@@ -0,0 +1,53 @@
+package com.yape.challenge.transaction.infrastructure.metrics;
+
+import com.yape.challenge.shared.metrics.PipelineTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+// Un timer por tramo (tag stage) más el total de creación a decisión
+@Component
+public class PipelineMetrics {
+    
+    public static final String CREATED_TO_DECIDED_TIMER = "yape.pipeline.created.to.decided";
+    
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer createdToDecided;
+    
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, PipelineTimers.stage(meterRegistry, stage.tagValue));
+        }
+        this.createdToDecided = PipelineTimers.histogram(CREATED_TO_DECIDED_TIMER,
+                "Tiempo desde la creación de la transacción hasta que se aplica el estado final")
+            .register(meterRegistry);
+    }
+    
+    public void recordSince(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    // createdAt viene de la base de datos
+    public void recordCreatedToDecided(OffsetDateTime createdAt) {
+        PipelineTimers.recordSince(createdToDecided, createdAt);
+    }
+    
+    public enum Stage {
+        GRAPHQL_MUTATION("graphql-mutation"),
+        DB_INSERT("db-insert"),
+        KAFKA_PUBLISH_ACK("kafka-publish-ack"),
+        STATUS_UPDATE_COMMIT("status-update-commit");
+        
+        private final String tagValue;
+        
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+}
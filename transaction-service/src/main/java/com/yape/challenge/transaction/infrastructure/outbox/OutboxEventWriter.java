@@ -0,0 +1,52 @@
+package com.yape.challenge.transaction.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.transaction.domain.model.OutboxEvent;
+import com.yape.challenge.transaction.domain.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxEventWriter {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    // Debe ejecutarse dentro de la transacción que guarda la entidad para que ambos se confirmen juntos
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(TransactionCreatedEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+        log.debug("Evento de transacción creada registrado en outbox: {}", event.getTransactionExternalId());
+    }
+    
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<TransactionCreatedEvent> events) {
+        outboxEventRepository.saveAll(events.stream()
+            .map(this::toOutboxEvent)
+            .toList());
+        log.debug("{} eventos de transacción creada registrados en outbox", events.size());
+    }
+    
+    private OutboxEvent toOutboxEvent(TransactionCreatedEvent event) {
+        try {
+            return OutboxEvent.builder()
+                .aggregateId(event.getTransactionExternalId())
+                .eventType(OutboxEvent.TRANSACTION_CREATED)
+                .payload(objectMapper.writeValueAsString(event))
+                .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento: " + event.getTransactionExternalId(), ex);
+        }
+    }
+}
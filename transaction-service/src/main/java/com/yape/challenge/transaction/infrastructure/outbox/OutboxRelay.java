@@ -0,0 +1,173 @@
+package com.yape.challenge.transaction.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.transaction.domain.model.OutboxEvent;
+import com.yape.challenge.transaction.domain.repository.OutboxEventRepository;
+import com.yape.challenge.transaction.infrastructure.kafka.TransactionEventProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionEventProducer eventProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${yape.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${yape.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // Debe superar send-timeout-ms: mientras no vence, ninguna otra instancia toma las filas reclamadas
+    @Value("${yape.outbox.relay.claim-ttl-ms:30000}")
+    private long claimTtlMs;
+
+    @Value("${yape.outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${yape.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${yape.outbox.cleanup.retention-hours:24}")
+    private long retentionHours;
+
+
+    @Scheduled(fixedDelayString = "${yape.outbox.relay.poll-interval-ms:100}")
+    public void relayPendingEvents() {
+        try {
+            // Seguir drenando mientras los lotes vengan llenos
+            int claimed;
+            do {
+                List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+                claimed = batch == null ? 0 : batch.size();
+                if (claimed > 0) {
+                    relay(batch);
+                }
+            } while (claimed == batchSize);
+        } catch (Exception ex) {
+            log.error("Error publicando eventos del outbox", ex);
+        }
+    }
+
+
+    @Scheduled(cron = "${yape.outbox.cleanup.cron:0 0 * * * *}")
+    public void purgeSentEvents() {
+        OffsetDateTime sentBefore = OffsetDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteSentBefore(sentBefore));
+        log.info("Limpieza de outbox: {} eventos enviados eliminados", deleted);
+    }
+
+    // Transacción corta: los bloqueos de SKIP LOCKED se sueltan al anotar el reclamo, antes de hablar con Kafka
+    private List<OutboxEvent> claimNextBatch() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextClaimableBatch(now, batchSize);
+        if (!batch.isEmpty()) {
+            outboxEventRepository.claim(batch.stream().map(OutboxEvent::getId).toList(),
+                now.plus(claimTtlMs, ChronoUnit.MILLIS));
+        }
+        return batch;
+    }
+
+    private void relay(List<OutboxEvent> batch) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        Map<Long, String> failed = new LinkedHashMap<>();
+        for (OutboxEvent outboxEvent : batch) {
+            TransactionCreatedEvent event;
+            try {
+                event = decode(outboxEvent);
+            } catch (IllegalStateException | JsonProcessingException ex) {
+                // Un tipo desconocido o un payload ilegible no se arregla reintentando
+                log.error("Evento de outbox {} no publicable, se marca como fallido: {}", outboxEvent.getId(), ex.getMessage());
+                failed.put(outboxEvent.getId(), ex.getMessage());
+                futures.add(null);
+                continue;
+            }
+            try {
+                futures.add(eventProducer.sendTransactionCreatedEvent(event));
+            } catch (RuntimeException ex) {
+                futures.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+
+        // Esperar los acks de Kafka: solo se marcan como enviados los eventos confirmados por el broker.
+        // Los no confirmados se reintentan tras retry-backoff-ms (entrega at-least-once) hasta max-attempts
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<Long> retryIds = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent outboxEvent = batch.get(i);
+            if (futures.get(i) == null) {
+                continue;
+            }
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(outboxEvent.getId());
+            } catch (ExecutionException | TimeoutException ex) {
+                // attempts del lote es el valor previo al reclamo
+                if (outboxEvent.getAttempts() + 1 >= maxAttempts) {
+                    log.error("Evento de outbox {} sin confirmar tras {} intentos, se marca como fallido",
+                        outboxEvent.getId(), maxAttempts);
+                    failed.put(outboxEvent.getId(), String.valueOf(ex.getMessage()));
+                } else {
+                    log.warn("Evento de outbox {} no confirmado por Kafka, se reintentará: {}",
+                        outboxEvent.getId(), ex.getMessage());
+                    retryIds.add(outboxEvent.getId());
+                }
+            } catch (InterruptedException ex) {
+                // Lo que quede sin resolver se retoma cuando venza el reclamo
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxEventRepository.markAsSent(sentIds, now);
+            }
+            if (!retryIds.isEmpty()) {
+                outboxEventRepository.releaseForRetry(retryIds, now.plus(retryBackoffMs, ChronoUnit.MILLIS));
+            }
+            failed.forEach((id, error) -> outboxEventRepository.markAsFailed(id, now, truncate(error)));
+        });
+        log.debug("Relay de outbox: {} de {} eventos publicados", sentIds.size(), batch.size());
+    }
+
+    private TransactionCreatedEvent decode(OutboxEvent outboxEvent) throws JsonProcessingException {
+        if (!OutboxEvent.TRANSACTION_CREATED.equals(outboxEvent.getEventType())) {
+            throw new IllegalStateException("Tipo de evento de outbox desconocido: " + outboxEvent.getEventType());
+        }
+        return objectMapper.readValue(outboxEvent.getPayload(), TransactionCreatedEvent.class);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
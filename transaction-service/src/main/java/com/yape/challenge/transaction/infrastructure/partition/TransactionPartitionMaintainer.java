@@ -0,0 +1,189 @@
+package com.yape.challenge.transaction.infrastructure.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+// Mantiene las particiones mensuales de transactions (migración V6): crea por adelantado las de los
+// próximos meses y retira las que salen de la retención. Crear o separar una partición toma un lock
+// exclusivo sobre la tabla padre, por eso se hace con meses de anticipación, con lock_timeout y en
+// transacciones cortas: la creación se confirma sola y cada partición se retira en su propia transacción
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "yape.transaction.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionMaintainer {
+
+    static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Advisory lock de cada transacción de mantenimiento: con varias instancias solo una la ejecuta
+    private static final long MAINTENANCE_LOCK_ID = 6_022_001L;
+
+    // Un lote por sentencia, igual que la purga de idempotency_keys
+    private static final String RELEASE_KEYS_BATCH = "DELETE FROM transaction_keys WHERE transaction_external_id IN ("
+        + "SELECT transaction_external_id FROM transaction_keys WHERE created_at < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${yape.transaction.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    // 0 = sin retención: las particiones antiguas nunca se retiran
+    @Value("${yape.transaction.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    // detach: la partición queda como tabla independiente para archivarla | drop: se elimina
+    @Value("${yape.transaction.partitions.retention-action:detach}")
+    private String retentionAction;
+
+    @Value("${yape.transaction.partitions.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    @Value("${yape.transaction.partitions.key-release-batch-size:5000}")
+    private int keyReleaseBatchSize;
+
+
+    @Scheduled(fixedDelayString = "${yape.transaction.partitions.check-interval-ms:3600000}")
+    public void maintainPartitions() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        try {
+            transactionTemplate.executeWithoutResult(status -> premakePartitions(currentMonth));
+        } catch (Exception ex) {
+            // No hay partición DEFAULT: si esto falla hasta agotar premake-months, los INSERT del mes sin
+            // partición fallan. Se reintenta en la siguiente ejecución
+            log.error("Error creando las particiones de transacciones", ex);
+        }
+        if (retentionMonths <= 0) {
+            return;
+        }
+        try {
+            retireExpiredPartitions(currentMonth);
+            releaseExpiredKeys(currentMonth);
+        } catch (Exception ex) {
+            log.error("Error retirando las particiones de transacciones", ex);
+        }
+    }
+
+    void premakePartitions(YearMonth currentMonth) {
+        if (!lockMaintenance()) {
+            return;
+        }
+        Set<YearMonth> partitions = attachedPartitions();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            if (!partitions.contains(month)) {
+                createPartition(month);
+            }
+        }
+    }
+
+    // Una partición por transacción: el lock exclusivo del DETACH se libera con cada commit
+    void retireExpiredPartitions(YearMonth currentMonth) {
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        Boolean retired;
+        do {
+            retired = transactionTemplate.execute(status -> retireOldestExpired(oldestKept));
+        } while (Boolean.TRUE.equals(retired));
+    }
+
+    // Las claves de lo retirado se liberan después, fuera de cualquier lock sobre transactions y en lotes
+    // con commit propio. Se cubre todo lo anterior a la partición más antigua que sigue adjunta, así una
+    // liberación que quedó a medias se completa en la siguiente ejecución
+    int releaseExpiredKeys(YearMonth currentMonth) {
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        YearMonth oldestAttached = attachedPartitions().stream().findFirst().orElse(oldestKept);
+        LocalDateTime createdBefore = start(oldestAttached.isBefore(oldestKept) ? oldestAttached : oldestKept);
+
+        int released = 0;
+        // Seguir mientras los lotes vengan llenos
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                jdbcTemplate.update(RELEASE_KEYS_BATCH, createdBefore, keyReleaseBatchSize));
+            released += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == keyReleaseBatchSize);
+        if (released > 0) {
+            log.info("{} claves de particiones retiradas liberadas", released);
+        }
+        return released;
+    }
+
+    private boolean lockMaintenance() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+            MAINTENANCE_LOCK_ID);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Otra instancia está manteniendo las particiones de transacciones");
+            return false;
+        }
+        // Si hay consultas largas sobre la tabla es mejor fallar y reintentar que encolar a todo el tráfico
+        // detrás del lock exclusivo
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        return true;
+    }
+
+    private boolean retireOldestExpired(YearMonth oldestKept) {
+        if (!lockMaintenance()) {
+            return false;
+        }
+        Optional<YearMonth> expired = attachedPartitions().stream()
+            .filter(month -> month.isBefore(oldestKept))
+            .findFirst();
+        expired.ifPresent(this::retirePartition);
+        return expired.isPresent();
+    }
+
+    // Ordenadas de la más antigua a la más reciente
+    private Set<YearMonth> attachedPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'transactions'::regclass", String.class);
+        Set<YearMonth> months = new TreeSet<>();
+        for (String name : names) {
+            if (name.startsWith(PARTITION_PREFIX)) {
+                months.add(YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE " + partitionName(month)
+            + " PARTITION OF transactions FOR VALUES FROM ('" + start(month) + "') TO ('" + start(month.plusMonths(1)) + "')");
+        log.info("Partición {} creada", partitionName(month));
+    }
+
+    // DETACH ... CONCURRENTLY no corre dentro de una transacción, y el advisory lock vive en la transacción
+    private void retirePartition(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+        if ("drop".equals(retentionAction)) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        }
+        log.info("Partición {} retirada ({})", partition, retentionAction);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,99 @@
+package com.yape.challenge.transaction.infrastructure.subscription;
+
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+
+// Entrada de los consumidores de estado: entrega los cambios ya confirmados en BD a las suscripciones
+// locales y, con Redis, a las de las demás instancias (cada instancia solo consume sus particiones).
+// Un mensaje pub/sub por lote: "instancia" seguido de una línea "id|débito|crédito|estado|fecha" por cambio
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionStatusPublisher {
+
+    private static final String SEPARATOR = "|";
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final TransactionSubscriptionRegistry subscriptionRegistry;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // Sin Redis (yape.cache.mode=none) solo se notifica a los suscriptores de esta instancia
+    @Value("${yape.cache.mode:redis}")
+    private String cacheMode;
+
+    @Value("${yape.graphql.subscriptions.channel:yape:transaction:status}")
+    private String channel;
+
+    public void publish(List<TransactionStatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.forEach(subscriptionRegistry::publish);
+        if (!"redis".equals(cacheMode)) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(channel, instanceId + LINE_SEPARATOR + changes.stream()
+                .map(this::encode)
+                .collect(Collectors.joining(LINE_SEPARATOR)));
+        } catch (Exception ex) {
+            // El estado ya está en BD: un suscriptor de otra instancia lo verá al consultar la transacción
+            log.warn("No se pudieron difundir {} cambios de estado a las demás instancias", changes.size(), ex);
+        }
+    }
+
+    public void onRelayMessage(String message) {
+        String[] lines = message.split(LINE_SEPARATOR);
+        if (instanceId.equals(lines[0])) {
+            return; // Esta instancia ya los entregó al publicarlos
+        }
+        List<TransactionStatusChange> changes = new ArrayList<>(lines.length - 1);
+        try {
+            for (int i = 1; i < lines.length; i++) {
+                changes.add(decode(lines[i]));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Mensaje de cambios de estado inválido: {}", message, ex);
+            return;
+        }
+        changes.forEach(subscriptionRegistry::publish);
+    }
+
+    private String encode(TransactionStatusChange change) {
+        return change.getTransactionId() + SEPARATOR
+            + nullToEmpty(change.getAccountExternalIdDebit()) + SEPARATOR
+            + nullToEmpty(change.getAccountExternalIdCredit()) + SEPARATOR
+            + change.getStatus() + SEPARATOR
+            + change.getUpdatedAt();
+    }
+
+    private TransactionStatusChange decode(String line) {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Se esperaban 5 campos y hay " + parts.length);
+        }
+        return TransactionStatusChange.builder()
+            .transactionId(UUID.fromString(parts[0]))
+            .accountExternalIdDebit(parts[1].isEmpty() ? null : UUID.fromString(parts[1]))
+            .accountExternalIdCredit(parts[2].isEmpty() ? null : UUID.fromString(parts[2]))
+            .status(parts[3])
+            .updatedAt(OffsetDateTime.parse(parts[4]))
+            .build();
+    }
+
+    private static String nullToEmpty(UUID value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,169 @@
+package com.yape.challenge.transaction.infrastructure.subscription;
+
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+// Fan-out de cambios de estado hacia las suscripciones GraphQL de esta instancia. Indexado por transacción
+// y por cuenta: cada evento llega solo a sus interesados sin recorrer al resto de suscriptores
+@Component
+@Slf4j
+public class TransactionSubscriptionRegistry {
+
+    public static final String ACTIVE_GAUGE = "yape.graphql.subscriptions.active";
+    public static final String OVERFLOW_COUNTER = "yape.graphql.subscriptions.overflow";
+
+    // Eventos pendientes por suscriptor (además de la cola del transporte WebSocket). Quien no los
+    // consume a tiempo pierde la suscripción en lugar de frenar al consumidor de Kafka
+    @Value("${yape.graphql.subscriptions.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${yape.graphql.subscriptions.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    private final Map<UUID, Set<Subscriber>> byTransaction = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicInteger activeSubscribers = new AtomicInteger();
+    private final Counter overflows;
+
+    public TransactionSubscriptionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder(ACTIVE_GAUGE, activeSubscribers, AtomicInteger::get)
+            .description("Suscripciones GraphQL activas en esta instancia")
+            .register(meterRegistry);
+        this.overflows = Counter.builder(OVERFLOW_COUNTER)
+            .description("Suscripciones cortadas por no consumir sus eventos a tiempo")
+            .register(meterRegistry);
+    }
+
+    // Termina con el primer estado final. current se consulta ya registrado el suscriptor: si la transacción
+    // se decidió antes de suscribirse no se queda esperando un evento que ya pasó
+    public Flux<TransactionStatusChange> subscribeTransaction(UUID transactionId,
+                                                              Supplier<Optional<TransactionStatusChange>> current) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = register(byTransaction, transactionId, true);
+            try {
+                current.get().ifPresent(subscriber::emit);
+            } catch (RuntimeException ex) {
+                unregister(subscriber);
+                return Flux.error(ex);
+            }
+            return subscriber.flux();
+        });
+    }
+
+    public Flux<TransactionStatusChange> subscribeAccount(UUID accountId) {
+        return Flux.defer(() -> register(byAccount, accountId, false).flux());
+    }
+
+    public void publish(TransactionStatusChange change) {
+        deliver(byTransaction, change.getTransactionId(), change);
+        deliver(byAccount, change.getAccountExternalIdDebit(), change);
+        if (change.getAccountExternalIdCredit() != null
+            && !change.getAccountExternalIdCredit().equals(change.getAccountExternalIdDebit())) {
+            deliver(byAccount, change.getAccountExternalIdCredit(), change);
+        }
+    }
+
+    private void deliver(Map<UUID, Set<Subscriber>> index, UUID key, TransactionStatusChange change) {
+        if (key == null) {
+            return; // Eventos de productores anteriores a la versión 3 no traen las cuentas
+        }
+        Set<Subscriber> subscribers = index.get(key);
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.emit(change));
+        }
+    }
+
+    private Subscriber register(Map<UUID, Set<Subscriber>> index, UUID key, boolean completeOnFinalStatus) {
+        if (activeSubscribers.incrementAndGet() > maxSubscribers) {
+            activeSubscribers.decrementAndGet();
+            throw new IllegalStateException("Se alcanzó el máximo de " + maxSubscribers + " suscripciones en esta instancia");
+        }
+        Subscriber subscriber = new Subscriber(index, key, completeOnFinalStatus,
+            Sinks.many().unicast().onBackpressureBuffer(Queues.<TransactionStatusChange>get(bufferSize).get()));
+        // compute y computeIfPresent son atómicos por clave: un alta nunca cae en un conjunto recién descartado
+        index.compute(key, (id, subscribers) -> {
+            Set<Subscriber> target = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        return subscriber;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.registered.compareAndSet(true, false)) {
+            return;
+        }
+        subscriber.index.computeIfPresent(subscriber.key, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        activeSubscribers.decrementAndGet();
+    }
+
+    private final class Subscriber {
+
+        private final Map<UUID, Set<Subscriber>> index;
+        private final UUID key;
+        private final boolean completeOnFinalStatus;
+        private final Sinks.Many<TransactionStatusChange> sink;
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+
+        private Subscriber(Map<UUID, Set<Subscriber>> index, UUID key, boolean completeOnFinalStatus,
+                           Sinks.Many<TransactionStatusChange> sink) {
+            this.index = index;
+            this.key = key;
+            this.completeOnFinalStatus = completeOnFinalStatus;
+            this.sink = sink;
+        }
+
+        private Flux<TransactionStatusChange> flux() {
+            return sink.asFlux().doFinally(signal -> unregister(this));
+        }
+
+        private void emit(TransactionStatusChange change) {
+            Sinks.EmitResult result = emitSerialized(() -> sink.tryEmitNext(change));
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                // Se da de baja ya: el error solo llega al cliente cuando drene lo que tiene en cola
+                unregister(this);
+                overflows.increment();
+                emitSerialized(() -> sink.tryEmitError(
+                    new IllegalStateException("Suscripción cancelada: el cliente no consume los eventos a tiempo")));
+                log.warn("Suscripción a {} cortada por exceder {} eventos pendientes", key, bufferSize);
+            } else if (result.isSuccess() && completeOnFinalStatus
+                && !TransactionStatusCode.PENDING.getStatusName().equals(change.getStatus())) {
+                unregister(this);
+                emitSerialized(sink::tryEmitComplete);
+            }
+        }
+
+        // Varios consumidores de Kafka pueden publicar a la vez para la misma cuenta; el sink exige
+        // emisiones serializadas y la contención dura lo que tarda un encolado
+        private Sinks.EmitResult emitSerialized(Supplier<Sinks.EmitResult> emission) {
+            Sinks.EmitResult result = emission.get();
+            while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+                result = emission.get();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Cambiar la generación de IDs de IDENTITY a secuencia con optimizador pooled.
+-- Con IDENTITY Hibernate desactiva el batching de INSERTs; con la secuencia reserva
+-- bloques de 50 IDs en una sola llamada y puede agrupar los INSERTs en lotes JDBC.
+-- La secuencia ya existe porque la columna se creó como BIGSERIAL.
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
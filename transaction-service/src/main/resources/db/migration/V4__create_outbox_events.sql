@@ -0,0 +1,19 @@
+-- Tabla outbox: los eventos se guardan en la misma transacción que la entidad
+-- y un relay en segundo plano los publica en Kafka (evita la doble escritura BD/Kafka)
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Reservar IDs en bloques de 50 para que los INSERTs del outbox también se agrupen en lotes JDBC
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
+
+-- Índice parcial: el relay solo recorre eventos pendientes, así el índice se mantiene pequeño
+CREATE INDEX idx_outbox_pending ON outbox_events(id) WHERE sent_at IS NULL;
+
+-- Índice para la limpieza periódica de eventos ya enviados
+CREATE INDEX idx_outbox_sent_at ON outbox_events(sent_at) WHERE sent_at IS NOT NULL;
@@ -0,0 +1,12 @@
+-- Historial por cuenta: igualdad en la cuenta y recorrido ya ordenado por (created_at, id), sin sort.
+-- El costo de cada página depende del tamaño de la página y no del total de filas de la tabla.
+-- INCLUDE agrega las columnas que lee la consulta (TransactionView): se resuelve con index-only scan
+CREATE INDEX idx_account_debit_created ON transactions(account_external_id_debit, created_at DESC, id DESC)
+    INCLUDE (transaction_external_id, account_external_id_credit, transfer_type_id, status_id, value, updated_at);
+
+CREATE INDEX idx_account_credit_created ON transactions(account_external_id_credit, created_at DESC, id DESC)
+    INCLUDE (transaction_external_id, account_external_id_debit, transfer_type_id, status_id, value, updated_at);
+
+-- Los índices de V1 sobre la cuenta sola quedan cubiertos por el prefijo de los nuevos
+DROP INDEX idx_account_debit;
+DROP INDEX idx_account_credit;
@@ -0,0 +1,95 @@
+-- Particionado por rango mensual de created_at. Cada partición tiene sus propios índices y autovacuum,
+-- y las consultas acotadas por created_at (listados recientes, cursores keyset) solo recorren las
+-- particiones que se cruzan con el rango. Las particiones futuras y el retiro de las antiguas los
+-- gestiona TransactionPartitionMaintainer.
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    transaction_external_id UUID NOT NULL,
+    account_external_id_debit UUID NOT NULL,
+    account_external_id_credit UUID NOT NULL,
+    transfer_type_id INTEGER NOT NULL REFERENCES transaction_types(id),
+    status_id INTEGER NOT NULL REFERENCES transaction_statuses(id),
+    value NUMERIC(19, 2) NOT NULL CHECK (value > 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    idempotency_key VARCHAR(255)
+) PARTITION BY RANGE (created_at);
+
+-- Una partición por mes desde la fila más antigua hasta tres meses adelante. Los listados ordenados por
+-- created_at DESC con LIMIT leen solo las particiones más recientes que necesitan para llenar la página.
+-- Sin partición DEFAULT a propósito: con ella Postgres ya no recorre las particiones en orden de fecha
+-- (Append ordenado) y esos listados abren todas las particiones en un Merge Append
+DO $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM transactions_unpartitioned), LOCALTIMESTAMP));
+    last_month TIMESTAMP := date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months';
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+            'transactions_p' || to_char(month_start, 'YYYYMM'), month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transactions (id, transaction_external_id, account_external_id_debit, account_external_id_credit,
+                          transfer_type_id, status_id, value, created_at, updated_at, version, idempotency_key)
+SELECT id, transaction_external_id, account_external_id_debit, account_external_id_credit,
+       transfer_type_id, status_id, value, created_at, updated_at, version, idempotency_key
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+-- Postgres exige la clave de partición en toda restricción única: la PK pasa a (id, created_at)
+ALTER TABLE transactions ADD PRIMARY KEY (id, created_at);
+
+-- Los índices del padre se crean en cada partición, las actuales y las futuras
+CREATE INDEX idx_transaction_external_id ON transactions(transaction_external_id);
+CREATE INDEX idx_transaction_status ON transactions(status_id);
+CREATE INDEX idx_created_at ON transactions(created_at DESC);
+CREATE INDEX idx_status_created ON transactions(status_id, created_at DESC);
+CREATE INDEX idx_transactions_idempotency_key ON transactions(idempotency_key) WHERE idempotency_key IS NOT NULL;
+
+CREATE INDEX idx_account_debit_created ON transactions(account_external_id_debit, created_at DESC, id DESC)
+    INCLUDE (transaction_external_id, account_external_id_credit, transfer_type_id, status_id, value, updated_at);
+
+CREATE INDEX idx_account_credit_created ON transactions(account_external_id_credit, created_at DESC, id DESC)
+    INCLUDE (transaction_external_id, account_external_id_debit, transfer_type_id, status_id, value, updated_at);
+
+-- Unicidad global de transaction_external_id e idempotency_key: un índice único por partición no la
+-- garantiza entre meses. La tabla de claves no se particiona y la llena un trigger en el mismo INSERT,
+-- así un duplicado sigue fallando con violación de unicidad dentro de la transacción que lo inserta
+CREATE TABLE transaction_keys (
+    transaction_external_id UUID PRIMARY KEY,
+    idempotency_key VARCHAR(255),
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO transaction_keys (transaction_external_id, idempotency_key, created_at)
+SELECT transaction_external_id, idempotency_key, created_at FROM transactions;
+
+CREATE UNIQUE INDEX idx_transaction_keys_idempotency_key
+ON transaction_keys(idempotency_key)
+WHERE idempotency_key IS NOT NULL;
+
+-- Para liberar las claves de las particiones retiradas
+CREATE INDEX idx_transaction_keys_created_at ON transaction_keys(created_at);
+
+CREATE FUNCTION register_transaction_keys() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transaction_keys (transaction_external_id, idempotency_key, created_at)
+    VALUES (NEW.transaction_external_id, NEW.idempotency_key, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transactions_register_keys
+AFTER INSERT ON transactions
+FOR EACH ROW EXECUTE FUNCTION register_transaction_keys();
+
+COMMENT ON TABLE transaction_keys IS
+'Claves únicas de las transacciones de todas las particiones: transaction_external_id e idempotency_key';
@@ -0,0 +1,38 @@
+-- Las idempotencyKey solo protegen reintentos recientes: pasan a una tabla propia con retención
+-- (yape.transaction.idempotency.retention-hours) que IdempotencyKeyPurger vacía por lotes. Su índice
+-- queda del tamaño de la ventana en lugar de crecer con transactions
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    transaction_external_id UUID NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Se copian todas: las que ya salieron de la ventana las retira la primera purga, por lotes
+INSERT INTO idempotency_keys (idempotency_key, transaction_external_id, created_at)
+SELECT idempotency_key, transaction_external_id, created_at
+FROM transaction_keys
+WHERE idempotency_key IS NOT NULL;
+
+-- Recorrido de la purga: las filas más antiguas que la retención
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys(created_at);
+
+-- transaction_keys conserva solo la unicidad de transaction_external_id
+CREATE OR REPLACE FUNCTION register_transaction_keys() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transaction_keys (transaction_external_id, created_at)
+    VALUES (NEW.transaction_external_id, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP INDEX idx_transaction_keys_idempotency_key;
+ALTER TABLE transaction_keys DROP COLUMN idempotency_key;
+
+DROP INDEX idx_transactions_idempotency_key;
+ALTER TABLE transactions DROP COLUMN idempotency_key;
+
+COMMENT ON TABLE transaction_keys IS
+'Unicidad de transaction_external_id entre todas las particiones de transactions';
+
+COMMENT ON TABLE idempotency_keys IS
+'idempotencyKey vigentes y la transacción que crearon; se purgan al salir de la retención';
@@ -0,0 +1,14 @@
+-- El relay reclama las filas con una actualización corta y publica en Kafka fuera de la transacción:
+-- claimed_until es el plazo del reclamo (vencido, otra instancia puede tomarlas) y attempts cuenta los envíos.
+-- Las filas que no se pueden publicar quedan marcadas en failed_at con el motivo y dejan de ocupar lotes
+ALTER TABLE outbox_events
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0,
+    ADD COLUMN claimed_until TIMESTAMP,
+    ADD COLUMN failed_at TIMESTAMP,
+    ADD COLUMN last_error VARCHAR(500);
+
+DROP INDEX idx_outbox_pending;
+CREATE INDEX idx_outbox_pending ON outbox_events(id) WHERE sent_at IS NULL AND failed_at IS NULL;
+
+-- Para revisar y reencolar a mano los eventos fallidos
+CREATE INDEX idx_outbox_failed_at ON outbox_events(failed_at) WHERE failed_at IS NOT NULL;
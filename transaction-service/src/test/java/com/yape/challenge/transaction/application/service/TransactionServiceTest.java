@@ -1,52 +1,109 @@
 package com.yape.challenge.transaction.application.service;
 
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
 import com.yape.challenge.transaction.application.dto.CreateTransactionRequest;
+import com.yape.challenge.transaction.application.dto.StatusUpdate;
+import com.yape.challenge.transaction.application.dto.StatusUpdateOutcome;
+import com.yape.challenge.transaction.application.dto.TransactionCursor;
+import com.yape.challenge.transaction.application.dto.TransactionIdPage;
 import com.yape.challenge.transaction.application.dto.TransactionResponse;
+import com.yape.challenge.transaction.application.dto.TransactionSlice;
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
 import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionKey;
+import com.yape.challenge.transaction.domain.model.TransactionDirection;
 import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
 import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import com.yape.challenge.transaction.domain.repository.TransactionKeyRepository;
 import com.yape.challenge.transaction.domain.repository.TransactionRepository;
-import com.yape.challenge.transaction.domain.repository.TransactionStatusRepository;
-import com.yape.challenge.transaction.domain.repository.TransactionTypeRepository;
-import com.yape.challenge.transaction.infrastructure.kafka.TransactionEventProducer;
+import com.yape.challenge.transaction.infrastructure.cache.StatusListingGenerations;
+import com.yape.challenge.transaction.infrastructure.datasource.ReadYourWritesGuard;
+import com.yape.challenge.transaction.infrastructure.idempotency.IdempotencyGuard;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.outbox.OutboxEventWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Pruebas de Transaction Service")
 class TransactionServiceTest {
     
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.of(2026, 10, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    
     @Mock
     private TransactionRepository transactionRepository;
     
     @Mock
-    private TransactionTypeRepository transactionTypeRepository;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Mock
+    private TransactionKeyRepository transactionKeyRepository;
     
     @Mock
-    private TransactionStatusRepository transactionStatusRepository;
+    private ReferenceDataRegistry referenceDataRegistry;
     
     @Mock
-    private TransactionEventProducer eventProducer;
+    private OutboxEventWriter outboxEventWriter;
     
     @Mock
     private TransactionMapper transactionMapper;
     
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager();
+    
+    @Mock
+    private StatusListingGenerations statusListingGenerations;
+    
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+    
+    @Mock
+    private IdempotencyGuard idempotencyGuard;
+    
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
     @InjectMocks
     private TransactionService transactionService;
     
@@ -70,6 +127,14 @@ class TransactionServiceTest {
             .id(2)
             .name("approved")
             .build();
+        
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 500);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(readYourWritesGuard.read(any(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(readYourWritesGuard.readListing(any())).thenAnswer(invocation ->
+            invocation.<Supplier<?>>getArgument(0).get());
     }
     
     @Test
@@ -99,8 +164,8 @@ class TransactionServiceTest {
             .value(savedTransaction.getValue())
             .build();
         
-        when(transactionTypeRepository.findById(anyInt())).thenReturn(Optional.of(transactionType));
-        when(transactionStatusRepository.findByName("pending")).thenReturn(Optional.of(pendingStatus));
+        when(referenceDataRegistry.findTransactionType(anyInt())).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
         when(transactionMapper.toResponse(any(Transaction.class))).thenReturn(expectedResponse);
         
@@ -112,7 +177,7 @@ class TransactionServiceTest {
         assertThat(response.getTransactionId()).isEqualTo(savedTransaction.getTransactionExternalId());
         
         verify(transactionRepository).save(any(Transaction.class));
-        verify(eventProducer).sendTransactionCreatedEvent(any());
+        verify(outboxEventWriter).append(any());
     }
     
     @Test
@@ -126,7 +191,7 @@ class TransactionServiceTest {
             .value(BigDecimal.valueOf(100))
             .build();
         
-        when(transactionTypeRepository.findById(999)).thenReturn(Optional.empty());
+        when(referenceDataRegistry.findTransactionType(999)).thenReturn(Optional.empty());
         
         
         assertThatThrownBy(() -> transactionService.createTransaction(request))
@@ -134,7 +199,7 @@ class TransactionServiceTest {
             .hasMessageContaining("ID de tipo de transacción inválido");
         
         verify(transactionRepository, never()).save(any());
-        verify(eventProducer, never()).sendTransactionCreatedEvent(any());
+        verify(outboxEventWriter, never()).append(any());
     }
     
     @Test
@@ -142,22 +207,19 @@ class TransactionServiceTest {
     void shouldUpdateTransactionStatusToApproved() {
         
         UUID transactionId = UUID.randomUUID();
-        Transaction transaction = Transaction.builder()
-            .id(1L)
-            .transactionExternalId(transactionId)
-            .transactionStatus(pendingStatus)
-            .build();
         
-        when(transactionRepository.findByTransactionExternalIdForUpdate(transactionId))
-            .thenReturn(Optional.of(transaction));
-        when(transactionStatusRepository.findByName("approved")).thenReturn(Optional.of(approvedStatus));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(transactionRepository.transitionFromPending(eq(transactionId), eq(CREATED_AT), eq(pendingStatus),
+            eq(approvedStatus), any())).thenReturn(1);
         
         
-        transactionService.updateTransactionStatus(transactionId, "approved");
+        StatusUpdateOutcome outcome = transactionService.updateTransactionStatus(transactionId,
+            new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT));
         
         
-        verify(transactionRepository).save(transaction);
-        assertThat(transaction.getTransactionStatus()).isEqualTo(approvedStatus);
+        assertThat(outcome).isEqualTo(StatusUpdateOutcome.UPDATED);
+        verify(transactionRepository, never()).save(any());
     }
     
     @Test
@@ -165,11 +227,13 @@ class TransactionServiceTest {
     void shouldThrowExceptionWhenUpdatingNonExistentTransaction() {
         // Given
         UUID transactionId = UUID.randomUUID();
-        when(transactionRepository.findByTransactionExternalIdForUpdate(transactionId))
-            .thenReturn(Optional.empty());
+        when(referenceDataRegistry.getTransactionStatus(any())).thenReturn(pendingStatus, approvedStatus);
+        when(transactionRepository.transitionFromPending(eq(transactionId), any(), any(), any(), any())).thenReturn(0);
+        when(transactionRepository.findStatusesByTransactionExternalIdIn(List.of(transactionId))).thenReturn(List.of());
         
         // When & Then
-        assertThatThrownBy(() -> transactionService.updateTransactionStatus(transactionId, "approved"))
+        assertThatThrownBy(() -> transactionService.updateTransactionStatus(transactionId,
+                new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT)))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("Transacción no encontrada");
     }
@@ -179,9 +243,7 @@ class TransactionServiceTest {
     void shouldRetrieveTransactionByExternalId() {
         
         UUID transactionId = UUID.randomUUID();
-        Transaction transaction = Transaction.builder()
-            .transactionExternalId(transactionId)
-            .build();
+        TransactionRepository.TransactionView transaction = mock(TransactionRepository.TransactionView.class);
         
         TransactionResponse expectedResponse = TransactionResponse.builder()
             .transactionId(transactionId)
@@ -213,26 +275,21 @@ class TransactionServiceTest {
             .idempotencyKey(idempotencyKey)
             .build();
         
-        Transaction existingTransaction = Transaction.builder()
-            .id(1L)
-            .transactionExternalId(UUID.randomUUID())
-            .idempotencyKey(idempotencyKey)
-            .accountExternalIdDebit(request.getAccountExternalIdDebit())
-            .accountExternalIdCredit(request.getAccountExternalIdCredit())
-            .transactionType(transactionType)
-            .transactionStatus(pendingStatus)
-            .value(request.getValue())
-            .createdAt(OffsetDateTime.now())
-            .build();
+        UUID existingTransactionId = UUID.randomUUID();
+        TransactionRepository.TransactionView existingTransaction = mock(TransactionRepository.TransactionView.class);
+        when(existingTransaction.getTransactionExternalId()).thenReturn(existingTransactionId);
         
         TransactionResponse expectedResponse = TransactionResponse.builder()
-            .transactionId(existingTransaction.getTransactionExternalId())
-            .value(existingTransaction.getValue())
+            .transactionId(existingTransactionId)
+            .value(request.getValue())
             .status("PENDING")
             .build();
         
-        when(transactionRepository.findByIdempotencyKey(idempotencyKey))
-            .thenReturn(Optional.of(existingTransaction));
+        when(idempotencyGuard.mightContain(idempotencyKey)).thenReturn(true);
+        when(idempotencyKeyRepository.findById(idempotencyKey))
+            .thenReturn(Optional.of(idempotencyKey(idempotencyKey, existingTransactionId)));
+        when(transactionRepository.findByTransactionExternalIdIn(List.of(existingTransactionId)))
+            .thenReturn(List.of(existingTransaction));
         when(transactionMapper.toResponse(existingTransaction))
             .thenReturn(expectedResponse);
         
@@ -241,14 +298,15 @@ class TransactionServiceTest {
         
         // Assert
         assertThat(response).isNotNull();
-        assertThat(response.getTransactionId()).isEqualTo(existingTransaction.getTransactionExternalId());
+        assertThat(response.getTransactionId()).isEqualTo(existingTransactionId);
         
         // Verificar que NO se intentó crear una nueva transacción
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(transactionRepository, times(1)).findByIdempotencyKey(idempotencyKey);
+        verify(idempotencyKeyRepository, never()).save(any(IdempotencyKey.class));
+        verify(idempotencyGuard).record(idempotencyKey, existingTransactionId, CREATED_AT);
         
-        // Verificar que NO se envió evento a Kafka
-        verify(eventProducer, never()).sendTransactionCreatedEvent(any());
+        // Verificar que NO se registró evento en el outbox
+        verify(outboxEventWriter, never()).append(any());
     }
     
     @Test
@@ -279,8 +337,8 @@ class TransactionServiceTest {
             .value(savedTransaction.getValue())
             .build();
         
-        when(transactionTypeRepository.findById(anyInt())).thenReturn(Optional.of(transactionType));
-        when(transactionStatusRepository.findByName("pending")).thenReturn(Optional.of(pendingStatus));
+        when(referenceDataRegistry.findTransactionType(anyInt())).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
         when(transactionMapper.toResponse(savedTransaction)).thenReturn(expectedResponse);
         
@@ -290,9 +348,439 @@ class TransactionServiceTest {
         // Assert
         assertThat(response).isNotNull();
         verify(transactionRepository, times(1)).save(any(Transaction.class));
-        verify(eventProducer, times(1)).sendTransactionCreatedEvent(any());
+        verify(outboxEventWriter, times(1)).append(any());
         
-        // NO debe buscar por idempotencyKey cuando es null
-        verify(transactionRepository, never()).findByIdempotencyKey(any());
+        // NO debe buscar ni registrar idempotencyKey cuando es null
+        verify(idempotencyKeyRepository, never()).findById(any());
+        verify(idempotencyKeyRepository, never()).save(any(IdempotencyKey.class));
+    }
+    
+    @Test
+    @DisplayName("Debe crear la transacción sin consultar la BD si el filtro descarta la clave")
+    void shouldSkipIdempotencyLookupWhenGuardRulesOutKey() {
+        // Arrange
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(500))
+            .idempotencyKey(idempotencyKey)
+            .build();
+        
+        when(idempotencyGuard.mightContain(idempotencyKey)).thenReturn(false);
+        when(referenceDataRegistry.findTransactionType(anyInt())).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        transactionService.createTransaction(request);
+        
+        // Assert
+        verify(idempotencyKeyRepository, never()).findById(any());
+        verify(transactionRepository).save(any(Transaction.class));
+        verify(idempotencyKeyRepository).save(argThat(key -> key.getIdempotencyKey().equals(idempotencyKey)));
+        verify(idempotencyGuard).recordAfterCommit(argThat(keys -> keys.containsKey(idempotencyKey)));
+    }
+    
+    @Test
+    @DisplayName("Debe devolver la transacción original si el INSERT viola la unicidad de idempotencyKey")
+    void shouldReturnOriginalTransactionOnIdempotencyKeyViolation() {
+        // Arrange
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(500))
+            .idempotencyKey(idempotencyKey)
+            .build();
+        UUID originalId = UUID.randomUUID();
+        TransactionRepository.TransactionView original = mock(TransactionRepository.TransactionView.class);
+        when(original.getTransactionExternalId()).thenReturn(originalId);
+        TransactionResponse originalResponse = TransactionResponse.builder()
+            .transactionId(originalId)
+            .build();
+        
+        // Otra instancia la insertó: el filtro local no la conoce y la PK de idempotency_keys rechaza el INSERT
+        when(idempotencyGuard.mightContain(idempotencyKey)).thenReturn(false);
+        when(referenceDataRegistry.findTransactionType(anyInt())).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataIntegrityViolationException("idempotency_keys_pkey")).when(transactionRepository).flush();
+        when(idempotencyKeyRepository.findById(idempotencyKey))
+            .thenReturn(Optional.of(idempotencyKey(idempotencyKey, originalId)));
+        when(transactionRepository.findByTransactionExternalIdIn(List.of(originalId))).thenReturn(List.of(original));
+        when(transactionMapper.toResponse(original)).thenReturn(originalResponse);
+        
+        // Act
+        TransactionResponse response = transactionService.createTransaction(request);
+        
+        // Assert
+        assertThat(response.getTransactionId()).isEqualTo(originalId);
+        verify(outboxEventWriter, never()).append(any());
+        verify(idempotencyGuard).record(idempotencyKey, originalId, CREATED_AT);
+    }
+    
+    @Test
+    @DisplayName("Debe crear lote de transacciones resolviendo idempotencia con una sola consulta")
+    void shouldCreateTransactionBatchResolvingIdempotencyInOneQuery() {
+        // Arrange
+        String existingKey = UUID.randomUUID().toString();
+        String newKey = UUID.randomUUID().toString();
+        
+        CreateTransactionRequest duplicated = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(100))
+            .idempotencyKey(existingKey)
+            .build();
+        CreateTransactionRequest withNewKey = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(200))
+            .idempotencyKey(newKey)
+            .build();
+        CreateTransactionRequest withoutKey = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(300))
+            .build();
+        
+        Transaction existingTransaction = Transaction.builder()
+            .id(1L)
+            .transactionExternalId(UUID.randomUUID())
+            .transactionType(transactionType)
+            .transactionStatus(pendingStatus)
+            .value(duplicated.getValue())
+            .build();
+        
+        // Solo la clave ya persistida pasa el filtro
+        when(idempotencyGuard.mightContain(anyString())).thenAnswer(invocation -> existingKey.equals(invocation.getArgument(0)));
+        when(idempotencyKeyRepository.findAllById(Set.of(existingKey)))
+            .thenReturn(List.of(idempotencyKey(existingKey, existingTransaction.getTransactionExternalId())));
+        when(transactionRepository.findAllByTransactionExternalIdIn(Set.of(existingTransaction.getTransactionExternalId())))
+            .thenReturn(List.of(existingTransaction));
+        when(referenceDataRegistry.findTransactionType(1)).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toResponse(any(Transaction.class))).thenAnswer(invocation -> TransactionResponse.builder()
+            .transactionId(invocation.getArgument(0, Transaction.class).getTransactionExternalId())
+            .build());
+        
+        // Act (la clave nueva se repite dentro del mismo lote)
+        List<TransactionResponse> responses = transactionService.createTransactions(
+            List.of(duplicated, withNewKey, withoutKey, withNewKey));
+        
+        // Assert
+        assertThat(responses).hasSize(4);
+        assertThat(responses.get(0).getTransactionId()).isEqualTo(existingTransaction.getTransactionExternalId());
+        assertThat(responses.get(3).getTransactionId()).isEqualTo(responses.get(1).getTransactionId());
+        
+        verify(idempotencyKeyRepository, times(1)).findAllById(any());
+        verify(idempotencyKeyRepository, never()).findById(any());
+        verify(transactionRepository).saveAll(argThat(saved -> ((List<Transaction>) saved).size() == 2));
+        verify(idempotencyKeyRepository).saveAll(argThat(keys -> ((List<IdempotencyKey>) keys).size() == 1));
+        verify(outboxEventWriter).appendAll(argThat(events -> events.size() == 2));
+        verify(outboxEventWriter, never()).append(any());
+    }
+    
+    @Test
+    @DisplayName("Debe rechazar lote que excede el tamaño máximo")
+    void shouldRejectBatchExceedingMaxSize() {
+        
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1);
+        CreateTransactionRequest request = CreateTransactionRequest.builder()
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.valueOf(100))
+            .build();
+        
+        
+        assertThatThrownBy(() -> transactionService.createTransactions(List.of(request, request)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("excede el máximo permitido");
+        
+        verify(transactionRepository, never()).saveAll(any());
+        verify(outboxEventWriter, never()).appendAll(any());
+    }
+    
+    @Test
+    @DisplayName("Debe invalidar listados de estado al actualizar una transacción")
+    void shouldBumpStatusListingGenerationsOnStatusUpdate() {
+        
+        UUID transactionId = UUID.randomUUID();
+        
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(transactionRepository.transitionFromPending(eq(transactionId), any(), any(), any(), any())).thenReturn(1);
+        
+        
+        transactionService.updateTransactionStatus(transactionId, new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT));
+        
+        
+        verify(statusListingGenerations).bumpAfterCommit(TransactionStatusCode.PENDING, TransactionStatusCode.APPROVED);
+    }
+    
+    @Test
+    @DisplayName("Debe contar sin la estimación de Postgres cuando la tabla no está particionada")
+    void shouldCountWithoutEstimateWhenTableIsNotPartitioned() {
+        // Arrange
+        ReflectionTestUtils.setField(transactionService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(transactionService, "partitionedTable", false);
+        when(transactionRepository.findByOrderByCreatedAtDescIdDesc(PageRequest.of(0, 11))).thenReturn(List.of());
+        when(transactionRepository.count()).thenReturn(42L);
+        
+        // Act
+        TransactionSlice slice = transactionService.getTransactionsAfter(null, null, 10, true);
+        
+        // Assert
+        assertThat(slice.getTotalCount()).isEqualTo(42L);
+        verify(transactionRepository, never()).estimateRowCount();
+    }
+    
+    @Test
+    @DisplayName("Debe paginar el historial de una cuenta desde el cursor, dentro del rango pedido")
+    void shouldPageAccountHistoryFromCursor() {
+        // Arrange
+        ReflectionTestUtils.setField(transactionService, "maxPageSize", 100);
+        UUID accountId = UUID.randomUUID();
+        OffsetDateTime from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        TransactionCursor cursor = new TransactionCursor(OffsetDateTime.parse("2024-01-20T10:00:00Z"), 42L);
+        TransactionRepository.TransactionView first = mock(TransactionRepository.TransactionView.class);
+        TransactionRepository.TransactionView extra = mock(TransactionRepository.TransactionView.class);
+        when(first.getCreatedAt()).thenReturn(OffsetDateTime.parse("2024-01-15T10:00:00Z"));
+        when(first.getId()).thenReturn(40L);
+        when(transactionRepository.findDebitPageByAccount(accountId, from, cursor.createdAt(), 42L, PageRequest.of(0, 2)))
+            .thenReturn(List.of(first, extra));
+        
+        // Act
+        TransactionSlice slice = transactionService.getTransactionsByAccount(accountId, TransactionDirection.DEBIT, from, to,
+            1, cursor.encode());
+        
+        // Assert
+        assertThat(slice.getItems()).hasSize(1);
+        assertThat(slice.isHasNext()).isTrue();
+        assertThat(TransactionCursor.decode(slice.getItems().get(0).getCursor()).id()).isEqualTo(40L);
+        verify(transactionRepository, never()).findPageByAccount(any(), any(), any(), any(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Debe hidratar página cacheada desde la caché por transacción y cargar faltantes en una consulta")
+    void shouldHydrateCachedStatusPageFromTransactionCache() {
+        // Arrange
+        UUID cachedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        TransactionResponse cachedResponse = TransactionResponse.builder().transactionId(cachedId).build();
+        TransactionResponse loadedResponse = TransactionResponse.builder().transactionId(missingId).build();
+        TransactionRepository.TransactionView missingTransaction = mock(TransactionRepository.TransactionView.class);
+        when(missingTransaction.getTransactionExternalId()).thenReturn(missingId);
+        
+        when(statusListingGenerations.current(TransactionStatusCode.PENDING)).thenReturn(7L);
+        cacheManager.getCache(TransactionService.TRANSACTION_PAGES_CACHE).put("status:pending:g7:0:10",
+            TransactionIdPage.builder().transactionIds(List.of(cachedId, missingId)).totalElements(25).build());
+        cacheManager.getCache(TransactionService.TRANSACTIONS_CACHE).put(cachedId, cachedResponse);
+        when(transactionRepository.findByTransactionExternalIdIn(List.of(missingId))).thenReturn(List.of(missingTransaction));
+        when(transactionMapper.toResponse(missingTransaction)).thenReturn(loadedResponse);
+        
+        // Act
+        Page<TransactionResponse> page = transactionService.getTransactionsByStatus("pending", 0, 10);
+        
+        // Assert
+        assertThat(page.getContent()).containsExactly(cachedResponse, loadedResponse);
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        verify(transactionRepository, never()).findByTransactionStatusNameOrderByCreatedAtDesc(any(), any());
+        assertThat(cacheManager.getCache(TransactionService.TRANSACTIONS_CACHE).get(missingId)).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("Debe cachear la página de estado leída por la guarda de lecturas recientes")
+    void shouldCacheStatusPageReadThroughReadYourWritesGuard() {
+        // Arrange
+        UUID transactionId = UUID.randomUUID();
+        TransactionRepository.TransactionView transaction = mock(TransactionRepository.TransactionView.class);
+        TransactionResponse response = TransactionResponse.builder().transactionId(transactionId).build();
+        
+        when(statusListingGenerations.current(TransactionStatusCode.PENDING)).thenReturn(3L);
+        when(transactionRepository.findByTransactionStatusNameOrderByCreatedAtDesc("pending", PageRequest.of(0, 10)))
+            .thenReturn(new PageImpl<>(List.of(transaction), PageRequest.of(0, 10), 1));
+        when(transactionMapper.toResponse(transaction)).thenReturn(response);
+        
+        // Act
+        Page<TransactionResponse> page = transactionService.getTransactionsByStatus("pending", 0, 10);
+        
+        // Assert
+        assertThat(page.getContent()).containsExactly(response);
+        verify(readYourWritesGuard).readListing(any());
+        assertThat(cacheManager.getCache(TransactionService.TRANSACTION_PAGES_CACHE)
+            .get("status:pending:g3:0:10", TransactionIdPage.class))
+            .satisfies(cached -> assertThat(cached.getTransactionIds()).containsExactly(transactionId));
+        assertThat(cacheManager.getCache(TransactionService.TRANSACTIONS_CACHE).get(transactionId)).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("Debe aplicar un lote de estados con un UPDATE masivo y clasificar los no aplicables")
+    void shouldApplyStatusBatchWithBulkUpdate() {
+        // Arrange
+        UUID pendingId = UUID.randomUUID();
+        UUID duplicateId = UUID.randomUUID();
+        UUID conflictId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        TransactionStatus rejectedStatus = TransactionStatus.builder().id(3).name("rejected").build();
+        OffsetDateTime laterCreatedAt = CREATED_AT.plusDays(40);
+        Map<UUID, StatusUpdate> updates = new LinkedHashMap<>();
+        updates.put(pendingId, new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT));
+        updates.put(duplicateId, new StatusUpdate(TransactionStatusCode.APPROVED, laterCreatedAt));
+        updates.put(conflictId, new StatusUpdate(TransactionStatusCode.REJECTED, CREATED_AT));
+        updates.put(missingId, new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT));
+        
+        when(transactionRepository.findStatusesByTransactionExternalIdIn(updates.keySet(), CREATED_AT, laterCreatedAt))
+            .thenReturn(List.of(statusView(pendingId, 1), statusView(duplicateId, 2), statusView(conflictId, 2)));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.REJECTED)).thenReturn(rejectedStatus);
+        when(transactionRepository.transitionFromPending(eq(List.of(pendingId)), eq(CREATED_AT), eq(CREATED_AT),
+            eq(pendingStatus), eq(approvedStatus), any())).thenReturn(1);
+        
+        // Act
+        Map<UUID, StatusUpdateOutcome> outcomes = transactionService.updateTransactionStatuses(updates);
+        
+        // Assert
+        assertThat(outcomes).containsEntry(pendingId, StatusUpdateOutcome.UPDATED)
+            .containsEntry(duplicateId, StatusUpdateOutcome.DUPLICATE)
+            .containsEntry(conflictId, StatusUpdateOutcome.CONFLICT)
+            .containsEntry(missingId, StatusUpdateOutcome.NOT_FOUND);
+        verify(transactionRepository, times(1)).transitionFromPending(anyList(), any(), any(), any(), any(), any());
+        verify(transactionKeyRepository).findAllById(Set.of(missingId));
+        verify(statusListingGenerations).bumpAfterCommit(TransactionStatusCode.PENDING, TransactionStatusCode.APPROVED);
+    }
+    
+    @Test
+    @DisplayName("Debe ignorar sin excepción un evento de estado reentregado")
+    void shouldIgnoreRedeliveredStatusEvent() {
+        
+        UUID transactionId = UUID.randomUUID();
+        
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(transactionRepository.transitionFromPending(eq(transactionId), any(), any(), any(), any())).thenReturn(0);
+        when(transactionRepository.findStatusesByTransactionExternalIdIn(List.of(transactionId)))
+            .thenReturn(List.of(statusView(transactionId, approvedStatus.getId())));
+        
+        
+        StatusUpdateOutcome outcome = transactionService.updateTransactionStatus(transactionId,
+            new StatusUpdate(TransactionStatusCode.APPROVED, CREATED_AT));
+        
+        
+        assertThat(outcome).isEqualTo(StatusUpdateOutcome.DUPLICATE);
+        verify(statusListingGenerations, never()).bumpAfterCommit(any(), any());
+    }
+    
+    @Test
+    @DisplayName("Debe ubicar la partición por transaction_keys cuando el evento no trae created_at")
+    void shouldResolveCreatedAtFromKeysWhenEventLacksIt() {
+        
+        UUID transactionId = UUID.randomUUID();
+        
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(transactionKeyRepository.findById(transactionId)).thenReturn(Optional.of(TransactionKey.builder()
+            .transactionExternalId(transactionId)
+            .createdAt(CREATED_AT)
+            .build()));
+        when(transactionRepository.transitionFromPending(eq(transactionId), eq(CREATED_AT), eq(pendingStatus),
+            eq(approvedStatus), any())).thenReturn(1);
+        
+        
+        StatusUpdateOutcome outcome = transactionService.updateTransactionStatus(transactionId,
+            new StatusUpdate(TransactionStatusCode.APPROVED, null));
+        
+        
+        assertThat(outcome).isEqualTo(StatusUpdateOutcome.UPDATED);
+    }
+    
+    @Test
+    @DisplayName("Debe repetir la transición con el created_at guardado si el del evento no coincide")
+    void shouldRetryTransitionWithStoredCreatedAt() {
+        
+        UUID transactionId = UUID.randomUUID();
+        OffsetDateTime eventCreatedAt = CREATED_AT.plusNanos(400);
+        
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.APPROVED)).thenReturn(approvedStatus);
+        when(transactionRepository.transitionFromPending(eq(transactionId), eq(eventCreatedAt), any(), any(), any()))
+            .thenReturn(0);
+        when(transactionRepository.findStatusesByTransactionExternalIdIn(List.of(transactionId)))
+            .thenReturn(List.of(statusView(transactionId, pendingStatus.getId(), CREATED_AT)));
+        when(transactionRepository.transitionFromPending(eq(transactionId), eq(CREATED_AT), eq(pendingStatus),
+            eq(approvedStatus), any())).thenReturn(1);
+        
+        
+        StatusUpdateOutcome outcome = transactionService.updateTransactionStatus(transactionId,
+            new StatusUpdate(TransactionStatusCode.APPROVED, eventCreatedAt));
+        
+        
+        assertThat(outcome).isEqualTo(StatusUpdateOutcome.UPDATED);
+        verify(statusListingGenerations).bumpAfterCommit(TransactionStatusCode.PENDING, TransactionStatusCode.APPROVED);
+    }
+    
+    @Test
+    @DisplayName("Debe persistir una transacción aceptada con la hora en que se aceptó")
+    void shouldPersistAcceptedTransactionWithAcceptedAt() {
+        
+        OffsetDateTime acceptedAt = OffsetDateTime.now().minusHours(3);
+        AcceptedTransaction accepted = new AcceptedTransaction(UUID.randomUUID(), null, UUID.randomUUID(),
+            UUID.randomUUID(), 1, BigDecimal.valueOf(100), acceptedAt);
+        
+        when(referenceDataRegistry.findTransactionType(1)).thenReturn(Optional.of(transactionType));
+        when(referenceDataRegistry.getTransactionStatus(TransactionStatusCode.PENDING)).thenReturn(pendingStatus);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        
+        int persisted = transactionService.persistAccepted(List.of(accepted));
+        
+        
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(saved.capture());
+        assertThat(persisted).isEqualTo(1);
+        assertThat(saved.getValue()).singleElement()
+            .satisfies(transaction -> assertThat(transaction.getCreatedAt()).isEqualTo(acceptedAt));
+    }
+    
+    private TransactionRepository.StatusView statusView(UUID transactionExternalId, Integer statusId) {
+        return statusView(transactionExternalId, statusId, CREATED_AT);
+    }
+    
+    private TransactionRepository.StatusView statusView(UUID transactionExternalId, Integer statusId,
+                                                        OffsetDateTime createdAt) {
+        return new TransactionRepository.StatusView() {
+            @Override
+            public UUID getTransactionExternalId() {
+                return transactionExternalId;
+            }
+            
+            @Override
+            public Integer getStatusId() {
+                return statusId;
+            }
+            
+            @Override
+            public OffsetDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+    
+    private IdempotencyKey idempotencyKey(String key, UUID transactionExternalId) {
+        return IdempotencyKey.builder()
+            .idempotencyKey(key)
+            .transactionExternalId(transactionExternalId)
+            .createdAt(CREATED_AT)
+            .build();
     }
 }
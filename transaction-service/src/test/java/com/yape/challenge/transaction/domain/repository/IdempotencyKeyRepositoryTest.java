@@ -0,0 +1,69 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;NON_KEYWORDS=VALUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de retención en IdempotencyKey Repository")
+class IdempotencyKeyRepositoryTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Debe purgar por lotes solo las claves anteriores al corte")
+    void shouldPurgeExpiredKeysInBatches() {
+
+        List<IdempotencyKey> keys = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            keys.add(IdempotencyKey.builder()
+                .idempotencyKey("clave-" + i)
+                .transactionExternalId(UUID.randomUUID())
+                .build());
+        }
+        idempotencyKeyRepository.saveAll(keys);
+        entityManager.flush();
+        // created_at lo asigna @CreationTimestamp: se envejecen tres claves para simular la ventana vencida
+        entityManager.getEntityManager()
+            .createNativeQuery("UPDATE idempotency_keys SET created_at = DATEADD('DAY', -2, created_at) "
+                + "WHERE idempotency_key IN ('clave-0', 'clave-1', 'clave-2')")
+            .executeUpdate();
+        entityManager.clear();
+        OffsetDateTime cutoff = OffsetDateTime.now().minusDays(1);
+
+
+        int firstBatch = idempotencyKeyRepository.deleteBatchCreatedBefore(cutoff, 2);
+        int secondBatch = idempotencyKeyRepository.deleteBatchCreatedBefore(cutoff, 2);
+
+
+        assertThat(firstBatch).isEqualTo(2);
+        assertThat(secondBatch).isEqualTo(1);
+        assertThat(idempotencyKeyRepository.findAll())
+            .extracting(IdempotencyKey::getIdempotencyKey)
+            .containsExactlyInAnyOrder("clave-3", "clave-4");
+    }
+}
@@ -0,0 +1,138 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:batching;MODE=PostgreSQL;NON_KEYWORDS=VALUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de batching JDBC en Transaction Repository")
+class TransactionRepositoryBatchingTest {
+
+    private static final int TRANSACTION_COUNT = 40;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionType transactionType;
+    private TransactionStatus pendingStatus;
+
+    @BeforeEach
+    void setUp() {
+        transactionType = entityManager.persist(TransactionType.builder().name("transfer").build());
+        pendingStatus = entityManager.persist(TransactionStatus.builder().name("pending").build());
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Debe agrupar los INSERTs de saveAll en lotes JDBC")
+    void shouldBatchInsertsOnSaveAll() {
+
+        Statistics statistics = statistics();
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            transactions.add(newTransaction());
+        }
+
+
+        transactionRepository.saveAll(transactions);
+        entityManager.flush();
+
+
+        // Con IDENTITY serían 40 sentencias; con la secuencia pooled y batch_size 20 son 2 lotes
+        // más las llamadas a la secuencia (una reserva de 50 IDs, dos en la primera inicialización)
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(TRANSACTION_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(transactions).allSatisfy(transaction -> assertThat(transaction.getId()).isNotNull());
+    }
+
+    @Test
+    @DisplayName("Debe reservar IDs sin ir a la base de datos en cada save")
+    void shouldReuseAllocatedIdsAcrossSaves() {
+
+        Statistics statistics = statistics();
+
+
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            transactionRepository.save(newTransaction());
+        }
+        entityManager.flush();
+
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(TRANSACTION_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Debe conservar el created_at asignado antes del INSERT")
+    void shouldKeepAssignedCreatedAt() {
+
+        OffsetDateTime acceptedAt = OffsetDateTime.of(2024, 1, 15, 10, 30, 0, 0, ZoneOffset.UTC);
+        Transaction accepted = newTransaction();
+        accepted.setCreatedAt(acceptedAt);
+        Transaction regular = newTransaction();
+
+
+        transactionRepository.saveAll(List.of(accepted, regular));
+        entityManager.flush();
+        entityManager.clear();
+
+
+        assertThat(transactionRepository.findById(accepted.getId()).orElseThrow().getCreatedAt())
+            .isAtSameInstantAs(acceptedAt);
+        assertThat(transactionRepository.findById(regular.getId()).orElseThrow().getCreatedAt())
+            .isAfter(acceptedAt);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private Transaction newTransaction() {
+        return Transaction.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transactionType(transactionType)
+            .transactionStatus(pendingStatus)
+            .value(BigDecimal.valueOf(100))
+            .build();
+    }
+}
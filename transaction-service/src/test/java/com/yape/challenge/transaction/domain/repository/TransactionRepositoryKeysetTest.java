@@ -0,0 +1,219 @@
+package com.yape.challenge.transaction.domain.repository;
+
+import com.yape.challenge.transaction.domain.model.Transaction;
+import com.yape.challenge.transaction.domain.model.TransactionStatus;
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:keyset;MODE=PostgreSQL;NON_KEYWORDS=VALUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de paginación keyset en Transaction Repository")
+class TransactionRepositoryKeysetTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionType transactionType;
+    private TransactionStatus pendingStatus;
+    private TransactionStatus approvedStatus;
+
+    @BeforeEach
+    void setUp() {
+        transactionType = entityManager.persist(TransactionType.builder().name("transfer").build());
+        pendingStatus = entityManager.persist(TransactionStatus.builder().name("pending").build());
+        approvedStatus = entityManager.persist(TransactionStatus.builder().name("approved").build());
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Debe recorrer todas las filas sin repetir ni saltar aunque compartan created_at")
+    void shouldWalkAllRowsWithTiedCreatedAt() {
+
+        for (int i = 0; i < 10; i++) {
+            transactionRepository.save(newTransaction(i % 2 == 0 ? pendingStatus : approvedStatus));
+        }
+        entityManager.flush();
+        // Dos grupos de filas con el mismo created_at para forzar el desempate por id
+        jdbcTemplate.update("UPDATE transactions SET created_at = TIMESTAMP '2024-01-01 10:00:00' WHERE id % 2 = 0");
+        jdbcTemplate.update("UPDATE transactions SET created_at = TIMESTAMP '2024-01-01 09:00:00' WHERE id % 2 = 1");
+        entityManager.clear();
+
+
+        List<Long> visited = new ArrayList<>();
+        List<TransactionRepository.TransactionView> page =
+            transactionRepository.findByOrderByCreatedAtDescIdDesc(PageRequest.of(0, PAGE_SIZE));
+        while (!page.isEmpty()) {
+            page.forEach(transaction -> visited.add(transaction.getId()));
+            TransactionRepository.TransactionView last = page.get(page.size() - 1);
+            page = transactionRepository.findPageAfter(last.getCreatedAt(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+        }
+
+
+        List<Long> expected = transactionRepository.findAll().stream()
+            .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()) != 0
+                ? b.getCreatedAt().compareTo(a.getCreatedAt())
+                : b.getId().compareTo(a.getId()))
+            .map(Transaction::getId)
+            .toList();
+        assertThat(visited).hasSize(10).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Debe filtrar por estado al paginar desde un cursor")
+    void shouldFilterByStatusAfterCursor() {
+
+        for (int i = 0; i < 6; i++) {
+            transactionRepository.save(newTransaction(i % 2 == 0 ? pendingStatus : approvedStatus));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+
+        List<TransactionRepository.TransactionView> firstPage = transactionRepository
+            .findByTransactionStatusIdOrderByCreatedAtDescIdDesc(pendingStatus.getId(), PageRequest.of(0, 2));
+        TransactionRepository.TransactionView last = firstPage.get(firstPage.size() - 1);
+        List<TransactionRepository.TransactionView> nextPage = transactionRepository.findPageByStatusAfter(pendingStatus.getId(),
+            last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(nextPage).singleElement()
+            .satisfies(transaction -> assertThat(transaction.getStatusId()).isEqualTo(pendingStatus.getId()));
+        assertThat(transactionRepository.countByTransactionStatusId(pendingStatus.getId())).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe recorrer el historial de una cuenta en ambos lados sin repetir ni saltar")
+    void shouldWalkAccountHistoryOnBothSides() {
+
+        UUID account = UUID.randomUUID();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            UUID other = UUID.randomUUID();
+            Transaction transaction = switch (i % 4) {
+                case 0 -> newTransaction(pendingStatus, account, other);
+                case 1 -> newTransaction(pendingStatus, other, account);
+                case 2 -> newTransaction(pendingStatus, account, account);
+                default -> newTransaction(pendingStatus, other, UUID.randomUUID());
+            };
+            Long id = transactionRepository.save(transaction).getId();
+            if (i % 4 != 3) {
+                expected.add(0, id);
+            }
+        }
+        entityManager.flush();
+        // Mismo created_at en todas las filas: el orden y los cortes de página dependen solo del id
+        jdbcTemplate.update("UPDATE transactions SET created_at = TIMESTAMP '2024-01-01 10:00:00'");
+        entityManager.clear();
+
+
+        List<Long> visited = new ArrayList<>();
+        OffsetDateTime createdAt = OffsetDateTime.parse("9999-01-01T00:00:00Z");
+        long id = Long.MAX_VALUE;
+        List<TransactionRepository.TransactionView> page;
+        do {
+            page = transactionRepository.findPageByAccount(account, OffsetDateTime.parse("1970-01-01T00:00:00Z"),
+                createdAt, id, PAGE_SIZE);
+            page.forEach(transaction -> visited.add(transaction.getId()));
+            if (!page.isEmpty()) {
+                createdAt = page.get(page.size() - 1).getCreatedAt();
+                id = page.get(page.size() - 1).getId();
+            }
+        } while (!page.isEmpty());
+
+
+        assertThat(visited).hasSize(9).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("Debe limitar el historial de una cuenta al lado y rango pedidos")
+    void shouldFilterAccountHistoryBySideAndRange() {
+
+        UUID account = UUID.randomUUID();
+        Long older = transactionRepository.save(newTransaction(pendingStatus, UUID.randomUUID(), account)).getId();
+        Long newer = transactionRepository.save(newTransaction(pendingStatus, UUID.randomUUID(), account)).getId();
+        transactionRepository.save(newTransaction(pendingStatus, account, UUID.randomUUID()));
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE transactions SET created_at = TIMESTAMP '2024-01-01 10:00:00' WHERE id = ?", older);
+        jdbcTemplate.update("UPDATE transactions SET created_at = TIMESTAMP '2024-03-01 10:00:00' WHERE id = ?", newer);
+        entityManager.clear();
+
+
+        List<TransactionRepository.TransactionView> credits = transactionRepository.findCreditPageByAccount(account,
+            OffsetDateTime.parse("1970-01-01T00:00:00Z"), OffsetDateTime.parse("9999-01-01T00:00:00Z"), Long.MAX_VALUE,
+            PageRequest.of(0, 10));
+        List<TransactionRepository.TransactionView> recentCredits = transactionRepository.findCreditPageByAccount(account,
+            OffsetDateTime.parse("2024-02-01T00:00:00Z"), OffsetDateTime.parse("9999-01-01T00:00:00Z"), Long.MAX_VALUE,
+            PageRequest.of(0, 10));
+
+
+        assertThat(credits).extracting(TransactionRepository.TransactionView::getId).containsExactly(newer, older);
+        assertThat(recentCredits).extracting(TransactionRepository.TransactionView::getId).containsExactly(newer);
+    }
+
+    @Test
+    @DisplayName("Debe cargar tipo y estado de forma perezosa y leer su id sin inicializarlos")
+    void shouldLoadReferenceAssociationsLazily() {
+
+        Long id = transactionRepository.save(newTransaction(pendingStatus)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+
+        Transaction transaction = transactionRepository.findById(id).orElseThrow();
+        Integer statusId = transaction.getTransactionStatus().getId();
+
+
+        assertThat(statusId).isEqualTo(pendingStatus.getId());
+        assertThat(Hibernate.isInitialized(transaction.getTransactionStatus())).isFalse();
+        assertThat(Hibernate.isInitialized(transaction.getTransactionType())).isFalse();
+    }
+
+    private Transaction newTransaction(TransactionStatus status) {
+        return newTransaction(status, UUID.randomUUID(), UUID.randomUUID());
+    }
+
+    private Transaction newTransaction(TransactionStatus status, UUID debit, UUID credit) {
+        return Transaction.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(debit)
+            .accountExternalIdCredit(credit)
+            .transactionType(transactionType)
+            .transactionStatus(status)
+            .value(BigDecimal.valueOf(100))
+            .build();
+    }
+}
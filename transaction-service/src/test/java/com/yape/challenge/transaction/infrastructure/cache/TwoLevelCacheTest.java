@@ -0,0 +1,159 @@
+package com.yape.challenge.transaction.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de caché de dos niveles")
+class TwoLevelCacheTest {
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private List<String> publishedMessages;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        publishedMessages = new ArrayList<>();
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, Caffeine.newBuilder().maximumSize(100),
+            meterRegistry, publishedMessages::add);
+    }
+
+    @Test
+    @DisplayName("Debe promover a L1 los valores encontrados en L2")
+    void shouldPromoteRemoteHitsToLocalTier() {
+
+        UUID key = UUID.randomUUID();
+        remoteCacheManager.getCache("transactions").put(key, "valor");
+        Cache cache = cacheManager.getCache("transactions");
+
+
+        assertThat(cache.get(key).get()).isEqualTo("valor");
+        remoteCacheManager.getCache("transactions").evict(key);
+
+
+        // La segunda lectura se sirve desde L1 aunque L2 ya no lo tenga
+        assertThat(cache.get(key).get()).isEqualTo("valor");
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("yape.cache.hit.ratio").tag("tier", "l1").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Debe invalidar ambos niveles y publicar la invalidación al evictar")
+    void shouldEvictBothTiersAndPublishInvalidation() {
+
+        UUID key = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put(key, "valor");
+
+
+        cache.evict(key);
+
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(remoteCacheManager.getCache("transactions").get(key)).isNull();
+        assertThat(publishedMessages).singleElement().asString().endsWith("|transactions|" + key);
+    }
+
+    @Test
+    @DisplayName("Debe limpiar solo L1 al recibir invalidación de otra instancia")
+    void shouldEvictLocalTierOnRemoteInvalidation() {
+
+        UUID key = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put(key, "valor");
+
+
+        cacheManager.onInvalidationMessage("otra-instancia|transactions|" + key);
+        remoteCacheManager.getCache("transactions").put(key, "nuevo");
+
+
+        assertThat(cache.get(key).get()).isEqualTo("nuevo");
+    }
+
+    @Test
+    @DisplayName("Debe ignorar invalidaciones publicadas por la misma instancia")
+    void shouldIgnoreOwnInvalidationMessages() {
+
+        UUID key = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("transactions");
+        cache.evict(key);
+        cache.put(key, "valor");
+
+
+        cacheManager.onInvalidationMessage(publishedMessages.get(0));
+        remoteCacheManager.getCache("transactions").evict(key);
+
+
+        assertThat(cache.get(key).get()).isEqualTo("valor");
+    }
+
+    @Test
+    @DisplayName("Debe publicar una sola invalidación al evictar un grupo de claves")
+    void shouldPublishSingleInvalidationForGroupedEviction() {
+
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("transactions");
+        cache.put(first, "uno");
+        cache.put(second, "dos");
+
+
+        cache.evictAll(List.of(first, second));
+        cacheManager.onInvalidationMessage("otra-instancia|transactions|" + first + "," + second);
+
+
+        assertThat(cache.get(first)).isNull();
+        assertThat(cache.get(second)).isNull();
+        assertThat(publishedMessages).singleElement().asString().endsWith("|transactions|" + first + "," + second);
+    }
+
+    @Test
+    @DisplayName("No debe promover a L1 un valor de L2 evictado durante la lectura")
+    void shouldNotPromoteValueEvictedDuringRemoteRead() {
+
+        UUID key = UUID.randomUUID();
+        AtomicReference<Runnable> onRemoteRead = new AtomicReference<>(() -> { });
+        Cache remoteCache = new ConcurrentMapCache("transactions") {
+            @Override
+            public ValueWrapper get(Object cacheKey) {
+                ValueWrapper value = super.get(cacheKey);
+                onRemoteRead.getAndSet(() -> { }).run();
+                return value;
+            }
+        };
+        CaffeineCache localCache = new CaffeineCache("transactions", Caffeine.newBuilder().build(), true);
+        TwoLevelCache cache = new TwoLevelCache("transactions", localCache, remoteCache, meterRegistry,
+            publishedMessages::add);
+        remoteCache.put(key, "anterior");
+        // Otra escritura invalida la clave entre la lectura de Redis y la promoción a L1
+        onRemoteRead.set(() -> cache.evictLocal(key.toString()));
+
+
+        assertThat(cache.get(key).get()).isEqualTo("anterior");
+
+
+        assertThat(localCache.get(key.toString())).isNull();
+    }
+
+    private double requests(String tier, String result) {
+        return meterRegistry.get("yape.cache.requests").tag("tier", tier).tag("result", result).counter().count();
+    }
+}
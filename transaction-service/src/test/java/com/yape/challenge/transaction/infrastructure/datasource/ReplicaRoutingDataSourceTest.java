@@ -0,0 +1,139 @@
+package com.yape.challenge.transaction.infrastructure.datasource;
+
+import com.yape.challenge.transaction.domain.model.TransactionType;
+import com.yape.challenge.transaction.domain.repository.TransactionTypeRepository;
+import com.yape.challenge.transaction.infrastructure.config.ReplicaDataSourceConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dos bases H2 independientes hacen de primario y de réplica: cada una tiene una fila distinta en
+// transaction_types, así el nombre leído indica a qué base fue la consulta
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;NON_KEYWORDS=VALUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "yape.datasource.replica.enabled=true",
+    "yape.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+    "yape.datasource.replica.username=sa",
+    "yape.datasource.replica.password=",
+    "yape.datasource.replica.hikari.maximum-pool-size=2",
+    "yape.datasource.replica.lag-query=SELECT lag_ms FROM replica_lag",
+    "yape.datasource.replica.max-lag-ms=1000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReplicaDataSourceConfig.class, ReadYourWritesGuard.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas del enrutamiento de lecturas a réplicas")
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private TransactionTypeRepository transactionTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Autowired
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    private JdbcTemplate replicaJdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS transaction_types "
+            + "(id INT PRIMARY KEY, name VARCHAR(50) NOT NULL, description VARCHAR(255))");
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_ms BIGINT)");
+        replicaJdbcTemplate.update("DELETE FROM transaction_types");
+        replicaJdbcTemplate.update("DELETE FROM replica_lag");
+        replicaJdbcTemplate.update("INSERT INTO transaction_types (id, name) VALUES (1, 'REPLICA')");
+        replicaJdbcTemplate.update("INSERT INTO replica_lag (lag_ms) VALUES (0)");
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        readWrite.executeWithoutResult(status -> {
+            transactionTypeRepository.deleteAllInBatch();
+            transactionTypeRepository.save(TransactionType.builder().name("PRIMARY").build());
+        });
+
+        replicaHealthMonitor.checkReplica();
+    }
+
+    @Test
+    @DisplayName("Debe leer de la réplica en transacciones readOnly y del primario en el resto")
+    void shouldRouteReadOnlyTransactionsToReplica() {
+
+        UUID recentlyWritten = UUID.randomUUID();
+        readYourWritesGuard.record(List.of(recentlyWritten));
+
+
+        List<String> readOnlyNames = readOnly.execute(status -> typeNames());
+        List<String> readWriteNames = readWrite.execute(status -> typeNames());
+        List<String> recentWriteNames = readOnly.execute(status -> readYourWritesGuard.read(recentlyWritten, this::typeNames));
+        List<String> otherNames = readOnly.execute(status -> readYourWritesGuard.read(UUID.randomUUID(), this::typeNames));
+        List<String> listingNames = readOnly.execute(status -> readYourWritesGuard.readListing(this::typeNames));
+
+
+        assertThat(replicaHealthMonitor.isAvailable()).isTrue();
+        assertThat(readOnlyNames).containsExactly("REPLICA");
+        assertThat(readWriteNames).containsExactly("PRIMARY");
+        assertThat(recentWriteNames).containsExactly("PRIMARY");
+        assertThat(otherNames).containsExactly("REPLICA");
+        assertThat(listingNames).containsExactly("PRIMARY");
+    }
+
+    @Test
+    @DisplayName("Debe volver al primario cuando el retraso de la réplica supera el máximo")
+    void shouldFailOverToPrimaryWhenReplicaLags() {
+
+        replicaJdbcTemplate.update("UPDATE replica_lag SET lag_ms = 5000");
+
+
+        replicaHealthMonitor.checkReplica();
+        List<String> laggingNames = readOnly.execute(status -> typeNames());
+        replicaJdbcTemplate.update("UPDATE replica_lag SET lag_ms = 0");
+        replicaHealthMonitor.checkReplica();
+        List<String> recoveredNames = readOnly.execute(status -> typeNames());
+
+
+        assertThat(laggingNames).containsExactly("PRIMARY");
+        assertThat(recoveredNames).containsExactly("REPLICA");
+    }
+
+    private List<String> typeNames() {
+        return transactionTypeRepository.findAll().stream()
+            .map(TransactionType::getName)
+            .toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.yape.challenge.transaction.infrastructure.idempotency;
+
+import com.yape.challenge.transaction.domain.model.IdempotencyKey;
+import com.yape.challenge.transaction.domain.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas del filtro de idempotencia")
+class IdempotencyGuardTest {
+
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        guard = new IdempotencyGuard(idempotencyKeyRepository, new SimpleMeterRegistry(),
+            mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "expectedKeys", 1_000);
+        ReflectionTestUtils.setField(guard, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(guard, "recentSize", 1_000);
+        ReflectionTestUtils.setField(guard, "retentionHours", 24L);
+        guard.init();
+    }
+
+    @Test
+    @DisplayName("Debe vencer las claves precargadas según su created_at y no desde la precarga")
+    void shouldExpireWarmedUpKeysFromTheirCreatedAt() {
+
+        OffsetDateTime now = OffsetDateTime.now();
+        IdempotencyKey expired = key("expirada", now.minusHours(25));
+        IdempotencyKey current = key("vigente", now.minusHours(1));
+        when(idempotencyKeyRepository.streamCreatedSince(any())).thenReturn(Stream.of(expired, current));
+
+
+        guard.warmUp();
+
+
+        assertThat(guard.recentTransactionId("expirada")).isEmpty();
+        assertThat(guard.recentTransactionId("vigente")).contains(current.getTransactionExternalId());
+        assertThat(guard.mightContain("expirada")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe recordar durante toda la retención una clave registrada al crearla")
+    void shouldRememberNewKeysForTheWholeRetention() {
+
+        UUID transactionId = UUID.randomUUID();
+
+
+        guard.record("nueva", transactionId);
+
+
+        assertThat(guard.recentTransactionId("nueva")).contains(transactionId);
+    }
+
+    private IdempotencyKey key(String idempotencyKey, OffsetDateTime createdAt) {
+        return IdempotencyKey.builder()
+            .idempotencyKey(idempotencyKey)
+            .transactionExternalId(UUID.randomUUID())
+            .createdAt(createdAt)
+            .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.yape.challenge.transaction.infrastructure.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas del filtro de Bloom escalable")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Debe encontrar toda clave agregada y acotar los falsos positivos al crecer más allá de su capacidad")
+    void shouldKeepNoFalseNegativesAndBoundedFalsePositivesWhileGrowing() {
+
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        long initialBits = filter.bitSize();
+        List<String> added = new ArrayList<>();
+        // Diez veces la capacidad inicial: obliga a agregar etapas
+        for (int i = 0; i < 10_000; i++) {
+            String key = UUID.randomUUID().toString();
+            filter.put(key);
+            added.add(key);
+        }
+
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+
+        assertThat(added).allMatch(filter::mightContain);
+        assertThat(filter.bitSize()).isGreaterThan(initialBits);
+        assertThat((double) falsePositives / probes).isLessThan(0.01);
+    }
+}
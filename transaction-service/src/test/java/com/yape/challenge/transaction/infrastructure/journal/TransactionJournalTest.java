@@ -0,0 +1,181 @@
+package com.yape.challenge.transaction.infrastructure.journal;
+
+import com.yape.challenge.transaction.application.dto.AcceptedTransaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@DisplayName("Pruebas del journal de transacciones aceptadas")
+class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Debe entregar las entradas sincronizadas y recuperarlas tras reabrir el journal")
+    void shouldReplayUncheckpointedEntriesAfterRestart() throws Exception {
+
+        AcceptedTransaction first = newTransaction("clave-1");
+        AcceptedTransaction second = newTransaction(null);
+        AcceptedTransaction third = newTransaction("clave-3");
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            journal.append(first).get(1, TimeUnit.SECONDS);
+            journal.append(second).get(1, TimeUnit.SECONDS);
+            journal.append(third).get(1, TimeUnit.SECONDS);
+
+
+            List<TransactionJournal.Entry> batch = journal.takeDurable(2, 1000);
+            journal.checkpoint(batch.get(batch.size() - 1));
+
+
+            assertThat(batch).extracting(TransactionJournal.Entry::transaction).containsExactly(first, second);
+        }
+
+        // Solo lo posterior al checkpoint vuelve a quedar pendiente, con todos sus campos intactos
+        try (TransactionJournal reopened = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            assertThat(reopened.pendingTransactions()).containsExactly(third);
+            assertThat(reopened.takeDurable(10, 1000)).extracting(TransactionJournal.Entry::transaction)
+                .containsExactly(third);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe descartar un registro truncado al final del segmento")
+    void shouldIgnoreTornRecordOnReplay() throws Exception {
+
+        AcceptedTransaction accepted = newTransaction("clave");
+        int endOffset;
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            journal.append(accepted).get(1, TimeUnit.SECONDS);
+            endOffset = journal.takeDurable(1, 1000).get(0).endOffset();
+        }
+
+
+        // Cabecera de un registro cuyo payload no llegó a escribirse completo
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putInt(64).putInt(123456).putInt(42).flip(), endOffset);
+        }
+
+
+        try (TransactionJournal reopened = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            assertThat(reopened.pendingTransactions()).containsExactly(accepted);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe rotar segmentos y borrar los ya cubiertos por el checkpoint")
+    void shouldRollSegmentsAndDeletePersistedOnes() throws Exception {
+
+        try (TransactionJournal journal = new TransactionJournal(directory, 256, 0)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(newTransaction("clave-" + i)).get(1, TimeUnit.SECONDS);
+            }
+            assertThat(segments()).hasSizeGreaterThan(2);
+
+
+            List<TransactionJournal.Entry> batch = journal.takeDurable(10, 1000);
+            journal.checkpoint(batch.get(batch.size() - 1));
+
+
+            assertThat(batch).hasSize(10);
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe escribir un lote completo o ninguno de sus registros")
+    void shouldAppendBatchAtomically() throws Exception {
+
+        List<AcceptedTransaction> oversized = Stream.generate(() -> newTransaction("clave")).limit(5).toList();
+        List<AcceptedTransaction> fitting = List.of(newTransaction("clave-1"), newTransaction("clave-2"));
+
+        try (TransactionJournal journal = new TransactionJournal(directory, 256, 0)) {
+
+
+            Throwable rejected = catchThrowable(() -> journal.appendAll(oversized));
+            journal.appendAll(fitting).get(1, TimeUnit.SECONDS);
+
+
+            assertThat(rejected).isInstanceOf(IllegalArgumentException.class);
+            assertThat(journal.pendingTransactions()).containsExactlyElementsOf(fitting);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe anular un lote descartado antes del fsync y no recuperarlo tras reabrir")
+    void shouldNotReplayDiscardedBatch() throws Exception {
+
+        AcceptedTransaction discarded = newTransaction("clave-1");
+        AcceptedTransaction kept = newTransaction("clave-2");
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 500_000)) {
+            // La ventana de agrupación de 500 ms deja el lote esperando su fsync
+            CompletableFuture<Void> synced = journal.append(discarded);
+
+
+            boolean annulled = journal.discard(synced);
+            journal.append(kept).get(5, TimeUnit.SECONDS);
+
+
+            assertThat(annulled).isTrue();
+            assertThat(synced).isCompletedExceptionally();
+            assertThat(journal.takeDurable(10, 1000)).extracting(TransactionJournal.Entry::transaction)
+                .containsExactly(kept);
+        }
+
+        try (TransactionJournal reopened = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            assertThat(reopened.pendingTransactions()).containsExactly(kept);
+        }
+    }
+
+    @Test
+    @DisplayName("No debe descartar un lote que ya está en disco")
+    void shouldKeepBatchAlreadySynced() throws Exception {
+
+        AcceptedTransaction accepted = newTransaction("clave");
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            CompletableFuture<Void> synced = journal.append(accepted);
+            synced.get(1, TimeUnit.SECONDS);
+
+
+            boolean annulled = journal.discard(synced);
+
+
+            assertThat(annulled).isFalse();
+            assertThat(journal.pendingTransactions()).containsExactly(accepted);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private AcceptedTransaction newTransaction(String idempotencyKey) {
+        return new AcceptedTransaction(UUID.randomUUID(), idempotencyKey, UUID.randomUUID(), UUID.randomUUID(), 1,
+            new BigDecimal("150.25"), OffsetDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000, ZoneOffset.UTC));
+    }
+}
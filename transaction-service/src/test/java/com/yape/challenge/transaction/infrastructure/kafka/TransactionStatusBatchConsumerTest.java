@@ -0,0 +1,126 @@
+package com.yape.challenge.transaction.infrastructure.kafka;
+
+import com.yape.challenge.shared.event.TransactionStatusUpdatedEvent;
+import com.yape.challenge.transaction.application.dto.StatusUpdate;
+import com.yape.challenge.transaction.application.dto.StatusUpdateOutcome;
+import com.yape.challenge.transaction.application.service.TransactionService;
+import com.yape.challenge.transaction.domain.model.TransactionStatusCode;
+import com.yape.challenge.transaction.infrastructure.metrics.PipelineMetrics;
+import com.yape.challenge.transaction.infrastructure.subscription.TransactionStatusPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas del consumidor de estados en lote")
+class TransactionStatusBatchConsumerTest {
+
+    private static final String TOPIC = "transaction.status.updated";
+    private static final String DEAD_LETTER_TOPIC = "transaction.status.updated.dlt";
+
+    private TransactionService transactionService;
+    private MockProducer<String, Object> producer;
+    private TransactionStatusBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        producer = new MockProducer<>(true, new StringSerializer(), new DelegatingByTypeSerializer(Map.of(
+            byte[].class, new ByteArraySerializer(),
+            TransactionStatusUpdatedEvent.class, new JsonSerializer<>())));
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+            new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)),
+            (record, exception) -> new TopicPartition(DEAD_LETTER_TOPIC, -1));
+        consumer = new TransactionStatusBatchConsumer(transactionService,
+            new PipelineMetrics(new SimpleMeterRegistry()), recoverer, mock(TransactionStatusPublisher.class));
+    }
+
+    @Test
+    @DisplayName("Debe reenviar al DLT los bytes originales de un evento no deserializable")
+    void shouldForwardRawPayloadOfUndeserializableEvent() {
+
+        UUID transactionId = UUID.randomUUID();
+        TransactionStatusUpdatedEvent approved = TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(transactionId)
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.APPROVED)
+            .build();
+        byte[] corrupt = "{\"status\":".getBytes(StandardCharsets.UTF_8);
+        when(transactionService.updateTransactionStatuses(anyMap()))
+            .thenReturn(Map.of(transactionId, StatusUpdateOutcome.UPDATED));
+
+
+        consumer.consumeTransactionStatusUpdatedEvents(List.of(record(0, approved), undeserializable(1, corrupt)));
+
+
+        assertThat(producer.history()).hasSize(1);
+        ProducerRecord<String, Object> deadLetter = producer.history().get(0);
+        assertThat(deadLetter.topic()).isEqualTo(DEAD_LETTER_TOPIC);
+        assertThat(deadLetter.value()).isEqualTo(corrupt);
+        assertThat(new String(deadLetter.headers().lastHeader(TransactionStatusBatchConsumer.DLT_REASON_HEADER).value(),
+            StandardCharsets.UTF_8)).isEqualTo("DESERIALIZATION");
+    }
+
+    @Test
+    @DisplayName("Debe reenviar al DLT el evento que no se pudo aplicar")
+    void shouldForwardConflictingEvent() {
+
+        UUID transactionId = UUID.randomUUID();
+        TransactionStatusUpdatedEvent rejected = TransactionStatusUpdatedEvent.builder()
+            .transactionExternalId(transactionId)
+            .status(TransactionStatusUpdatedEvent.TransactionStatus.REJECTED)
+            .build();
+        when(transactionService.updateTransactionStatuses(Map.of(transactionId,
+                new StatusUpdate(TransactionStatusCode.REJECTED, null))))
+            .thenReturn(Map.of(transactionId, StatusUpdateOutcome.CONFLICT));
+
+
+        consumer.consumeTransactionStatusUpdatedEvents(List.of(record(0, rejected)));
+
+
+        assertThat(producer.history()).singleElement()
+            .satisfies(deadLetter -> {
+                assertThat(deadLetter.value()).isEqualTo(rejected);
+                assertThat(new String(deadLetter.headers().lastHeader(TransactionStatusBatchConsumer.DLT_REASON_HEADER)
+                    .value(), StandardCharsets.UTF_8)).isEqualTo("CONFLICT");
+            });
+    }
+
+    private ConsumerRecord<String, TransactionStatusUpdatedEvent> record(long offset, TransactionStatusUpdatedEvent event) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, event.getTransactionExternalId().toString(), event);
+    }
+
+    // Lo que entrega el ErrorHandlingDeserializer cuando el payload no se puede leer
+    private ConsumerRecord<String, TransactionStatusUpdatedEvent> undeserializable(long offset, byte[] data) {
+        RecordHeaders headers = new RecordHeaders();
+        SerializationUtils.deserializationException(headers, data,
+            new DeserializationException("payload inválido", data, false, new IllegalArgumentException()), false);
+        return new ConsumerRecord<>(TOPIC, 0, offset, ConsumerRecord.NO_TIMESTAMP, TimestampType.NO_TIMESTAMP_TYPE,
+            ConsumerRecord.NULL_SIZE, data.length, "key", null, headers, Optional.empty());
+    }
+}
@@ -0,0 +1,119 @@
+package com.yape.challenge.transaction.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.yape.challenge.shared.event.TransactionCreatedEvent;
+import com.yape.challenge.transaction.domain.model.OutboxEvent;
+import com.yape.challenge.transaction.domain.repository.OutboxEventRepository;
+import com.yape.challenge.transaction.infrastructure.kafka.TransactionEventProducer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Pruebas del relay del outbox")
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private OutboxEventRepository outboxEventRepository;
+    private TransactionEventProducer eventProducer;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        eventProducer = mock(TransactionEventProducer.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        relay = new OutboxRelay(outboxEventRepository, eventProducer, new TransactionTemplate(transactionManager),
+            objectMapper);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "claimTtlMs", 30000L);
+        ReflectionTestUtils.setField(relay, "retryBackoffMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    @DisplayName("Debe publicar fuera de la transacción que reclama el lote")
+    void shouldPublishAfterClaimCommits() throws Exception {
+
+        OutboxEvent outboxEvent = outboxEvent(1L, OutboxEvent.TRANSACTION_CREATED, createdEventPayload(), 0);
+        when(outboxEventRepository.lockNextClaimableBatch(any(), anyInt())).thenReturn(List.of(outboxEvent));
+        when(eventProducer.sendTransactionCreatedEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+
+        relay.relayPendingEvents();
+
+
+        InOrder inOrder = inOrder(outboxEventRepository, transactionManager, eventProducer);
+        inOrder.verify(outboxEventRepository).claim(eq(List.of(1L)), any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(eventProducer).sendTransactionCreatedEvent(any());
+        inOrder.verify(outboxEventRepository).markAsSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    @DisplayName("Debe marcar como fallidas las filas que no se pueden publicar")
+    void shouldMarkPoisonRowsAsFailed() throws Exception {
+
+        OutboxEvent unknownType = outboxEvent(1L, "TransactionDeleted", createdEventPayload(), 0);
+        OutboxEvent unreadable = outboxEvent(2L, OutboxEvent.TRANSACTION_CREATED, "{no es json", 0);
+        OutboxEvent exhausted = outboxEvent(3L, OutboxEvent.TRANSACTION_CREATED, createdEventPayload(), 2);
+        when(outboxEventRepository.lockNextClaimableBatch(any(), anyInt()))
+            .thenReturn(List.of(unknownType, unreadable, exhausted));
+        when(eventProducer.sendTransactionCreatedEvent(any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker caído")));
+
+
+        relay.relayPendingEvents();
+
+
+        verify(outboxEventRepository).markAsFailed(eq(1L), any(), anyString());
+        verify(outboxEventRepository).markAsFailed(eq(2L), any(), anyString());
+        verify(outboxEventRepository).markAsFailed(eq(3L), any(), anyString());
+        verify(outboxEventRepository, never()).markAsSent(any(), any());
+        verify(outboxEventRepository, never()).releaseForRetry(any(), any());
+    }
+
+    private OutboxEvent outboxEvent(long id, String eventType, String payload, int attempts) {
+        return OutboxEvent.builder()
+            .id(id)
+            .aggregateId(UUID.randomUUID())
+            .eventType(eventType)
+            .payload(payload)
+            .attempts(attempts)
+            .build();
+    }
+
+    private String createdEventPayload() throws Exception {
+        return objectMapper.writeValueAsString(TransactionCreatedEvent.builder()
+            .transactionExternalId(UUID.randomUUID())
+            .accountExternalIdDebit(UUID.randomUUID())
+            .accountExternalIdCredit(UUID.randomUUID())
+            .transferTypeId(1)
+            .value(BigDecimal.TEN)
+            .build());
+    }
+}
@@ -0,0 +1,133 @@
+package com.yape.challenge.transaction.infrastructure.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del mantenimiento de particiones de transacciones")
+class TransactionPartitionMaintainerTest {
+
+    private static final String LOCK_QUERY = "SELECT pg_try_advisory_xact_lock(?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new TransactionPartitionMaintainer(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(maintainer, "premakeMonths", 2);
+        ReflectionTestUtils.setField(maintainer, "retentionMonths", 2);
+        ReflectionTestUtils.setField(maintainer, "retentionAction", "detach");
+        ReflectionTestUtils.setField(maintainer, "lockTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(maintainer, "keyReleaseBatchSize", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Debe crear los meses faltantes sin retirar particiones en la misma transacción")
+    void shouldPremakeMissingMonths() {
+
+        when(jdbcTemplate.queryForObject(eq(LOCK_QUERY), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+            "transactions_p202607", "transactions_p202608", "transactions_p202609", "transactions_p202610"));
+
+
+        maintainer.premakePartitions(YearMonth.of(2026, 10));
+
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        assertThat(statements.getAllValues()).containsExactly(
+            "SET LOCAL lock_timeout = 5000",
+            "CREATE TABLE transactions_p202611 PARTITION OF transactions FOR VALUES FROM ('2026-11-01T00:00') TO ('2026-12-01T00:00')",
+            "CREATE TABLE transactions_p202612 PARTITION OF transactions FOR VALUES FROM ('2026-12-01T00:00') TO ('2027-01-01T00:00')"
+        );
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Debe separar cada partición vencida en su propia transacción")
+    void shouldDetachEachExpiredPartitionInItsOwnTransaction() {
+
+        when(jdbcTemplate.queryForObject(eq(LOCK_QUERY), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+            .thenReturn(List.of("transactions_p202606", "transactions_p202607", "transactions_p202608"))
+            .thenReturn(List.of("transactions_p202607", "transactions_p202608"))
+            .thenReturn(List.of("transactions_p202608"));
+
+
+        maintainer.retireExpiredPartitions(YearMonth.of(2026, 10));
+
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        // Se conservan agosto y septiembre completos además del mes en curso
+        assertThat(statements.getAllValues()).containsExactly(
+            "SET LOCAL lock_timeout = 5000",
+            "ALTER TABLE transactions DETACH PARTITION transactions_p202606",
+            "SET LOCAL lock_timeout = 5000",
+            "ALTER TABLE transactions DETACH PARTITION transactions_p202607",
+            "SET LOCAL lock_timeout = 5000"
+        );
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Debe liberar las claves retiradas en lotes, sin pasar de la partición adjunta más antigua")
+    void shouldReleaseKeysInBatchesUpToOldestAttachedPartition() {
+
+        // Julio no se pudo separar: sus claves siguen protegiendo filas consultables
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+            .thenReturn(List.of("transactions_p202607", "transactions_p202608"));
+        when(jdbcTemplate.update(anyString(), eq(LocalDateTime.of(2026, 7, 1, 0, 0)), eq(2)))
+            .thenReturn(2, 2, 1);
+
+
+        int released = maintainer.releaseExpiredKeys(YearMonth.of(2026, 10));
+
+
+        assertThat(released).isEqualTo(5);
+        verify(jdbcTemplate, times(3)).update(anyString(), eq(LocalDateTime.of(2026, 7, 1, 0, 0)), eq(2));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("No debe tocar las particiones si otra instancia tiene el lock de mantenimiento")
+    void shouldSkipWhenAnotherInstanceHoldsTheLock() {
+
+        when(jdbcTemplate.queryForObject(eq(LOCK_QUERY), eq(Boolean.class), any())).thenReturn(false);
+
+
+        maintainer.premakePartitions(YearMonth.of(2026, 10));
+        maintainer.retireExpiredPartitions(YearMonth.of(2026, 10));
+
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+}
@@ -0,0 +1,186 @@
+package com.yape.challenge.transaction.infrastructure.subscription;
+
+import com.yape.challenge.transaction.application.dto.TransactionStatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas del registro de suscripciones de estado")
+class TransactionSubscriptionRegistryTest {
+
+    private static final int BUFFER_SIZE = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionSubscriptionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new TransactionSubscriptionRegistry(meterRegistry);
+        ReflectionTestUtils.setField(registry, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(registry, "maxSubscribers", 50_000);
+    }
+
+    @Test
+    @DisplayName("Debe entregar cada evento solo a sus interesados con miles de suscripciones concurrentes")
+    void shouldFanOutToThousandsOfConcurrentSubscribers() throws Exception {
+
+        int transactions = 10_000;
+        int accounts = 500;
+        List<UUID> transactionIds = new ArrayList<>(transactions);
+        List<UUID> accountIds = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            accountIds.add(UUID.randomUUID());
+        }
+        // Una suscripción por transacción (reemplazo del polling) y cuatro por cuenta
+        Map<UUID, List<TransactionStatusChange>> received = new ConcurrentHashMap<>();
+        CountDownLatch transactionsCompleted = new CountDownLatch(transactions);
+        for (int i = 0; i < transactions; i++) {
+            UUID transactionId = UUID.randomUUID();
+            transactionIds.add(transactionId);
+            registry.subscribeTransaction(transactionId, Optional::empty)
+                .doOnComplete(transactionsCompleted::countDown)
+                .subscribe(change -> received.computeIfAbsent(transactionId, id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(change));
+        }
+        AtomicInteger accountDeliveries = new AtomicInteger();
+        AtomicInteger misrouted = new AtomicInteger();
+        for (UUID accountId : accountIds) {
+            for (int copy = 0; copy < 4; copy++) {
+                registry.subscribeAccount(accountId).subscribe(change -> {
+                    accountDeliveries.incrementAndGet();
+                    if (!accountId.equals(change.getAccountExternalIdDebit()) && !accountId.equals(change.getAccountExternalIdCredit())) {
+                        misrouted.incrementAndGet();
+                    }
+                });
+            }
+        }
+        assertThat(activeSubscribers()).isEqualTo(transactions + accounts * 4);
+
+
+        // Varios hilos publican a la vez, como los consumidores de Kafka de distintas particiones
+        ExecutorService publishers = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            futures.add(publishers.submit(() -> {
+                for (int i = offset; i < transactions; i += 8) {
+                    registry.publish(change(transactionIds.get(i), accountIds.get(i % accounts),
+                        accountIds.get((i + 1) % accounts), "approved"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        publishers.shutdown();
+
+
+        assertThat(transactionsCompleted.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(transactions);
+        assertThat(received.values()).allSatisfy(changes -> assertThat(changes).hasSize(1));
+        // Cada cambio llega a las 4 suscripciones del débito y a las 4 del crédito
+        assertThat(accountDeliveries.get()).isEqualTo(transactions * 8);
+        assertThat(misrouted.get()).isZero();
+        // Las suscripciones por transacción terminan con el estado final y se dan de baja solas
+        assertThat(activeSubscribers()).isEqualTo(accounts * 4);
+    }
+
+    @Test
+    @DisplayName("Debe cortar solo la suscripción que no consume sus eventos")
+    void shouldDropSlowSubscriberWithoutAffectingOthers() {
+
+        UUID accountId = UUID.randomUUID();
+        StalledSubscriber slow = new StalledSubscriber();
+        registry.subscribeAccount(accountId).subscribe(slow);
+        List<TransactionStatusChange> fast = new ArrayList<>();
+        registry.subscribeAccount(accountId).subscribe(fast::add);
+
+
+        for (int i = 0; i < BUFFER_SIZE * 2; i++) {
+            registry.publish(change(UUID.randomUUID(), accountId, UUID.randomUUID(), "approved"));
+        }
+
+
+        assertThat(fast).hasSize(BUFFER_SIZE * 2);
+        assertThat(activeSubscribers()).isEqualTo(1);
+        assertThat(meterRegistry.get(TransactionSubscriptionRegistry.OVERFLOW_COUNTER).counter().count()).isEqualTo(1);
+        // Al reanudar recibe lo que alcanzó a encolar y después el error
+        slow.requestUnbounded();
+        assertThat(slow.received).hasSize(BUFFER_SIZE);
+        assertThat(slow.error).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Debe emitir el estado actual y terminar si la transacción ya estaba decidida")
+    void shouldEmitCurrentStatusWhenAlreadyDecided() {
+
+        UUID transactionId = UUID.randomUUID();
+        TransactionStatusChange decided = change(transactionId, UUID.randomUUID(), UUID.randomUUID(), "rejected");
+
+
+        List<TransactionStatusChange> received = registry.subscribeTransaction(transactionId, () -> Optional.of(decided))
+            .collectList()
+            .block();
+
+
+        assertThat(received).containsExactly(decided);
+        assertThat(activeSubscribers()).isZero();
+    }
+
+    private double activeSubscribers() {
+        return meterRegistry.get(TransactionSubscriptionRegistry.ACTIVE_GAUGE).gauge().value();
+    }
+
+    private TransactionStatusChange change(UUID transactionId, UUID debit, UUID credit, String status) {
+        return TransactionStatusChange.builder()
+            .transactionId(transactionId)
+            .accountExternalIdDebit(debit)
+            .accountExternalIdCredit(credit)
+            .status(status)
+            .updatedAt(OffsetDateTime.now())
+            .build();
+    }
+
+    // Cliente que no pide eventos hasta que se le indica
+    private static class StalledSubscriber extends BaseSubscriber<TransactionStatusChange> {
+
+        private final List<TransactionStatusChange> received = new ArrayList<>();
+        private Throwable error;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+        }
+
+        @Override
+        protected void hookOnNext(TransactionStatusChange change) {
+            received.add(change);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}